@@ -178,17 +178,13 @@ function notFound() {
 
 let build = true;
 
-var interval = setInterval(async () => {
-    await testHandler()
-}, 250);
-
-var testHandler = async () => {
-    const responseData = await testsHandler();
+var interval = null;
 
+// Applies a submission update to the page, returning whether no more updates will come
+var handleUpdate = (responseData) => {
     if ("error" in responseData) {
         compilationError(responseData.error);
-        clearInterval(interval);
-        return;
+        return true;
     }
 
     if (("tests" in responseData) && (build)) {
@@ -200,28 +196,79 @@ var testHandler = async () => {
         queued(responseData);
     }
 
+    let finished = false;
+
     if (responseData.completed) {
         if (Object.keys(responseData).length == 1) {
             notFound();
         }
 
-        clearInterval(interval);
+        finished = true;
     }
 
     updateTests(responseData)
+
+    return finished;
 }
 
-async function testsHandler() {
+var testHandler = async () => {
+    const responseData = await testsHandler();
+
+    if (handleUpdate(responseData)) {
+        clearInterval(interval);
+    }
+}
+
+// Fallback for browsers or connections without server-sent events
+function poll() {
+    interval = setInterval(async () => {
+        await testHandler()
+    }, 250);
+}
+
+// Holds one connection which is pushed each change to the submission
+function listen() {
+    if (!window.EventSource) {
+        poll();
+        return;
+    }
+
+    const source = new EventSource(submissionsUrl());
+    let received = false;
+
+    source.onmessage = (event) => {
+        received = true;
+
+        if (handleUpdate(JSON.parse(event.data))) {
+            source.close();
+        }
+    };
+
+    // Streams which never deliver an event fall back to polling, while later errors are retried by the browser
+    source.onerror = () => {
+        if (!received) {
+            source.close();
+            poll();
+        }
+    };
+}
+
+function submissionsUrl() {
     const url = window.location.href;
 
     const problemId = url.split("/")[4];
 
-    const response = await fetch(`http://localhost:5000/problems/${problemId}/submissions`);
+    return `http://localhost:5000/problems/${problemId}/submissions`;
+}
+
+async function testsHandler() {
+    const response = await fetch(submissionsUrl());
 
     const responseData = await response.json();
 
     return responseData;
 }
 
-// testsHandler().then(res => buildTests(res))
+listen();
 
+// testsHandler().then(res => buildTests(res))
@@ -1,8 +1,10 @@
 import assets.AssetEngine;
+import assets.DirectoryWatcher;
 import coderunner.CodeRunner;
 import database.Database;
 import server.WebServer;
 import server.handler.Handler;
+import server.handler.ResponseCache;
 import server.handler.routes.AboutRoute;
 import server.handler.routes.HomeRoute;
 import server.handler.routes.LogInRoute;
@@ -12,15 +14,21 @@ import server.handler.routes.ProblemRoute;
 import server.handler.routes.ProblemsRoute;
 import server.handler.routes.SignUpRoute;
 import server.handler.routes.SubmissionPollRoute;
+import server.handler.routes.SubmissionSocketRoute;
 import server.handler.routes.SubmitRoute;
 import server.handler.routes.TestsRoute;
-import server.request.Request;
+import server.log.AccessLog;
+import server.log.ConsoleOutput;
+import server.log.LogOutput;
+import server.log.RotatingFileOutput;
 import template.TemplateEngine;
 
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.function.Consumer;
 
 /**
  * A web application for problem/contest hosting and judging code
@@ -45,12 +53,17 @@ public class Main {
     /** Sets the color of the console output to red */
     private static final String ANSI_RED = "\u001B[31m";
 
-    /** Sets the color of the console output to blue */
-    private static final String ANSI_BLUE = "\u001B[34m";
+    /** The size in bytes at which the access log file is rotated */
+    private static final long ACCESS_LOG_MAX_SIZE = 10 << 20;
+
+    /** The number of rotated access log files kept */
+    private static final int ACCESS_LOG_MAX_FILES = 5;
 
     /**
      * main
-     * Serves the {@link WebServer} at port 5000
+     * Serves the {@link WebServer} at port 5000.
+     * With the {@code --reload} argument, templates, assets, and problems are reloaded as soon as they are edited.
+     * With the {@code --access-log} argument, requests are logged to {@code logs/access.log} rather than the console
      * @param args command line arguments
      */
     public static void main(String[] args) {
@@ -59,6 +72,7 @@ public class Main {
             TemplateEngine templateEngine = new TemplateEngine("frontend/templates");
 
             AssetEngine assetEngine = new AssetEngine("frontend/styles", "frontend/images", "frontend/js", "frontend/favicon");
+            assetEngine.bundle("frontend/bundles.txt");
 
             CodeRunner codeRunner = new CodeRunner();
 
@@ -81,6 +95,7 @@ public class Main {
             routes.put("/problems/:problemId/submit", new SubmitRoute(templateEngine, codeRunner, database));
             routes.put("/problems/:problemId/tests", new TestsRoute(templateEngine, database));
             routes.put("/problems/:problemId/submissions", new SubmissionPollRoute(codeRunner, database));
+            routes.put("/ws/submissions", new SubmissionSocketRoute(codeRunner));
             routes.put("/about", new AboutRoute(templateEngine, database));
             routes.put("/sign-up", new SignUpRoute(templateEngine, database));
             routes.put("/log-in", new LogInRoute(templateEngine, database));
@@ -96,13 +111,57 @@ public class Main {
             assets.put("frontend/js/", "/static/js/");
             assets.put("frontend/favicon/", "/");
 
-            // Request Logger
-            Consumer<Request> logger = request -> {
-                Request.StatusLine statusLine = request.getStatusLine();
-                System.out.println(ANSI_BLUE + "[INFO] " + statusLine.getMethod() + " " + statusLine.getUrl() + " " + statusLine.getProtocol() + ANSI_RESET);
-            };
+            // Request Logger, written on a background thread so requests never wait on the console or disk
+            LogOutput logOutput = Arrays.asList(args).contains("--access-log")
+                    ? new RotatingFileOutput("logs/access.log", ACCESS_LOG_MAX_SIZE, ACCESS_LOG_MAX_FILES)
+                    : new ConsoleOutput();
+
+            AccessLog accessLog = new AccessLog(logOutput);
+            accessLog.start();
+
+            // Write the remaining entries on shutdown
+            Runtime.getRuntime().addShutdownHook(new Thread(accessLog::close));
+
+            WebServer server = new WebServer(templateEngine, assetEngine, routes, assets, notFoundHandler, accessLog);
+
+            // Bundles are built in memory rather than read from a directory
+            server.mount("/static/bundles/", "bundles/");
+
+            // Cached pages are rendered again once what they show changes, unless pages are not cached
+            ResponseCache responseCache = server.getResponseCache();
+            Runnable invalidatePages = (responseCache != null) ? responseCache::invalidate : () -> {};
+
+            database.problems().addChangeListener(invalidatePages);
+
+            // Reload edited files without dropping the state of the code runner
+            if (Arrays.asList(args).contains("--reload")) {
+                DirectoryWatcher watcher = new DirectoryWatcher();
+
+                watcher.watch("frontend/templates", path -> {
+                    templateEngine.reload(path);
+                    invalidatePages.run();
+                });
+
+                // Pages link to the fingerprints of the assets
+                for (String directory : assets.keySet()) {
+                    watcher.watch(directory, path -> {
+                        assetEngine.reload(path);
+                        invalidatePages.run();
+                    });
+                }
+
+                watcher.watch("problems", path -> {
+                    try {
+                        database.problems().populateFromDirectory("problems");
+                    } catch (SQLException e) {
+                        throw new IOException(e);
+                    }
+                });
+
+                watcher.start();
 
-            WebServer server = new WebServer(templateEngine, assetEngine, routes, assets, notFoundHandler, logger);
+                System.out.println(ANSI_RED + "[STATUS] Reloading templates, assets, and problems when they change" + ANSI_RESET);
+            }
 
             server.serve(5000, port -> System.out.println(ANSI_RED + "[STATUS] Accepting clients on port " + port + ANSI_RESET));
         } catch (Exception e) {
@@ -0,0 +1,226 @@
+package assets;
+
+import server.response.ContentEncoding;
+import server.response.ETag;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Represents a static asset held outside the Java heap, along with any compressed variants of it and their entity tags.
+ * Variants are compressed and hashed once, when the asset is loaded, so serving them costs no more than serving the original.
+ * Large assets are memory mapped and keep their file open, so their content can be sent to a socket by the kernel.
+ * Since a mapping follows edits made to its file, mapped assets can tell whether their file has changed since it was read.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Asset {
+    /** The codings compressed variants are built with */
+    private static final ContentEncoding[] COMPRESSED_ENCODINGS = { ContentEncoding.GZIP, ContentEncoding.DEFLATE };
+
+    /** The number of characters of the entity tag used as the fingerprint of the content */
+    private static final int FINGERPRINT_LENGTH = 10;
+
+    /** The original content of the asset, which is read only */
+    private final ByteBuffer content;
+
+    /** The content of the asset compressed with each coding, which is read only */
+    private final Map<ContentEncoding, ByteBuffer> variants;
+
+    /** The strong entity tag of the original content */
+    private final String eTag;
+
+    /** The open file holding the original content, or null if the content is not mapped from a file */
+    private final FileChannel file;
+
+    /** The path of the mapped file, or null if the content is not mapped from a file */
+    private final Path path;
+
+    /** The modification time of the mapped file when it was read, or null if the content is not mapped from a file */
+    private final FileTime lastModified;
+
+    /**
+     * The number of holders of the asset which may still use its file, counting the registry which serves it
+     * and every response transferring from the file. The file is closed once this reaches zero
+     */
+    private final AtomicInteger references;
+
+    /**
+     * Constructs an asset with its content
+     * @param content the original content of the asset, from its position to its limit
+     * @param compressible whether compressed variants should be built, which is only worthwhile for uncompressed formats
+     */
+    public Asset(ByteBuffer content, boolean compressible) {
+        this(content, null, null, null, compressible);
+    }
+
+    /**
+     * Constructs an asset with its content and the file it is mapped from
+     * @param content the original content of the asset, from its position to its limit
+     * @param file the open file holding the content, or null if there is none
+     * @param path the path of the file, or null if there is none
+     * @param lastModified the modification time of the file when it was read, or null if there is no file
+     * @param compressible whether compressed variants should be built, which is only worthwhile for uncompressed formats
+     */
+    public Asset(ByteBuffer content, FileChannel file, Path path, FileTime lastModified, boolean compressible) {
+        this.content = content.slice().asReadOnlyBuffer();
+        this.file = file;
+        this.path = path;
+        this.lastModified = lastModified;
+        this.references = new AtomicInteger(1);
+        this.variants = new EnumMap<>(ContentEncoding.class);
+        this.eTag = ETag.strong(this.content.duplicate());
+
+        this.variants.put(ContentEncoding.IDENTITY, this.content);
+
+        if (compressible) {
+            for (ContentEncoding encoding : COMPRESSED_ENCODINGS) {
+                byte[] variant = encoding.encode(this.content.duplicate(), Deflater.BEST_COMPRESSION);
+
+                // Keep the variant only if compression actually pays off
+                if (variant.length < this.content.remaining()) {
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(variant.length);
+
+                    buffer.put(variant).flip();
+
+                    this.variants.put(encoding, buffer.asReadOnlyBuffer());
+                }
+            }
+        }
+    }
+
+    /**
+     * getContent
+     * gets the original content of the asset without copying it
+     * @return a read only view of the original content
+     */
+    public ByteBuffer getContent() {
+        return this.content.duplicate();
+    }
+
+    /**
+     * getContent
+     * gets the content of the asset compressed with a coding without copying it
+     * @param encoding the coding
+     * @return a read only view of the compressed content, or null if no variant exists for the coding
+     */
+    public ByteBuffer getContent(ContentEncoding encoding) {
+        ByteBuffer variant = this.variants.get(encoding);
+
+        return variant == null ? null : variant.duplicate();
+    }
+
+    /**
+     * getFingerprint
+     * gets a short hash of the original content, which changes whenever the content does
+     * and only contains characters which are safe in a file name and a url
+     * @return the fingerprint
+     */
+    public String getFingerprint() {
+        // The tag is a quoted, url safe encoding of the hash
+        return this.eTag.substring(1, 1 + FINGERPRINT_LENGTH);
+    }
+
+    /**
+     * getFile
+     * gets the open file holding the original content, which can be transferred directly to a socket
+     * @return the file, or null if the content is not mapped from a file
+     */
+    public FileChannel getFile() {
+        return this.file;
+    }
+
+    /**
+     * isModified
+     * checks whether the mapped file has been edited, truncated, or deleted since it was read,
+     * in which case the content no longer matches its length and entity tag
+     * @return whether the file has changed, which is always false if the content is not mapped from a file
+     */
+    public boolean isModified() {
+        if (this.file == null) {
+            return false;
+        }
+
+        try {
+            return (this.file.size() != this.content.capacity()) || !Files.getLastModifiedTime(this.path).equals(this.lastModified);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * retain
+     * takes a reference to the asset, which keeps its file open until it is released
+     * @return whether the reference was taken, which is false once the file has been closed
+     */
+    public boolean retain() {
+        while (true) {
+            int references = this.references.get();
+
+            if (references == 0) {
+                return false;
+            }
+
+            if (this.references.compareAndSet(references, references + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * release
+     * gives up a reference to the asset, closing its file once no holder is left.
+     * The registry releases its reference when the asset is replaced or removed,
+     * so the file of a replaced asset stays open until the responses still transferring from it are written
+     */
+    public void release() {
+        if (this.references.decrementAndGet() == 0) {
+            this.close();
+        }
+    }
+
+    /**
+     * close
+     * closes the file holding the content, if there is one.
+     * The content stays readable, since a mapping outlives the file it was mapped from
+     */
+    public void close() {
+        if (this.file == null) {
+            return;
+        }
+
+        try {
+            this.file.close();
+        } catch (IOException e) {
+            System.out.println("Failed to close asset file");
+        }
+    }
+
+    /**
+     * getETag
+     * gets the strong entity tag of the content compressed with a coding
+     * @param encoding the coding
+     * @return the quoted entity tag
+     */
+    public String getETag(ContentEncoding encoding) {
+        return ETag.withEncoding(this.eTag, encoding);
+    }
+
+    /**
+     * toString
+     * returns a string representation of this object
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return "Asset{" + this.content.remaining() + " bytes" + (this.file == null ? "" : ", mapped") + ", variants=" + this.variants.keySet() + "}";
+    }
+}
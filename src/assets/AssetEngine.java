@@ -4,18 +4,28 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * Responsible for managing all static assets in the web application
+ * Responsible for managing all static assets in the web application.
+ * Every asset is also registered under a fingerprinted path, such as {@code problem.3fa9c1d27b.css},
+ * which names a single version of its content and can therefore be cached by clients forever.
+ * Stylesheets and scripts can also be concatenated and minified into bundles declared in a manifest,
+ * so a page loads its shared styles and scripts with one request each
  * @author Harry Xu
  * @version 1.0 - June 8th 2023
  */
@@ -26,6 +36,9 @@ public class AssetEngine {
     /** Common extensions of image files */
     private final static Set<String> IMAGE_EXTENSIONS = new HashSet<>();
 
+    /** The size in bytes from which files are memory mapped rather than copied into memory */
+    private final static int MAP_THRESHOLD = 64 * 1024;
+
     static {
         // Text extensions
         TEXT_EXTENSIONS.add("css");
@@ -39,8 +52,11 @@ public class AssetEngine {
         IMAGE_EXTENSIONS.add("ico");
     }
 
-    /** the registry for assets */
-    private final Map<String, byte[]> assets;
+    /** the registry for assets, which is replaced rather than modified once the engine is constructed */
+    private volatile Map<String, Asset> assets;
+
+    /** The registered path of each bundle, with the paths of the assets it is built from in order */
+    private volatile Map<String, List<String>> bundles;
 
     /**
      * Constructs an {@link AssetEngine} with predefined assets registered
@@ -54,6 +70,7 @@ public class AssetEngine {
         }
 
         this.assets = new HashMap<>();
+        this.bundles = new LinkedHashMap<>();
 
         for (String path : paths) {
             File dir = new File(path);
@@ -65,108 +82,348 @@ public class AssetEngine {
                     for (File file : files) {
                         String filename = file.getPath();
 
-                        this.assets.put(filename.replace("\\", "/"), this.read(filename));
+                        register(this.assets, filename.replace("\\", "/"), this.read(filename));
                     }
                 }
             }
 
             if (dir.isFile()) {
-                this.assets.put(path, this.read(path));
+                register(this.assets, path, this.read(path));
             }
         }
     }
 
     /**
      * getAsset
-     * get the raw asset from the registry as an HTTP compatible array of bytes
+     * get the asset from the registry, holding its HTTP compatible bytes, any compressed variants, and their entity tags
      * This is necessary to implement 404 and other error pages, as well as non asset files such as stylesheets
      * @param path the registered path of the asset
-     * @return the read asset string
+     * @return the read asset
      * @throws AssetNotFoundException if no asset is registered under the path
      * */
-    public byte[] getAsset(String path) {
-        if (!this.assets.containsKey(path)) {
+    public Asset getAsset(String path) {
+        Asset asset = this.findAsset(path);
+
+        if (asset == null) {
             throw new AssetNotFoundException("Asset " + path + " cannot be found");
         }
 
+        return asset;
+    }
+
+    /**
+     * findAsset
+     * looks up an asset in the registry, for callers which treat a missing asset as a normal outcome
+     * @param path the registered path of the asset
+     * @return the asset, or null if no asset is registered under the path
+     */
+    public Asset findAsset(String path) {
+        Asset asset = this.assets.get(path);
+
+        // Mapped files edited in place are read again before they are served under stale headers
+        if ((asset != null) && asset.isModified()) {
+            asset = this.refresh(path, asset);
+        }
+
+        return asset;
+    }
+
+    /**
+     * refresh
+     * reloads a mapped asset whose file has changed since it was read, unless another thread already has
+     * @param path the path the asset was found under, which may be its fingerprinted path
+     * @param asset the changed asset
+     * @return the current asset registered under the path, or null if there is none, such as when the path
+     *         names the previous version of the asset or the file has been deleted
+     */
+    private synchronized Asset refresh(String path, Asset asset) {
+        String registered = path;
+
+        if (isFingerprinted(path, asset)) {
+            String marker = "." + asset.getFingerprint();
+            int index = path.lastIndexOf(marker);
+
+            registered = path.substring(0, index) + path.substring(index + marker.length());
+        }
+
+        if (this.assets.get(registered) == asset) {
+            try {
+                this.reload(registered);
+            } catch (IOException e) {
+                // Not served until it can be read again, rather than served from a mapping which no longer matches its headers
+                System.out.println("Failed to reload asset " + registered);
+                return null;
+            }
+        }
+
         return this.assets.get(path);
     }
 
     /**
-     * read
-     * opens and reads a file into a format compatible with HTTP
-     * @param inputFile the path of the file to read from
-     * @return the contents of the input file as a string
-     * @throws IOException if an error occurs while opening or reading the file
+     * bundle
+     * reads a manifest of bundles and registers each bundle as an asset.
+     * Each line of the manifest declares a bundle as its path, a colon, and the registered paths of the stylesheets
+     * or scripts it is built from, separated by spaces (e.g. {@code bundles/common.css: frontend/styles/reset.css frontend/styles/nav.css}).
+     * Blank lines and lines starting with # are ignored.
+     * The sources are minified and concatenated in order, so a stylesheet with imports must come first
+     * @param manifest the path of the manifest
+     * @throws IOException if an error occurs while reading the manifest, or if a line of it is malformed
+     * @throws ExtensionNotFoundException if a bundle is neither a stylesheet nor a script
+     * @throws AssetNotFoundException if a bundle includes an asset which is not registered
      */
-    private byte[] read(String inputFile) throws IOException {
-        String extension = inputFile.substring(inputFile.lastIndexOf('.') + 1);
+    public synchronized void bundle(String manifest) throws IOException {
+        Map<String, List<String>> bundles = new LinkedHashMap<>();
 
-        if (TEXT_EXTENSIONS.contains(extension)) {
-            return readText(inputFile).getBytes(StandardCharsets.UTF_8);
+        try (BufferedReader input = new BufferedReader(new FileReader(manifest))) {
+            String line = input.readLine();
+
+            while (line != null) {
+                line = line.trim();
+
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    int colon = line.indexOf(':');
+
+                    if (colon == -1) {
+                        throw new IOException("Bundle declaration " + line + " in " + manifest + " is missing a colon");
+                    }
+
+                    bundles.put(line.substring(0, colon).trim(), Arrays.asList(line.substring(colon + 1).trim().split("\\s+")));
+                }
+
+                line = input.readLine();
+            }
+        }
+
+        Map<String, Asset> assets = new HashMap<>(this.assets);
+
+        // Bundles of a previous manifest are replaced
+        for (String path : this.bundles.keySet()) {
+            unregister(assets, path);
         }
 
-        if (IMAGE_EXTENSIONS.contains(extension)) {
-            return readImage(inputFile);
+        for (Map.Entry<String, List<String>> bundle : bundles.entrySet()) {
+            register(assets, bundle.getKey(), build(assets, bundle.getKey(), bundle.getValue()));
         }
 
-        throw new ExtensionNotFoundException("File extension " + extension + " does not a have a defined way to read it");
+        this.bundles = bundles;
+        this.assets = assets;
     }
 
     /**
-     * readText
-     * opens and reads a file and joins its content together into one string
-     * @param inputFile the path of the file to read from
-     * @return the contents of the input file as a string
-     * @throws IOException if an error occurs while opening or reading the file
+     * getFingerprintedPath
+     * gets the path under which the current version of an asset is also registered
+     * @param path the registered path of the asset
+     * @return the fingerprinted path, or null if no asset is registered under the path
+     */
+    public String getFingerprintedPath(String path) {
+        Asset asset = this.assets.get(path);
+
+        return asset == null ? null : fingerprint(path, asset);
+    }
+
+    /**
+     * isFingerprinted
+     * checks whether a path names a single version of an asset, which never changes
+     * @param path the path the asset was found under
+     * @param asset the asset
+     * @return whether the path is the fingerprinted path of the asset
+     */
+    public static boolean isFingerprinted(String path, Asset asset) {
+        String marker = "." + asset.getFingerprint();
+        int index = path.lastIndexOf(marker);
+
+        return (index != -1) && fingerprint(path.substring(0, index) + path.substring(index + marker.length()), asset).equals(path);
+    }
+
+    /**
+     * reload
+     * reads a changed asset again, rebuilding its compressed variants and entity tags, or removes it if it was deleted.
+     * The registry is copied and replaced rather than modified, so requests being served never wait on a lock.
+     * Responses still being sent keep the previous version of the asset.
+     * Files which cannot be served, such as the swap files of editors, are ignored
+     * @param path the registered path of the asset
+     * @throws IOException if an error occurs while reading the asset
+     */
+    public synchronized void reload(String path) throws IOException {
+        Map<String, Asset> assets = new HashMap<>(this.assets);
+
+        // The previous version is no longer served under its fingerprint
+        unregister(assets, path);
+
+        if (new File(path).isFile()) {
+            try {
+                register(assets, path, this.read(path));
+            } catch (ExtensionNotFoundException e) {
+                return;
+            }
+        }
+
+        // Bundles including the asset are rebuilt with its new version
+        for (Map.Entry<String, List<String>> bundle : this.bundles.entrySet()) {
+            if (bundle.getValue().contains(path)) {
+                unregister(assets, bundle.getKey());
+
+                try {
+                    register(assets, bundle.getKey(), build(assets, bundle.getKey(), bundle.getValue()));
+                } catch (AssetNotFoundException e) {
+                    System.out.println("Bundle " + bundle.getKey() + " is not served until " + path + " exists again");
+                }
+            }
+        }
+
+        this.assets = assets;
+    }
+
+    /**
+     * build
+     * minifies and concatenates the sources of a bundle into a single compressible asset
+     * @param assets the registry holding the sources
+     * @param path the path of the bundle, whose extension decides how its sources are minified
+     * @param sources the registered paths of the sources, in order
+     * @return the bundle
+     * @throws ExtensionNotFoundException if the bundle is neither a stylesheet nor a script
+     * @throws AssetNotFoundException if a source is not registered
      */
-    private String readText(String inputFile) throws IOException {
+    private static Asset build(Map<String, Asset> assets, String path, List<String> sources) {
+        String extension = path.substring(path.lastIndexOf('.') + 1);
+
+        if (!extension.equals("css") && !extension.equals("js")) {
+            throw new ExtensionNotFoundException("Bundle " + path + " must be a stylesheet or a script");
+        }
+
         StringBuilder content = new StringBuilder();
 
-        try (BufferedReader input = new BufferedReader(new FileReader(inputFile))) {
-            int currentChar = input.read();
+        for (String source : sources) {
+            Asset asset = assets.get(source);
 
-            while (currentChar != -1) {
-                content.append((char) currentChar);
+            if (asset == null) {
+                throw new AssetNotFoundException("Asset " + source + " of bundle " + path + " cannot be found");
+            }
 
-                currentChar = input.read();
+            String text = StandardCharsets.UTF_8.decode(asset.getContent()).toString();
+
+            if (extension.equals("css")) {
+                content.append(Minifier.css(text)).append('\n');
+            } else {
+                // Scripts which do not end their last statement are ended before the next one starts
+                content.append(Minifier.js(text)).append(";\n");
             }
         }
 
-        return content.toString();
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+
+        buffer.put(bytes).flip();
+
+        return new Asset(buffer, true);
+    }
+
+    /**
+     * unregister
+     * removes an asset from a registry under its path and its fingerprinted path, and releases the registry's reference to it
+     * @param assets the registry
+     * @param path the path of the asset
+     */
+    private static void unregister(Map<String, Asset> assets, String path) {
+        Asset asset = assets.remove(path);
+
+        if (asset != null) {
+            assets.remove(fingerprint(path, asset));
+            asset.release();
+        }
+    }
+
+    /**
+     * register
+     * adds an asset to a registry under its path and its fingerprinted path
+     * @param assets the registry
+     * @param path the path of the asset
+     * @param asset the asset
+     */
+    private static void register(Map<String, Asset> assets, String path, Asset asset) {
+        assets.put(path, asset);
+        assets.put(fingerprint(path, asset), asset);
     }
 
     /**
-     * readImage
-     * opens and reads a file and joins its content together into one string
+     * fingerprint
+     * inserts the fingerprint of an asset before the extension of its path
+     * @param path the path of the asset
+     * @param asset the asset
+     * @return the fingerprinted path
+     */
+    private static String fingerprint(String path, Asset asset) {
+        int extension = path.lastIndexOf('.');
+
+        if (extension <= path.lastIndexOf('/')) {
+            extension = path.length();
+        }
+
+        return path.substring(0, extension) + "." + asset.getFingerprint() + path.substring(extension);
+    }
+
+    /**
+     * read
+     * opens and reads a file into a buffer outside the Java heap.
+     * Files of at least {@link #MAP_THRESHOLD} bytes are memory mapped, and their file is kept open so it can be sent to sockets directly.
+     * Mapping the file itself rather than a private copy keeps startup to one read of each file, at the cost of the mapping
+     * following edits made to the file in place. Such edits are caught by {@link #findAsset} before the asset is served again,
+     * though a response already being sent when the file changes may be cut short.
+     * Text files are also compressed, while images are left as is since their formats are mostly compressed already
      * @param inputFile the path of the file to read from
-     * @return the contents of the input file as a string
+     * @return the asset holding the contents of the input file
      * @throws IOException if an error occurs while opening or reading the file
      */
-    private byte[] readImage(String inputFile) throws IOException {
-        File imageFile = new File(inputFile);
+    private Asset read(String inputFile) throws IOException {
+        String extension = inputFile.substring(inputFile.lastIndexOf('.') + 1);
+
+        boolean compressible = TEXT_EXTENSIONS.contains(extension);
 
-        // Initial buffer size
-        List<Byte> bytes = new ArrayList<>(10000);
+        if (!compressible && !IMAGE_EXTENSIONS.contains(extension)) {
+            throw new ExtensionNotFoundException("File extension " + extension + " does not a have a defined way to read it");
+        }
 
-        try (InputStream stream = Files.newInputStream(imageFile.toPath())) {
+        Path path = Paths.get(inputFile);
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
 
-            int currentChar = stream.read();
+        try {
+            long size = file.size();
 
-            while (currentChar != -1) {
-                bytes.add((byte) currentChar);
-                currentChar = stream.read();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File " + inputFile + " is too large to serve");
             }
-        }
 
-        // Copy list to primitive array
-        byte[] buffer = new byte[bytes.size()];
+            // Large files are paged in by the operating system as they are served
+            if (size >= MAP_THRESHOLD) {
+                // Taken before mapping, so an edit made while the asset is built is seen as a change afterwards
+                FileTime lastModified = Files.getLastModifiedTime(path);
 
-        for (int i = 0; i < bytes.size(); i++) {
-            buffer[i] = bytes.get(i);
-        }
+                try {
+                    return new Asset(file.map(FileChannel.MapMode.READ_ONLY, 0, size), file, path, lastModified, compressible);
+                } catch (InternalError e) {
+                    // The file was truncated while it was being hashed or compressed
+                    throw new IOException("File " + inputFile + " changed while it was being read", e);
+                }
+            }
 
-        return buffer;
+            // Small files are copied into one direct buffer with a single read loop
+            ByteBuffer content = ByteBuffer.allocateDirect((int) size);
+
+            while (content.hasRemaining()) {
+                if (file.read(content) == -1) {
+                    break;
+                }
+            }
+
+            content.flip();
+            file.close();
+
+            return new Asset(content, compressible);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
     }
 
     /**
@@ -0,0 +1,221 @@
+package assets;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches directories for files which are created, modified, or deleted, and reports each changed file to a listener
+ * on a background thread, allowing templates and assets to be reloaded without restarting the server.
+ * Bursts of events for the same file, such as those produced by a single save in an editor, are reported once.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class DirectoryWatcher implements AutoCloseable {
+    /** The time in milliseconds to wait for further events before reporting a burst of changes */
+    private static final int SETTLE_TIME = 100;
+
+    /** The service delivering file system events */
+    private final WatchService service;
+
+    /** The listeners of each watched directory, by the key of its registration */
+    private final Map<WatchKey, Registration> registrations;
+
+    /** The thread reporting changes, or null if it has not been started */
+    private Thread thread;
+
+    /**
+     * Constructs a watcher without any watched directories
+     * @throws IOException if the file system cannot watch for changes
+     */
+    public DirectoryWatcher() throws IOException {
+        this.service = FileSystems.getDefault().newWatchService();
+        this.registrations = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * watch
+     * watches a directory and all of its subdirectories for changed files.
+     * A directory can be watched by several listeners, each of which is told about every change
+     * @param directory the path of the directory, as it was registered in an engine
+     * @param listener the listener to report changed files to
+     * @throws IOException if the directory cannot be watched
+     */
+    public void watch(String directory, Listener listener) throws IOException {
+        Path root = Paths.get(directory);
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                this.register(path, listener);
+            }
+        }
+    }
+
+    /**
+     * register
+     * watches a single directory
+     * @param directory the directory
+     * @param listener the listener to report changed files to
+     * @throws IOException if the directory cannot be watched
+     */
+    private void register(Path directory, Listener listener) throws IOException {
+        WatchKey key = directory.register(
+                this.service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE
+        );
+
+        // The same directory always has the same key
+        this.registrations.computeIfAbsent(key, k -> new Registration(directory)).listeners.add(listener);
+    }
+
+    /**
+     * start
+     * starts reporting changes on a daemon thread
+     */
+    public synchronized void start() {
+        if (this.thread != null) {
+            return;
+        }
+
+        this.thread = new Thread(this::run, "directory-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * run
+     * waits for changes and reports them until the watcher is closed
+     */
+    private void run() {
+        try {
+            while (true) {
+                // Changed files in the order they were first seen, with the listeners of their directory
+                Map<Path, List<Listener>> changes = new LinkedHashMap<>();
+
+                WatchKey key = this.service.take();
+
+                // Gather the rest of the burst
+                while (key != null) {
+                    this.collect(key, changes);
+                    key = this.service.poll(SETTLE_TIME, TimeUnit.MILLISECONDS);
+                }
+
+                for (Map.Entry<Path, List<Listener>> change : changes.entrySet()) {
+                    String path = change.getKey().toString().replace("\\", "/");
+
+                    for (Listener listener : change.getValue()) {
+                        try {
+                            listener.changed(path);
+                        } catch (IOException | RuntimeException e) {
+                            e.printStackTrace();
+                            System.out.println("Error reloading " + path);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher closed
+        }
+    }
+
+    /**
+     * collect
+     * records the files changed in the events of a key, and watches any new subdirectories
+     * @param key the signalled key
+     * @param changes the changed files recorded so far
+     */
+    private void collect(WatchKey key, Map<Path, List<Listener>> changes) {
+        Registration registration = this.registrations.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if ((registration == null) || (event.kind() == StandardWatchEventKinds.OVERFLOW)) {
+                continue;
+            }
+
+            Path path = registration.directory.resolve((Path) event.context());
+
+            if ((event.kind() == StandardWatchEventKinds.ENTRY_CREATE) && Files.isDirectory(path)) {
+                try {
+                    for (Listener listener : registration.listeners) {
+                        this.watch(path.toString(), listener);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+
+                continue;
+            }
+
+            changes.put(path, registration.listeners);
+        }
+
+        // Directories which no longer exist cannot be reset
+        if (!key.reset()) {
+            this.registrations.remove(key);
+        }
+    }
+
+    /**
+     * close
+     * stops watching all directories
+     * @throws IOException if an error occurs while closing the watch service
+     */
+    @Override
+    public void close() throws IOException {
+        this.service.close();
+    }
+
+    /**
+     * Receives the files changed in a watched directory
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * changed
+         * handles a file which was created, modified, or deleted
+         * @param path the path of the file, using forward slashes
+         * @throws IOException if an error occurs while reading the file
+         */
+        void changed(String path) throws IOException;
+    }
+
+    /**
+     * Represents a watched directory and the listeners of its changes
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Registration {
+        /** The watched directory */
+        private final Path directory;
+
+        /** The listeners of the directory */
+        private final List<Listener> listeners;
+
+        /**
+         * Constructs a registration without any listeners
+         * @param directory the watched directory
+         */
+        private Registration(Path directory) {
+            this.directory = directory;
+            this.listeners = new CopyOnWriteArrayList<>();
+        }
+    }
+}
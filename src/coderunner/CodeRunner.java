@@ -7,12 +7,20 @@ import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * A class to run submitted java source code and evaluate the results.
  * This class runs all its submissions in a singular background thread,
- * which is queued to allow all submissions to be processed
+ * which is queued to allow all submissions to be processed.
+ * Listeners are told whenever a submission is queued, started, compiled, or tested,
+ * so clients can be pushed results as they land rather than polling for them
  * @author Harry Xu
  * @version 1.0 - June 4th 2023
  */
@@ -26,8 +34,18 @@ public class CodeRunner {
     /** The current submission being processed */
     private Submission currentSubmission;
 
-    /** An object used to block the submission processing thread if there are no entries to process */
-    private final Object syncObject;
+    /**
+     * Guards the submission queue.
+     * A lock is used rather than a monitor so that request threads, which may be virtual threads,
+     * never pin their carrier thread while enqueuing
+     */
+    private final Lock queueLock;
+
+    /** Used to block the submission processing thread if there are no entries to process */
+    private final Condition queueNotEmpty;
+
+    /** Called with each submission whose progress changes, on the thread which changed it */
+    private final List<Consumer<Submission>> listeners;
 
     /**
      * Constructs a CodeRunner and starts the processing thread.
@@ -35,7 +53,9 @@ public class CodeRunner {
     public CodeRunner() {
         this.submissionQueue = new ArrayDeque<>();
         this.submissionHistories = new HashMap<>();
-        this.syncObject = new Object();
+        this.queueLock = new ReentrantLock();
+        this.queueNotEmpty = this.queueLock.newCondition();
+        this.listeners = new CopyOnWriteArrayList<>();
 
         // Start processing thread
         Thread processingThread = new Thread(new CodeTest());
@@ -48,12 +68,46 @@ public class CodeRunner {
      * @param submission the submission to be processed
      */
     public void enqueue(Submission submission) {
-        // Push onto queue
-        this.submissionQueue.addLast(submission);
+        this.queueLock.lock();
+
+        try {
+            // Push onto queue and wake the processing thread
+            this.submissionQueue.addLast(submission);
+            this.queueNotEmpty.signal();
+        } finally {
+            this.queueLock.unlock();
+        }
+
+        this.updated(submission);
+    }
+
+    /**
+     * addListener
+     * registers a listener to be told about the progress of every submission.
+     * Listeners are called on the processing thread, so they should only hand the update off rather than do slow work
+     * @param listener the listener
+     */
+    public void addListener(Consumer<Submission> listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * removeListener
+     * stops telling a listener about the progress of submissions
+     * @param listener the listener
+     */
+    public void removeListener(Consumer<Submission> listener) {
+        this.listeners.remove(listener);
+    }
 
-        // Blocks until syncObject is available
-        synchronized (this.syncObject) {
-            this.syncObject.notify();
+    /**
+     * updated
+     * tells every listener that the progress of a submission changed
+     * @param submission the submission
+     */
+    private void updated(Submission submission) {
+        for (Consumer<Submission> listener : this.listeners) {
+            listener.accept(submission);
         }
     }
 
@@ -64,17 +118,23 @@ public class CodeRunner {
      * @return the index of the submission or -1 if not found.
      */
     public int indexInQueue(String id) {
-        int i = 0;
+        this.queueLock.lock();
 
-        for (Submission submission : this.submissionQueue) {
-            if (submission.getSubmissionId().equals(id)) {
-                return i;
+        try {
+            int i = 0;
+
+            for (Submission submission : this.submissionQueue) {
+                if (submission.getSubmissionId().equals(id)) {
+                    return i;
+                }
+
+                i++;
             }
 
-            i++;
+            return -1;
+        } finally {
+            this.queueLock.unlock();
         }
-
-        return -1;
     }
 
     /**
@@ -111,24 +171,29 @@ public class CodeRunner {
         @Override
         public void run() {
             while (true) {
-                // Block thread until queue is not empty
-                if (submissionQueue.size() == 0) {
-                    synchronized (syncObject) {
-                        try {
-                            syncObject.wait();
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                            continue;
-                        }
+                queueLock.lock();
+
+                try {
+                    // Block thread until queue is not empty
+                    while (submissionQueue.isEmpty()) {
+                        queueNotEmpty.await();
                     }
-                }
 
-                // Pop submission from queue
-                currentSubmission = submissionQueue.removeFirst();
+                    // Pop submission from queue
+                    currentSubmission = submissionQueue.removeFirst();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                    continue;
+                } finally {
+                    queueLock.unlock();
+                }
 
                 // Cache submission with id
                 submissionHistories.put(currentSubmission.getSubmissionId(), currentSubmission);
 
+                // Every queued submission moves up
+                updated(currentSubmission);
+
                 // Get submission task
                 Task currentTask = currentSubmission.getTask();
 
@@ -139,12 +204,16 @@ public class CodeRunner {
                 } catch (IOException | InterruptedException e) {
                     e.printStackTrace();
                     continue;
+                } finally {
+                    updated(currentSubmission);
                 }
 
                 // Run all tests to completion
                 while (currentTask.hasNextTest()) {
                     TestResult res = currentTask.nextTest();
 
+                    updated(currentSubmission);
+
                     if (res.getStatusCode() != TestCode.ACCEPTED) {
                         break;
                     }
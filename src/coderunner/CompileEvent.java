@@ -0,0 +1,44 @@
+package coderunner;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event covering the filtering and compilation of a submission
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@Name("coderunner.Compile")
+@Label("Submission Compile")
+@Category({"Web Server", "Judge"})
+@Description("A submitted source file filtered and compiled by the judge")
+class CompileEvent extends Event {
+    /** The path of the compiled source file */
+    @Label("Source File")
+    private final String sourceFile;
+
+    /** The result of the compilation */
+    @Label("Result")
+    private String result;
+
+    /**
+     * Constructs and begins timing an event
+     * @param sourceFile the path of the compiled source file
+     */
+    CompileEvent(String sourceFile) {
+        this.sourceFile = sourceFile;
+        this.begin();
+    }
+
+    /**
+     * setResult
+     * sets the result of the compilation
+     * @param result the result, or null if the compilation failed with an exception
+     */
+    void setResult(TaskResult result) {
+        this.result = (result != null) ? result.getTaskCode().toString() : null;
+    }
+}
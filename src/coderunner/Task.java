@@ -95,12 +95,31 @@ public class Task {
 
     /**
      * compile
-     * Reads and compiles the source code to a class file at the root of the project directory
+     * Reads and compiles the source code to a class file at the root of the project directory,
+     * recording the compilation as a {@link CompileEvent}
      * @return a {@link TaskResult} containing a {@link TestCode} and optional data
      * @throws IOException if an IO error occurs while reading to the file
      * @throws InterruptedException if the current thread is interrupted while waiting.
      */
     public TaskResult compile() throws IOException, InterruptedException {
+        CompileEvent event = new CompileEvent(this.sourceFile);
+
+        try {
+            return this.compileSource();
+        } finally {
+            event.setResult(this.compilationResult);
+            event.commit();
+        }
+    }
+
+    /**
+     * compileSource
+     * Filters the source code for illegal imports and compiles it
+     * @return a {@link TaskResult} containing a {@link TestCode} and optional data
+     * @throws IOException if an IO error occurs while reading to the file
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    private TaskResult compileSource() throws IOException, InterruptedException {
         // Filter code for illegal imports
         StringBuilder sourceCode = new StringBuilder();
 
@@ -43,12 +43,29 @@ public class Test {
 
     /**
      * execute
-     * creates and executes a java process running the compiled file
+     * creates and executes a java process running the compiled file,
+     * recording the execution as a {@link TestExecutionEvent}
      * @throws IOException if an IO error occurs during the creation of execution of the process
      * @throws InterruptedException if the current thread is interrupted while waiting.
      */
     public void execute() throws IOException, InterruptedException {
+        TestExecutionEvent event = new TestExecutionEvent(this.compiledFilePath, this.inputFilePath);
 
+        try {
+            this.run();
+        } finally {
+            event.setResult(this.result);
+            event.commit();
+        }
+    }
+
+    /**
+     * run
+     * runs the compiled file on the input of the test, stopping it once it exceeds the time limit
+     * @throws IOException if an IO error occurs during the creation of execution of the process
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    private void run() throws IOException, InterruptedException {
         // Create process
         String[] commands = { "java ", this.compiledFilePath };
 
@@ -0,0 +1,50 @@
+package coderunner.test;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event covering the execution of a compiled submission against a single test case
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@Name("coderunner.TestExecution")
+@Label("Test Execution")
+@Category({"Web Server", "Judge"})
+@Description("A compiled submission run against the input of a test case")
+class TestExecutionEvent extends Event {
+    /** The path of the executed class file */
+    @Label("Compiled File")
+    private final String compiledFile;
+
+    /** The path of the input of the test case */
+    @Label("Input File")
+    private final String inputFile;
+
+    /** The code of the result decided by the execution, or null if the output still has to be checked */
+    @Label("Result")
+    private String result;
+
+    /**
+     * Constructs and begins timing an event
+     * @param compiledFile the path of the executed class file
+     * @param inputFile the path of the input of the test case
+     */
+    TestExecutionEvent(String compiledFile, String inputFile) {
+        this.compiledFile = compiledFile;
+        this.inputFile = inputFile;
+        this.begin();
+    }
+
+    /**
+     * setResult
+     * sets the result decided by the execution, such as a time limit being exceeded
+     * @param result the result, or null if the output still has to be checked
+     */
+    void setResult(TestResult result) {
+        this.result = (result != null) ? result.getStatusCode().getCode() : null;
+    }
+}
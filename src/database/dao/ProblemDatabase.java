@@ -15,6 +15,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Wraps raw SQL connections to the problem table in a more accessible API
@@ -28,12 +29,17 @@ public class ProblemDatabase {
     /** Class name of the JDBC driver */
     private static final String JDBC_CLASS_NAME = "org.sqlite.JDBC";
 
+    /** Called whenever problems are added or replaced, so data derived from them can be refreshed */
+    private final List<Runnable> changeListeners;
+
     /**
      * Constructs the object and initializes its data.
      * Creates a problems table if it does not exist.
      * @throws SQLException if an error occurs while using SQL
      */
     public ProblemDatabase() throws SQLException {
+        this.changeListeners = new CopyOnWriteArrayList<>();
+
         // Load JDBC driver
         try {
             Class.forName(JDBC_CLASS_NAME);
@@ -41,22 +47,27 @@ public class ProblemDatabase {
             throw new RuntimeException(e);
         }
 
+        // Create SQL statement
+        String sql = "CREATE TABLE IF NOT EXISTS PROBLEMLIST " +
+                "(ID INTEGER PRIMARY KEY NOT NULL, " +
+                "TITLE TEXT UNIQUE, " +
+                "CONTENT TEXT, " +
+                "DIFFICULTY INT     NOT NULL, " +
+                "TYPE TEXT          NOT NULL, " +
+                "USER_ID     NOT NULL," +
+                "FOREIGN KEY (USER_ID)" +
+                "   REFERENCES USERLIST (USER_ID));";
+
+        StatementEvent event = new StatementEvent(sql);
+
         // Create and execute statement
         try (
             Connection conn = DriverManager.getConnection(JDBC_URL);
             Statement statement = conn.createStatement()
         ) {
-            String sql = "CREATE TABLE IF NOT EXISTS PROBLEMLIST " +
-                    "(ID INTEGER PRIMARY KEY NOT NULL, " +
-                    "TITLE TEXT UNIQUE, " +
-                    "CONTENT TEXT, " +
-                    "DIFFICULTY INT     NOT NULL, " +
-                    "TYPE TEXT          NOT NULL, " +
-                    "USER_ID     NOT NULL," +
-                    "FOREIGN KEY (USER_ID)" +
-                    "   REFERENCES USERLIST (USER_ID));";
-
-            statement.executeUpdate(sql);
+            event.setRows(statement.executeUpdate(sql));
+        } finally {
+            event.commit();
         }
     }
 
@@ -81,6 +92,8 @@ public class ProblemDatabase {
                 .values("?", "?", "?", "?", "?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -93,7 +106,31 @@ public class ProblemDatabase {
             statement.setString(4, problem.getType());
             statement.setInt(5, problem.getAuthorID());
 
-            statement.executeUpdate();
+            event.setRows(statement.executeUpdate());
+        } finally {
+            event.commit();
+        }
+
+        this.changed();
+    }
+
+    /**
+     * addChangeListener
+     * Registers a callback which is run whenever problems are added or replaced,
+     * such as one invalidating cached pages which list the problems.
+     * @param listener the callback
+     */
+    public void addChangeListener(Runnable listener) {
+        this.changeListeners.add(listener);
+    }
+
+    /**
+     * changed
+     * Runs every registered change listener.
+     */
+    private void changed() {
+        for (Runnable listener : this.changeListeners) {
+            listener.run();
         }
     }
 
@@ -119,6 +156,8 @@ public class ProblemDatabase {
                 .where("ID = ?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
             Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -141,8 +180,12 @@ public class ProblemDatabase {
                 String type = resultSet.getString("TYPE");
                 int authorId = resultSet.getInt("USER_ID");
 
+                event.setRows(1);
+
                 return new Problem(id, difficulty, title, content, type, authorId);
             }
+        } finally {
+            event.commit();
         }
     }
 
@@ -168,6 +211,8 @@ public class ProblemDatabase {
                 .where("TITLE = ?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -191,8 +236,12 @@ public class ProblemDatabase {
                 String type = resultSet.getString("TYPE");
                 int authorId = resultSet.getInt("USER_ID");
 
+                event.setRows(1);
+
                 return new Problem(id, difficulty, title, content, type, authorId);
             }
+        } finally {
+            event.commit();
         }
     }
 
@@ -221,6 +270,8 @@ public class ProblemDatabase {
         // Get problems
         ArrayList<Problem> problems = new ArrayList<>();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -244,6 +295,10 @@ public class ProblemDatabase {
                     problems.add(new Problem(id, difficulty, title, content, type, authorId));
                 }
             }
+
+            event.setRows(problems.size());
+        } finally {
+            event.commit();
         }
 
         return problems;
@@ -272,6 +327,8 @@ public class ProblemDatabase {
         // Get all problems
         ArrayList<Problem> problems = new ArrayList<>();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Create and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -291,6 +348,10 @@ public class ProblemDatabase {
                     problems.add(new Problem(id, difficulty, title, content, type, authorId));
                 }
             }
+
+            event.setRows(problems.size());
+        } finally {
+            event.commit();
         }
 
         return problems;
@@ -354,6 +415,8 @@ public class ProblemDatabase {
                     }
                 }
 
+                StatementEvent event = new StatementEvent(sql);
+
                 // Prepare and execute insert statement
                 try (
                         Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -368,9 +431,13 @@ public class ProblemDatabase {
                     statement.setInt(6, Integer.parseInt(problemMetadata[3]));
 
                     // Execute update
-                    statement.executeUpdate();
+                    event.setRows(statement.executeUpdate());
+                } finally {
+                    event.commit();
                 }
             }
+
+            this.changed();
         }
     }
 }
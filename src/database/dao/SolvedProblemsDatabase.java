@@ -46,12 +46,16 @@ public class SolvedProblemsDatabase {
                 "USER_ID INTEGER NOT NULL," +
                 "PRIMARY KEY (PROBLEM_ID, USER_ID));";
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Create and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
                 Statement statement = conn.createStatement()
         ) {
-            statement.executeUpdate(sql);
+            event.setRows(statement.executeUpdate(sql));
+        } finally {
+            event.commit();
         }
     }
 
@@ -78,6 +82,8 @@ public class SolvedProblemsDatabase {
                 .values("?", "?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Create and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -87,7 +93,9 @@ public class SolvedProblemsDatabase {
             statement.setInt(1, problemId);
             statement.setInt(2, userId);
 
-            statement.executeUpdate();
+            event.setRows(statement.executeUpdate());
+        } finally {
+            event.commit();
         }
     }
 
@@ -115,6 +123,8 @@ public class SolvedProblemsDatabase {
 
         List<Integer> problemIDs = new ArrayList<>();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Create and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -129,7 +139,11 @@ public class SolvedProblemsDatabase {
                 }
             }
 
+            event.setRows(problemIDs.size());
+
             return problemIDs;
+        } finally {
+            event.commit();
         }
     }
 
@@ -0,0 +1,45 @@
+package database.dao;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event covering a SQL statement executed by a data access object,
+ * from opening its connection to closing it. The stack trace of the event identifies the calling method
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@Name("database.Statement")
+@Label("SQL Statement")
+@Category({"Web Server", "Database"})
+@Description("A SQL statement executed by a data access object")
+class StatementEvent extends Event {
+    /** The SQL of the statement */
+    @Label("Statement")
+    private final String statement;
+
+    /** The number of rows returned by a query or changed by an update */
+    @Label("Rows")
+    private int rows;
+
+    /**
+     * Constructs and begins timing an event
+     * @param statement the SQL of the statement
+     */
+    StatementEvent(String statement) {
+        this.statement = statement;
+        this.begin();
+    }
+
+    /**
+     * setRows
+     * sets the number of rows returned by a query or changed by an update
+     * @param rows the number of rows
+     */
+    void setRows(int rows) {
+        this.rows = rows;
+    }
+}
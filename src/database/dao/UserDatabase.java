@@ -49,12 +49,16 @@ public class UserDatabase {
                 "PASSWORD TEXT NOT NULL," +
                 "POINTS INT NOT NULL);";
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Create and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
                 Statement statement = conn.createStatement()
         ) {
-            statement.executeUpdate(sql);
+            event.setRows(statement.executeUpdate(sql));
+        } finally {
+            event.commit();
         }
     }
 
@@ -79,6 +83,8 @@ public class UserDatabase {
                 .values("?", "?", "?", "?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -91,7 +97,9 @@ public class UserDatabase {
             statement.setInt(4, user.getPoints());
 
             // Execute update
-            statement.executeUpdate();
+            event.setRows(statement.executeUpdate());
+        } finally {
+            event.commit();
         }
 
     }
@@ -118,6 +126,8 @@ public class UserDatabase {
                 .where("ID = ?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -140,8 +150,12 @@ public class UserDatabase {
                 byte[] salt = resultSet.getBytes("SALT");
                 int points = resultSet.getInt("POINTS");
 
+                event.setRows(1);
+
                 return new User(id, username, password, salt, points);
             }
+        } finally {
+            event.commit();
         }
     }
 
@@ -167,6 +181,8 @@ public class UserDatabase {
                 .where("USERNAME = ?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
             Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -189,8 +205,12 @@ public class UserDatabase {
                 byte[] salt = resultSet.getBytes("SALT");
                 int points = resultSet.getInt("POINTS");
 
+                event.setRows(1);
+
                 return new User(id, username, password, salt, points);
             }
+        } finally {
+            event.commit();
         }
     }
 
@@ -217,6 +237,8 @@ public class UserDatabase {
                 .where("ID = ?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -227,7 +249,9 @@ public class UserDatabase {
             statement.setInt(2, userId);
 
             // Execute update
-            statement.executeUpdate();
+            event.setRows(statement.executeUpdate());
+        } finally {
+            event.commit();
         }
     }
 
@@ -293,6 +317,18 @@ public class UserDatabase {
         return null;
     }
 
+    /**
+     * isAnonymous
+     * Checks whether a {@link Request} carries no credentials at all, without querying the database
+     * @param req the request
+     * @return whether the request is from a visitor who is not logged in
+     */
+    public boolean isAnonymous(Request req) {
+        Map<String, String> cookies = req.getCookies();
+
+        return (cookies.get("username") == null) && (cookies.get("password") == null);
+    }
+
     /**
      * getCurrentUser
      * Gets the current user with information from a {@link Request}
@@ -337,6 +373,8 @@ public class UserDatabase {
                 .values("?", "?", "?", "?", "?")
                 .toString();
 
+        StatementEvent event = new StatementEvent(sql);
+
         // Prepare and execute statement
         try (
                 Connection conn = DriverManager.getConnection(JDBC_URL);
@@ -350,7 +388,9 @@ public class UserDatabase {
             statement.setBytes(4, salt);
             statement.setInt(5, 0);
 
-            statement.executeUpdate();
+            event.setRows(statement.executeUpdate());
+        } finally {
+            event.commit();
         }
     }
 
@@ -0,0 +1,1004 @@
+package server;
+
+import server.request.Request;
+import server.request.RequestParseException;
+import server.request.RequestParser;
+import server.response.EventStream;
+import server.response.EventStreamResponse;
+import server.response.FileResponse;
+import server.response.Response;
+import server.response.ResponseCode;
+import server.response.StreamingResponse;
+import server.websocket.WebSocket;
+import server.websocket.WebSocketResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A selector based I/O loop used by the {@link ServerMode#NIO} serving mode.
+ * Each loop multiplexes many non-blocking client channels on a single thread. Requests are read and parsed
+ * on the loop, then handed to a shared pool of worker threads which dispatch the route handlers.
+ * Responses produced by the workers are handed back to the loop to be written to the client.
+ * Connections upgraded to web sockets stay on the loop, which reads their frames and writes the frames
+ * queued by any thread, so idle sockets cost no threads at all. Event streams are kept open the same way, with the events
+ * sent from any thread queued for the loop.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class EventLoop implements Runnable {
+    /** The size of the buffer each connection reads into */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /** The size of the buffer each connection encodes response heads into, which fits all but unusually large heads */
+    private static final int HEAD_BUFFER_SIZE = 1024;
+
+    /** The interval in milliseconds at which connections which missed a deadline are looked for */
+    private static final int SWEEP_INTERVAL = 1000;
+
+    /** The maximum number of chunks of a streaming response waiting to be written on one connection */
+    private static final int STREAM_QUEUE_CAPACITY = 4;
+
+    /**
+     * The maximum number of writes of an event stream waiting to be written on one connection,
+     * larger than for other streams as events are queued without waiting for room
+     */
+    private static final int EVENT_QUEUE_CAPACITY = 64;
+
+    /** The server which produces responses to requests */
+    private final WebServer server;
+
+    /** The selector which multiplexes the client channels of this loop */
+    private final Selector selector;
+
+    /** The pool of threads which dispatch route handlers */
+    private final ExecutorService workers;
+
+    /** The options of the server */
+    private final ServerConfig config;
+
+    /** Records the latencies and transfers of requests */
+    private final ServerMetrics metrics;
+
+    /** Accepted channels waiting to be registered with the selector */
+    private final Queue<SocketChannel> pendingChannels;
+
+    /** Connections whose response is ready to be written */
+    private final Queue<Connection> pendingWrites;
+
+    /** Whether the loop should keep running */
+    private volatile boolean running;
+
+    /**
+     * Constructs an event loop with its own selector
+     * @param server the server which produces responses to requests
+     * @param workers the pool of threads which dispatch route handlers
+     * @param config the options of the server
+     * @throws IOException if the selector cannot be opened
+     */
+    EventLoop(WebServer server, ExecutorService workers, ServerConfig config) throws IOException {
+        this.server = server;
+        this.workers = workers;
+        this.config = config;
+        this.metrics = server.getMetrics();
+        this.selector = Selector.open();
+        this.pendingChannels = new ConcurrentLinkedQueue<>();
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.running = true;
+    }
+
+    /**
+     * register
+     * hands an accepted client channel to this loop.
+     * This method may be called from any thread.
+     * @param channel the accepted client channel
+     */
+    void register(SocketChannel channel) {
+        this.pendingChannels.add(channel);
+        this.selector.wakeup();
+    }
+
+    /**
+     * shutdown
+     * stops the loop and closes all of its connections
+     */
+    void shutdown() {
+        this.running = false;
+        this.selector.wakeup();
+    }
+
+    /**
+     * run
+     * selects ready channels and reads from or writes to them until the loop is shut down
+     */
+    @Override
+    public void run() {
+        long lastSweep = System.currentTimeMillis();
+
+        while (this.running) {
+            try {
+                this.selector.select(SWEEP_INTERVAL);
+            } catch (IOException e) {
+                e.printStackTrace();
+                break;
+            }
+
+            this.registerPendingChannels();
+            this.registerPendingWrites();
+
+            Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                Connection connection = (Connection) key.attachment();
+
+                try {
+                    if (key.isValid() && key.isReadable()) {
+                        this.read(connection);
+                    }
+
+                    if (key.isValid() && key.isWritable()) {
+                        this.write(connection);
+                    }
+                } catch (IOException | CancelledKeyException e) {
+                    connection.close();
+                }
+            }
+
+            // Enforce the deadlines of slow and idle connections
+            long now = System.currentTimeMillis();
+
+            if (now - lastSweep >= SWEEP_INTERVAL) {
+                this.closeExpiredConnections(now);
+                lastSweep = now;
+            }
+        }
+
+        // Close all remaining connections
+        for (SelectionKey key : this.selector.keys()) {
+            ((Connection) key.attachment()).close();
+        }
+
+        try {
+            this.selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * registerPendingChannels
+     * registers all newly accepted channels with the selector for reading
+     */
+    private void registerPendingChannels() {
+        SocketChannel channel = this.pendingChannels.poll();
+
+        while (channel != null) {
+            try {
+                channel.configureBlocking(false);
+                SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key, new RequestParser(this.config.getMaxHeaderSize(), this.config.getMaxBodySize())));
+            } catch (IOException e) {
+                e.printStackTrace();
+
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+
+                this.server.connectionClosed();
+            }
+
+            channel = this.pendingChannels.poll();
+        }
+    }
+
+    /**
+     * registerPendingWrites
+     * switches all connections whose response is ready to write mode
+     */
+    private void registerPendingWrites() {
+        Connection connection = this.pendingWrites.poll();
+
+        while (connection != null) {
+            if (connection.webSocket != null) {
+                // Queued frames are written while the socket keeps reading
+                if (connection.key.isValid() && !connection.closing && (connection.key.interestOps() == SelectionKey.OP_READ)) {
+                    connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    connection.lastActive = System.currentTimeMillis();
+                }
+            } else if ((connection.output != null) && connection.key.isValid()) {
+                // Late notifications for a response which has already been written are ignored
+                connection.key.interestOps(SelectionKey.OP_WRITE);
+                connection.lastActive = System.currentTimeMillis();
+            }
+
+            connection = this.pendingWrites.poll();
+        }
+    }
+
+    /**
+     * closeExpiredConnections
+     * enforces the deadlines of all connections.
+     * Connections waiting for the next request are closed once idle for longer than the keep alive timeout,
+     * connections which are too slow to send a request are sent 408 Request Timeout,
+     * and connections which stop accepting their response are closed
+     * @param now the current time in milliseconds
+     */
+    private void closeExpiredConnections(long now) {
+        for (SelectionKey key : this.selector.keys()) {
+            Connection connection = (Connection) key.attachment();
+
+            try {
+                int interestOps = key.interestOps();
+
+                if (connection.webSocket != null) {
+                    this.keepAlive(connection, now);
+                } else if ((connection.events != null) && !connection.events.isClosed()) {
+                    this.heartbeat(connection, now);
+                } else if ((interestOps == SelectionKey.OP_READ) && (now - connection.phaseStart > this.config.getTimeout(connection.phase))) {
+                    this.expire(connection, connection.phase);
+                } else if ((interestOps == SelectionKey.OP_WRITE) && (now - connection.lastActive > this.config.getWriteTimeout())) {
+                    this.expire(connection, Timeout.WRITE);
+                }
+            } catch (CancelledKeyException e) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * keepAlive
+     * pings a web socket which has been idle, and closes it if the client stopped answering or stopped accepting frames
+     * @param connection the upgraded connection
+     * @param now the current time in milliseconds
+     */
+    private void keepAlive(Connection connection, long now) {
+        boolean writing = (connection.key.interestOps() & SelectionKey.OP_WRITE) != 0;
+
+        if (writing && (now - connection.lastActive > this.config.getWriteTimeout())) {
+            this.server.getStats().timedOut(Timeout.WRITE);
+            connection.close();
+        } else if (!connection.webSocket.keepAlive(now, this.config.getWebSocketPingInterval())) {
+            this.server.getStats().timedOut(Timeout.IDLE);
+            connection.close();
+        }
+    }
+
+    /**
+     * heartbeat
+     * keeps an idle event stream open, and closes it if the client stopped accepting events
+     * @param connection the connection of the event stream
+     * @param now the current time in milliseconds
+     */
+    private void heartbeat(Connection connection, long now) {
+        boolean writing = (connection.key.interestOps() & SelectionKey.OP_WRITE) != 0;
+
+        if (writing && (now - connection.lastActive > this.config.getWriteTimeout())) {
+            this.server.getStats().timedOut(Timeout.WRITE);
+            connection.close();
+            return;
+        }
+
+        try {
+            connection.events.keepAlive(now);
+        } catch (IOException e) {
+            // The stream has ended or given up on the client, which the writes of the loop act on
+        }
+    }
+
+    /**
+     * expire
+     * ends a connection which missed a deadline
+     * @param connection the connection
+     * @param timeout the deadline which was missed
+     */
+    private void expire(Connection connection, Timeout timeout) {
+        this.server.getStats().timedOut(timeout);
+
+        // Idle persistent connections and stalled writes are closed silently
+        if ((timeout == Timeout.IDLE) || (timeout == Timeout.WRITE)) {
+            connection.close();
+            return;
+        }
+
+        connection.keepAlive = false;
+        connection.output = this.server.prepare(this.server.errorResponse(ResponseCode.REQUEST_TIMEOUT), false).getBuffers(connection.head);
+        connection.lastActive = System.currentTimeMillis();
+        connection.key.interestOps(SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * read
+     * reads available bytes from a connection and dispatches its request once it has been fully received
+     * @param connection the readable connection
+     * @throws IOException if an error occurs while reading from the channel
+     */
+    private void read(Connection connection) throws IOException {
+        int read = connection.channel.read(connection.input);
+
+        // Client closed the connection
+        if (read == -1) {
+            connection.close();
+            return;
+        }
+
+        this.metrics.bytesReceived(read);
+
+        if (connection.webSocket != null) {
+            this.receive(connection);
+        } else {
+            this.process(connection);
+        }
+    }
+
+    /**
+     * receive
+     * handles the frames buffered by an upgraded connection.
+     * Once the socket is closed, reading stops and the connection is closed as soon as the queued frames are written
+     * @param connection the upgraded connection
+     */
+    private void receive(Connection connection) {
+        connection.input.flip();
+
+        boolean open = connection.webSocket.receive(connection.input);
+
+        connection.input.compact();
+
+        if (!open) {
+            connection.closing = true;
+            connection.key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * process
+     * parses the bytes buffered by a connection and dispatches its request once it has been fully received
+     * @param connection the connection to process
+     */
+    private void process(Connection connection) {
+        Request req;
+
+        // The first bytes of the request have arrived
+        if (connection.parseStart == 0) {
+            connection.parseStart = System.nanoTime();
+        }
+
+        connection.input.flip();
+
+        try {
+            req = connection.parser.parse(connection.input);
+        } catch (RequestParseException e) {
+            // Malformed or oversized request
+            connection.keepAlive = false;
+            connection.output = this.server.prepare(this.server.errorResponse(e.getCode()), false).getBuffers(connection.head);
+            connection.lastActive = System.currentTimeMillis();
+            connection.key.interestOps(SelectionKey.OP_WRITE);
+            return;
+        } finally {
+            // Keep any bytes of the next request
+            connection.input.compact();
+        }
+
+        if (req == null) {
+            // Restart the deadline whenever the request moves on to its next part
+            Timeout phase = WebServer.readPhase(connection.parser);
+
+            if (phase != connection.phase) {
+                connection.phase = phase;
+                connection.phaseStart = System.currentTimeMillis();
+            }
+
+            return;
+        }
+
+        connection.parseNanos = System.nanoTime() - connection.parseStart;
+        connection.parseStart = 0;
+
+        // Stop reading while the request is being handled
+        connection.key.interestOps(0);
+
+        this.dispatch(connection, req);
+    }
+
+    /**
+     * dispatch
+     * hands a parsed request to the worker pool and queues its response to be written by this loop
+     * @param connection the connection the request was read from
+     * @param req the parsed request
+     */
+    private void dispatch(Connection connection, Request req) {
+        try {
+            this.workers.execute(() -> {
+                long handleStart = System.nanoTime();
+                Response res = this.server.respond(req);
+                long handleEnd = System.nanoTime();
+
+                // No response could be produced, close the connection once nothing is written
+                if (res == null) {
+                    connection.keepAlive = false;
+                    connection.output = new ByteBuffer[] { ByteBuffer.allocate(0) };
+                    this.notifyWritable(connection);
+                    return;
+                }
+
+                connection.requestsServed++;
+                connection.keepAlive = this.server.keepAlive(req, res, connection.requestsServed);
+                this.server.prepare(res, connection.keepAlive);
+
+                // Recorded by the loop once the response is written
+                connection.request = req;
+                connection.response = res;
+                connection.handleNanos = handleEnd - handleStart;
+                connection.writeStart = handleEnd;
+                connection.responseBytes = 0;
+
+                if (res instanceof WebSocketResponse) {
+                    // The socket is opened once the handshake response is written
+                    connection.upgrade = (WebSocketResponse) res;
+                    connection.output = res.getBuffers(connection.head);
+                    this.notifyWritable(connection);
+                } else if (res instanceof EventStreamResponse) {
+                    this.openEvents(connection, (EventStreamResponse) res);
+                } else if (res instanceof StreamingResponse) {
+                    this.stream(connection, (StreamingResponse) res);
+                } else if ((res instanceof FileResponse) && !res.isBodyOmitted()) {
+                    // The body is transferred from the file once the head is written
+                    FileResponse fileRes = (FileResponse) res;
+
+                    connection.file = fileRes.getFile();
+                    connection.filePosition = fileRes.getFilePosition();
+                    connection.fileRemaining = fileRes.getBodyLength();
+                    connection.output = new ByteBuffer[] { res.getHead(connection.head) };
+                    this.notifyWritable(connection);
+                } else {
+                    connection.output = res.getBuffers(connection.head);
+                    this.notifyWritable(connection);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Worker queue is full, shed the request
+            this.server.getStats().requestRejected();
+
+            connection.keepAlive = false;
+            connection.output = this.server.serviceUnavailable().getBuffers(connection.head);
+            connection.lastActive = System.currentTimeMillis();
+            connection.key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * stream
+     * sends the head of a streaming response and runs its body writer on the current worker thread.
+     * The loop writes the chunks as they are produced, and the worker blocks whenever too many chunks are
+     * waiting to be written, so a slow client cannot make the body pile up in memory
+     * @param connection the connection the request was read from
+     * @param res the streaming response
+     */
+    private void stream(Connection connection, StreamingResponse res) {
+        StreamOutput stream = new StreamOutput(connection, STREAM_QUEUE_CAPACITY);
+
+        connection.stream = stream;
+        connection.output = new ByteBuffer[] { res.getHead(connection.head) };
+        this.notifyWritable(connection);
+
+        try {
+            res.writeBody(stream);
+        } catch (IOException | RuntimeException e) {
+            // Body writer failed after the head was sent, so the response can only be cut short
+            e.printStackTrace();
+            stream.aborted = true;
+        }
+
+        stream.finish();
+    }
+
+    /**
+     * openEvents
+     * sends the head of an event stream response and opens the stream, then returns the current worker thread to the pool.
+     * Events sent on the stream from any thread are queued for the loop to write, without waiting on the client
+     * @param connection the connection the request was read from
+     * @param res the event stream response
+     */
+    private void openEvents(Connection connection, EventStreamResponse res) {
+        StreamOutput stream = new StreamOutput(connection, EVENT_QUEUE_CAPACITY);
+
+        connection.stream = stream;
+        connection.output = new ByteBuffer[] { res.getHead(connection.head) };
+        this.notifyWritable(connection);
+
+        // Only the head is sent
+        if (res.isBodyOmitted()) {
+            stream.finish();
+            return;
+        }
+
+        connection.events = res.open(stream);
+    }
+
+    /**
+     * notifyWritable
+     * queues a connection to be switched to write mode by this loop.
+     * This method may be called from any thread.
+     * @param connection the connection whose output is ready
+     */
+    private void notifyWritable(Connection connection) {
+        this.pendingWrites.add(connection);
+        this.selector.wakeup();
+    }
+
+    /**
+     * write
+     * writes as much of the pending response as the channel accepts.
+     * Once the response is sent, the connection either waits for the next request or is closed.
+     * @param connection the writable connection
+     * @throws IOException if an error occurs while writing to the channel, or the file being sent ends early
+     */
+    private void write(Connection connection) throws IOException {
+        if (connection.webSocket != null) {
+            this.writeFrames(connection);
+            return;
+        }
+
+        while (true) {
+            ByteBuffer[] output = connection.output;
+
+            // Gathering write of the head and body without concatenating them
+            long written = connection.channel.write(output);
+
+            if (written > 0) {
+                connection.lastActive = System.currentTimeMillis();
+                connection.responseBytes += written;
+                this.metrics.bytesSent(written);
+            }
+
+            if (output[output.length - 1].hasRemaining()) {
+                return;
+            }
+
+            // Body copied straight from the file to the socket by the kernel
+            if (connection.file != null) {
+                long sent = connection.file.transferTo(connection.filePosition, connection.fileRemaining, connection.channel);
+
+                if (sent > 0) {
+                    connection.filePosition += sent;
+                    connection.fileRemaining -= sent;
+                    connection.lastActive = System.currentTimeMillis();
+                    connection.responseBytes += sent;
+                    this.metrics.bytesSent(sent);
+                } else if (connection.filePosition >= connection.file.size()) {
+                    // The file ended early, so the promised length can never be sent
+                    throw new IOException("file is shorter than the response body");
+                }
+
+                if (connection.fileRemaining > 0) {
+                    return;
+                }
+
+                connection.file = null;
+            }
+
+            StreamOutput stream = connection.stream;
+
+            if (stream == null) {
+                break;
+            }
+
+            // Streamed response, move on to the next chunk the worker has produced
+            stream.waiting.set(true);
+
+            boolean finished = stream.finished;
+            ByteBuffer next = stream.chunks.poll();
+
+            if (next != null) {
+                stream.waiting.set(false);
+                connection.output = new ByteBuffer[] { next };
+                continue;
+            }
+
+            if (!finished) {
+                // Wait for the worker to produce more of the body
+                connection.key.interestOps(0);
+                return;
+            }
+
+            if (stream.aborted) {
+                connection.close();
+                return;
+            }
+
+            connection.stream = null;
+            connection.events = null;
+            break;
+        }
+
+        // The response has been fully written
+        if (connection.response != null) {
+            this.server.completed(connection.request, connection.response, connection.parseNanos, connection.handleNanos, System.nanoTime() - connection.writeStart, connection.responseBytes);
+            connection.request = null;
+            connection.response = null;
+        }
+
+        // The handshake has been sent, so the connection switches protocols
+        if (connection.upgrade != null) {
+            this.upgrade(connection);
+            return;
+        }
+
+        if (!connection.keepAlive) {
+            connection.close();
+            return;
+        }
+
+        // Wait for the next request
+        connection.output = null;
+        connection.phase = Timeout.IDLE;
+        connection.phaseStart = System.currentTimeMillis();
+        connection.key.interestOps(SelectionKey.OP_READ);
+
+        // Handle any pipelined request which has already been read
+        if (connection.input.position() > 0) {
+            this.process(connection);
+        }
+    }
+
+    /**
+     * upgrade
+     * opens a web socket over a connection whose handshake response has been written.
+     * Frames sent from any thread are queued for this loop to write
+     * @param connection the upgraded connection
+     */
+    private void upgrade(Connection connection) {
+        WebSocketResponse res = connection.upgrade;
+
+        connection.upgrade = null;
+        connection.output = null;
+        connection.frames = new ConcurrentLinkedQueue<>();
+
+        connection.webSocket = res.open(this.config.getMaxBodySize(), frame -> {
+            if (!connection.key.isValid()) {
+                throw new IOException("connection closed");
+            }
+
+            connection.frames.add(frame);
+            this.notifyWritable(connection);
+        });
+
+        connection.key.interestOps(SelectionKey.OP_READ);
+
+        if (!connection.webSocket.opened()) {
+            connection.closing = true;
+            connection.key.interestOps(SelectionKey.OP_WRITE);
+            return;
+        }
+
+        // Handle any frames sent along with the handshake
+        if (connection.input.position() > 0) {
+            this.receive(connection);
+        }
+    }
+
+    /**
+     * writeFrames
+     * writes as many of the queued frames of a web socket as the channel accepts.
+     * Once the queue is empty, the connection goes back to only reading, or is closed if the socket has been closed
+     * @param connection the upgraded connection
+     * @throws IOException if an error occurs while writing to the channel
+     */
+    private void writeFrames(Connection connection) throws IOException {
+        ByteBuffer frame = connection.frames.peek();
+
+        while (frame != null) {
+            int written = connection.channel.write(frame);
+
+            if (written > 0) {
+                connection.lastActive = System.currentTimeMillis();
+                this.metrics.bytesSent(written);
+            }
+
+            if (frame.hasRemaining()) {
+                return;
+            }
+
+            connection.frames.poll();
+            frame = connection.frames.peek();
+        }
+
+        if (connection.closing) {
+            connection.close();
+            return;
+        }
+
+        // Frames queued after this point notify the loop again
+        connection.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /**
+     * An output stream which hands the body of a streaming response from a worker thread to an {@link EventLoop}.
+     * Each write is copied into a buffer and queued for the loop. Once the queue is full, writers block
+     * until the loop has sent enough of the body to the client.
+     * The writes of an event stream are queued without waiting, and cut the response short once the queue is full instead.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private class StreamOutput extends OutputStream implements EventStream.Output {
+        /** The connection the body is written to */
+        private final Connection connection;
+
+        /** Chunks of the body waiting to be written by the loop */
+        private final BlockingQueue<ByteBuffer> chunks;
+
+        /** Whether the loop has run out of chunks and must be notified when the next one is queued */
+        private final AtomicBoolean waiting;
+
+        /** Whether the body writer has returned */
+        private volatile boolean finished;
+
+        /** Whether the body writer failed, leaving the body incomplete */
+        private volatile boolean aborted;
+
+        /**
+         * Constructs a stream for the body of a response
+         * @param connection the connection the body is written to
+         * @param capacity the maximum number of chunks waiting to be written
+         */
+        private StreamOutput(Connection connection, int capacity) {
+            this.connection = connection;
+            this.chunks = new ArrayBlockingQueue<>(capacity);
+            this.waiting = new AtomicBoolean(false);
+        }
+
+        /**
+         * write
+         * queues a single byte of the body
+         * @param b the byte to write
+         * @throws IOException if the connection is closed while waiting for room in the queue
+         */
+        @Override
+        public void write(int b) throws IOException {
+            this.write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        /**
+         * write
+         * copies a range of bytes of the body and queues them for the loop
+         * @param b the array holding the bytes
+         * @param off the index of the first byte to write
+         * @param len the number of bytes to write
+         * @throws IOException if the connection is closed while waiting for room in the queue
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+
+            ByteBuffer chunk = ByteBuffer.allocate(len);
+            chunk.put(b, off, len).flip();
+
+            try {
+                // Backpressure, block until the loop catches up
+                while (!this.chunks.offer(chunk, SWEEP_INTERVAL, TimeUnit.MILLISECONDS)) {
+                    if (!this.connection.key.isValid()) {
+                        throw new IOException("connection closed while streaming response");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while streaming response", e);
+            }
+
+            this.wakeLoop();
+        }
+
+        /**
+         * write
+         * queues an encoded part of an event stream for the loop, without waiting for room in the queue
+         * @param data the encoded bytes, ready to be read
+         * @throws IOException if the connection is closed, or the queue is full so the response is cut short
+         */
+        @Override
+        public void write(ByteBuffer data) throws IOException {
+            if (!this.connection.key.isValid()) {
+                throw new IOException("connection closed while streaming events");
+            }
+
+            if (!this.chunks.offer(data)) {
+                // The client is not keeping up, and the sender must not be held, so the connection is closed once drained
+                this.aborted = true;
+                throw new IOException("client is not reading events");
+            }
+
+            this.wakeLoop();
+        }
+
+        /**
+         * end
+         * marks the event stream as complete
+         */
+        @Override
+        public void end() {
+            this.finish();
+        }
+
+        /**
+         * finish
+         * marks the body as complete, so the loop can end the response once the queued chunks are written
+         */
+        private void finish() {
+            this.finished = true;
+            this.wakeLoop();
+        }
+
+        /**
+         * wakeLoop
+         * switches the connection back to write mode if the loop is waiting for more of the body
+         */
+        private void wakeLoop() {
+            if (this.waiting.compareAndSet(true, false)) {
+                EventLoop.this.notifyWritable(this.connection);
+            }
+        }
+    }
+
+    /**
+     * Holds the state of a single client connection of an {@link EventLoop}
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private class Connection {
+        /** The client channel */
+        private final SocketChannel channel;
+
+        /** The selection key of the client channel */
+        private final SelectionKey key;
+
+        /** Holds bytes read from the channel which have not been parsed yet */
+        private final ByteBuffer input;
+
+        /** Holds the encoded head of the response being written, reused for every response */
+        private final ByteBuffer head;
+
+        /** Parses the bytes read from the channel into requests */
+        private final RequestParser parser;
+
+        /** The buffers of the response waiting to be written, or null if there is none */
+        private volatile ByteBuffer[] output;
+
+        /** The body of the streaming response being written, or null if the response is not streamed */
+        private volatile StreamOutput stream;
+
+        /** The event stream being written, or null if the response is not an event stream */
+        private volatile EventStream events;
+
+        /** The file holding the body of the pending response, or null if the body is not transferred from a file */
+        private FileChannel file;
+
+        /** The position in the file of the next byte of the body to transfer */
+        private long filePosition;
+
+        /** The number of bytes of the body left to transfer from the file */
+        private long fileRemaining;
+
+        /** Whether the connection stays open after the pending response is written */
+        private volatile boolean keepAlive;
+
+        /** The time in nanoseconds the first byte of the request being received arrived, or 0 if none has */
+        private long parseStart;
+
+        /** The time in nanoseconds from the first byte of the last request arriving to it being parsed */
+        private long parseNanos;
+
+        /** The request whose response is being written, or null if it is not recorded once written */
+        private Request request;
+
+        /** The response being written, or null if it is not recorded once written */
+        private Response response;
+
+        /** The time in nanoseconds the handler took to produce the response being written */
+        private long handleNanos;
+
+        /** The time in nanoseconds at which the response being written was produced */
+        private long writeStart;
+
+        /** The number of bytes of the response being written which have been written */
+        private long responseBytes;
+
+        /** The number of requests served on this connection */
+        private int requestsServed;
+
+        /** The last time in milliseconds that the pending response was queued or made progress */
+        private long lastActive;
+
+        /** The deadline which applies to the part of the request being received */
+        private Timeout phase;
+
+        /** The time in milliseconds at which the current part of the request started to be received */
+        private long phaseStart;
+
+        /** The handshake response which upgrades the connection once written, or null if it is not being upgraded */
+        private volatile WebSocketResponse upgrade;
+
+        /** The web socket opened over the connection, or null if the connection still carries HTTP */
+        private volatile WebSocket webSocket;
+
+        /** Frames of the web socket waiting to be written */
+        private volatile Queue<ByteBuffer> frames;
+
+        /** Whether the web socket has been closed, so the connection is closed once its queued frames are written */
+        private boolean closing;
+
+        /** Whether the connection has been closed */
+        private boolean closed;
+
+        /**
+         * Constructs a connection around a registered channel
+         * @param channel the client channel
+         * @param key the selection key of the channel
+         * @param parser the parser of the requests sent over the channel
+         */
+        private Connection(SocketChannel channel, SelectionKey key, RequestParser parser) {
+            this.channel = channel;
+            this.key = key;
+            this.parser = parser;
+            this.input = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            this.head = ByteBuffer.allocate(HEAD_BUFFER_SIZE);
+            this.lastActive = System.currentTimeMillis();
+            this.phase = Timeout.IDLE;
+            this.phaseStart = this.lastActive;
+        }
+
+        /**
+         * close
+         * closes the client channel, freeing its place for another client.
+         * Calling this method more than once has no effect
+         */
+        private void close() {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            EventLoop.this.server.connectionClosed();
+
+            this.key.cancel();
+
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                System.out.println("Failed to close socket");
+            }
+
+            if (this.webSocket != null) {
+                this.webSocket.closed();
+            }
+
+            if (this.events != null) {
+                this.events.closed();
+            }
+
+            // A response cut short no longer needs its file
+            if (this.response instanceof FileResponse) {
+                ((FileResponse) this.response).release();
+            }
+        }
+    }
+}
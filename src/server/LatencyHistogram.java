@@ -0,0 +1,115 @@
+package server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations into fixed buckets, so their distribution can be exported as a Prometheus histogram.
+ * Each bucket is a {@link LongAdder}, so durations are recorded concurrently without locking
+ * and without contending with other threads recording into the same bucket.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class LatencyHistogram {
+    /** The upper bound of each bucket in nanoseconds, from 100 microseconds to 10 seconds */
+    private static final long[] BOUNDS = {
+            TimeUnit.MICROSECONDS.toNanos(100),
+            TimeUnit.MICROSECONDS.toNanos(250),
+            TimeUnit.MICROSECONDS.toNanos(500),
+            TimeUnit.MILLISECONDS.toNanos(1),
+            TimeUnit.MICROSECONDS.toNanos(2500),
+            TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(25),
+            TimeUnit.MILLISECONDS.toNanos(50),
+            TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(250),
+            TimeUnit.MILLISECONDS.toNanos(500),
+            TimeUnit.SECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(2500),
+            TimeUnit.SECONDS.toNanos(5),
+            TimeUnit.SECONDS.toNanos(10)
+    };
+
+    /** The upper bound of each bucket as written in the {@code le} label, in seconds */
+    private static final String[] BOUND_LABELS = {
+            "0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025",
+            "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"
+    };
+
+    /** The number of durations in each bucket, with a last bucket for durations above every bound */
+    private final LongAdder[] buckets;
+
+    /** The sum of all recorded durations in nanoseconds */
+    private final LongAdder sum;
+
+    /**
+     * Constructs an empty histogram
+     */
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BOUNDS.length + 1];
+        this.sum = new LongAdder();
+
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * record
+     * adds a duration to the histogram
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+
+        while ((bucket < BOUNDS.length) && (nanos > BOUNDS[bucket])) {
+            bucket++;
+        }
+
+        this.buckets[bucket].increment();
+        this.sum.add(nanos);
+    }
+
+    /**
+     * getCount
+     * gets the number of recorded durations
+     * @return the number of durations
+     */
+    public long getCount() {
+        long count = 0;
+
+        for (LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+
+        return count;
+    }
+
+    /**
+     * write
+     * writes the histogram as the bucket, sum, and count samples of the Prometheus text format.
+     * Buckets are cumulative, and the count is taken from the buckets so the two always agree
+     * @param out the exposition being written
+     * @param name the name of the metric
+     * @param labels the labels identifying the histogram, such as {@code route="/",status="200"}, or an empty string
+     */
+    public void write(StringBuilder out, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+
+        for (int i = 0; i < this.buckets.length; i++) {
+            cumulative += this.buckets[i].sum();
+
+            String bound = (i < BOUND_LABELS.length) ? BOUND_LABELS[i] : "+Inf";
+
+            out.append(name).append("_bucket{").append(labels).append(separator)
+                    .append("le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+        }
+
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+
+        out.append(name).append("_sum").append(braces).append(' ').append(this.sum.sum() / 1e9).append('\n');
+        out.append(name).append("_count").append(braces).append(' ').append(cumulative).append('\n');
+    }
+}
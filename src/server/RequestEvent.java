@@ -0,0 +1,66 @@
+package server;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import server.request.Request;
+import server.response.Response;
+
+/**
+ * A Java Flight Recorder event covering the dispatch of a request, from the request being parsed
+ * to its response being produced, which does not include writing the response
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@Name("server.Request")
+@Label("HTTP Request")
+@Category({"Web Server", "HTTP"})
+@Description("A request dispatched to a static asset or route handler")
+class RequestEvent extends Event {
+    /** The method of the request */
+    @Label("Method")
+    private String method;
+
+    /** The url of the request */
+    @Label("URL")
+    private String url;
+
+    /** The route pattern matched by the request */
+    @Label("Route")
+    private String route;
+
+    /** The status code of the response */
+    @Label("Status")
+    private int status;
+
+    /**
+     * Constructs and begins timing an event
+     */
+    RequestEvent() {
+        this.begin();
+    }
+
+    /**
+     * complete
+     * stops timing the event and commits it if it is being recorded.
+     * The fields are only filled in when the event is committed, so a dispatch costs next to nothing otherwise
+     * @param req the dispatched request
+     * @param res the response produced, or null if none could be produced
+     */
+    void complete(Request req, Response res) {
+        this.end();
+
+        if (!this.shouldCommit()) {
+            return;
+        }
+
+        this.method = req.getStatusLine().getMethod().toString();
+        this.url = req.getStatusLine().getUrl();
+        this.route = req.getStatusLine().getRoute();
+        this.status = (res != null) ? res.getStatusLine().getCode().getCode() : 0;
+
+        this.commit();
+    }
+}
@@ -0,0 +1,539 @@
+package server;
+
+/**
+ * Holds the tunable options of a {@link WebServer}.
+ * Provides a fluent API with method chaining so that only the options which
+ * differ from the defaults have to be specified.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ServerConfig {
+    /** The way the server accepts and processes connections */
+    private ServerMode mode;
+
+    /** The maximum number of connections open at once */
+    private int maxConnections;
+
+    /** The time in milliseconds an idle persistent connection is kept open */
+    private int keepAliveTimeout;
+
+    /** The maximum number of requests served on a single persistent connection */
+    private int maxKeepAliveRequests;
+
+    /** The time in milliseconds allowed to receive the head of a request */
+    private int headerTimeout;
+
+    /** The time in milliseconds allowed to receive the body of a request */
+    private int bodyTimeout;
+
+    /** The time in milliseconds a response may wait for the client to accept more of it */
+    private int writeTimeout;
+
+    /** The time in milliseconds a web socket may be idle before it is pinged, and then closed if the ping goes unanswered */
+    private int webSocketPingInterval;
+
+    /** The maximum size of the status line and headers of a request in bytes */
+    private int maxHeaderSize;
+
+    /** The maximum size of the body of a request in bytes */
+    private int maxBodySize;
+
+    /** The number of selector loops used in {@link ServerMode#NIO} mode */
+    private int ioThreads;
+
+    /** The number of threads which dispatch handlers in {@link ServerMode#NIO} mode */
+    private int workerThreads;
+
+    /** The maximum number of parsed requests waiting for a worker thread in {@link ServerMode#NIO} mode */
+    private int workerQueueCapacity;
+
+    /** The number of seconds shed clients are asked to wait before retrying */
+    private int retryAfter;
+
+    /** Whether text responses are compressed when the client accepts it */
+    private boolean compression;
+
+    /** The minimum size in bytes of a response body worth compressing */
+    private int compressionThreshold;
+
+    /** The time in milliseconds pages of cacheable handlers are served from the response cache, or 0 if they are not cached */
+    private long responseCacheTtl;
+
+    /**
+     * Constructs a configuration with the default options.
+     * The default mode is {@link ServerMode#BLOCKING}
+     */
+    public ServerConfig() {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        this.mode = ServerMode.BLOCKING;
+        this.maxConnections = 10000;
+        this.keepAliveTimeout = 5000;
+        this.maxKeepAliveRequests = 100;
+        this.headerTimeout = 10000;
+        this.bodyTimeout = 30000;
+        this.writeTimeout = 30000;
+        this.webSocketPingInterval = 30000;
+        this.maxHeaderSize = 8192;
+        this.maxBodySize = 1 << 20;
+        this.ioThreads = Math.max(1, Math.min(4, processors / 2));
+        this.workerThreads = processors * 4;
+        this.workerQueueCapacity = 1024;
+        this.retryAfter = 1;
+        this.compression = true;
+        this.compressionThreshold = 1024;
+        this.responseCacheTtl = 60000;
+    }
+
+    /**
+     * mode
+     * Specifies the way the server accepts and processes connections
+     * @param mode the serving mode
+     * @return this object to allow for method chaining
+     * @throws NullPointerException if the mode is null
+     */
+    public ServerConfig mode(ServerMode mode) {
+        if (mode == null) {
+            throw new NullPointerException("mode cannot be null");
+        }
+
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * maxConnections
+     * Specifies the maximum number of connections open at once.
+     * Clients connecting beyond the limit are sent 503 Service Unavailable and disconnected
+     * @param maxConnections the maximum number of in-flight connections
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the maximum is not positive
+     */
+    public ServerConfig maxConnections(int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("maxConnections must be positive");
+        }
+
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * keepAliveTimeout
+     * Specifies the time an idle persistent connection is kept open before the server closes it
+     * @param keepAliveTimeout the idle timeout in milliseconds
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public ServerConfig keepAliveTimeout(int keepAliveTimeout) {
+        if (keepAliveTimeout <= 0) {
+            throw new IllegalArgumentException("keepAliveTimeout must be positive");
+        }
+
+        this.keepAliveTimeout = keepAliveTimeout;
+        return this;
+    }
+
+    /**
+     * maxKeepAliveRequests
+     * Specifies the maximum number of requests served on a single persistent connection.
+     * A value of 1 disables persistent connections
+     * @param maxKeepAliveRequests the maximum number of requests per connection
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the maximum is not positive
+     */
+    public ServerConfig maxKeepAliveRequests(int maxKeepAliveRequests) {
+        if (maxKeepAliveRequests <= 0) {
+            throw new IllegalArgumentException("maxKeepAliveRequests must be positive");
+        }
+
+        this.maxKeepAliveRequests = maxKeepAliveRequests;
+        return this;
+    }
+
+    /**
+     * headerTimeout
+     * Specifies the time allowed to receive the status line and headers of a request, counted from its first byte.
+     * Clients which are slower are sent 408 Request Timeout and disconnected
+     * @param headerTimeout the header timeout in milliseconds
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public ServerConfig headerTimeout(int headerTimeout) {
+        if (headerTimeout <= 0) {
+            throw new IllegalArgumentException("headerTimeout must be positive");
+        }
+
+        this.headerTimeout = headerTimeout;
+        return this;
+    }
+
+    /**
+     * bodyTimeout
+     * Specifies the time allowed to receive the body of a request, counted from the end of its headers.
+     * Clients which are slower are sent 408 Request Timeout and disconnected
+     * @param bodyTimeout the body timeout in milliseconds
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public ServerConfig bodyTimeout(int bodyTimeout) {
+        if (bodyTimeout <= 0) {
+            throw new IllegalArgumentException("bodyTimeout must be positive");
+        }
+
+        this.bodyTimeout = bodyTimeout;
+        return this;
+    }
+
+    /**
+     * writeTimeout
+     * Specifies the time a response may wait for the client to accept more of it before the connection is closed.
+     * The timeout restarts whenever the client makes progress, so large responses to slow but live clients are not cut off
+     * @param writeTimeout the write timeout in milliseconds
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public ServerConfig writeTimeout(int writeTimeout) {
+        if (writeTimeout <= 0) {
+            throw new IllegalArgumentException("writeTimeout must be positive");
+        }
+
+        this.writeTimeout = writeTimeout;
+        return this;
+    }
+
+    /**
+     * webSocketPingInterval
+     * Specifies the time a web socket may be idle before the client is pinged.
+     * A socket whose client does not answer within another interval is closed, so dead connections do not hold their place
+     * @param webSocketPingInterval the ping interval in milliseconds
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public ServerConfig webSocketPingInterval(int webSocketPingInterval) {
+        if (webSocketPingInterval <= 0) {
+            throw new IllegalArgumentException("webSocketPingInterval must be positive");
+        }
+
+        this.webSocketPingInterval = webSocketPingInterval;
+        return this;
+    }
+
+    /**
+     * maxHeaderSize
+     * Specifies the maximum size of the status line and headers of a request.
+     * Larger requests are rejected with 431 Request Header Fields Too Large
+     * @param maxHeaderSize the maximum header size in bytes
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public ServerConfig maxHeaderSize(int maxHeaderSize) {
+        if (maxHeaderSize <= 0) {
+            throw new IllegalArgumentException("maxHeaderSize must be positive");
+        }
+
+        this.maxHeaderSize = maxHeaderSize;
+        return this;
+    }
+
+    /**
+     * maxBodySize
+     * Specifies the maximum size of the body of a request.
+     * Larger requests are rejected with 413 Payload Too Large
+     * @param maxBodySize the maximum body size in bytes
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public ServerConfig maxBodySize(int maxBodySize) {
+        if (maxBodySize <= 0) {
+            throw new IllegalArgumentException("maxBodySize must be positive");
+        }
+
+        this.maxBodySize = maxBodySize;
+        return this;
+    }
+
+    /**
+     * ioThreads
+     * Specifies the number of selector loops used in {@link ServerMode#NIO} mode
+     * @param ioThreads the number of I/O threads
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public ServerConfig ioThreads(int ioThreads) {
+        if (ioThreads <= 0) {
+            throw new IllegalArgumentException("ioThreads must be positive");
+        }
+
+        this.ioThreads = ioThreads;
+        return this;
+    }
+
+    /**
+     * workerThreads
+     * Specifies the number of threads which dispatch handlers in {@link ServerMode#NIO} mode
+     * @param workerThreads the number of worker threads
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public ServerConfig workerThreads(int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("workerThreads must be positive");
+        }
+
+        this.workerThreads = workerThreads;
+        return this;
+    }
+
+    /**
+     * workerQueueCapacity
+     * Specifies the maximum number of parsed requests waiting for a worker thread in {@link ServerMode#NIO} mode.
+     * Requests beyond the limit are sent 503 Service Unavailable
+     * @param workerQueueCapacity the capacity of the worker queue
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public ServerConfig workerQueueCapacity(int workerQueueCapacity) {
+        if (workerQueueCapacity <= 0) {
+            throw new IllegalArgumentException("workerQueueCapacity must be positive");
+        }
+
+        this.workerQueueCapacity = workerQueueCapacity;
+        return this;
+    }
+
+    /**
+     * retryAfter
+     * Specifies the value of the {@code Retry-After} header sent with 503 Service Unavailable
+     * when the server is shedding load
+     * @param retryAfter the number of seconds clients should wait before retrying
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public ServerConfig retryAfter(int retryAfter) {
+        if (retryAfter < 0) {
+            throw new IllegalArgumentException("retryAfter cannot be negative");
+        }
+
+        this.retryAfter = retryAfter;
+        return this;
+    }
+
+    /**
+     * compression
+     * Specifies whether text responses produced by handlers are compressed when the client accepts it.
+     * Responses which already have a {@code Content-Encoding}, such as precompressed assets, are left as is
+     * @param compression whether to compress responses
+     * @return this object to allow for method chaining
+     */
+    public ServerConfig compression(boolean compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * compressionThreshold
+     * Specifies the minimum size of a response body worth compressing.
+     * Streamed responses have no known size and are always compressed
+     * @param compressionThreshold the minimum body size in bytes
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public ServerConfig compressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("compressionThreshold cannot be negative");
+        }
+
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
+    /**
+     * responseCacheTtl
+     * Specifies how long pages of {@link server.handler.Cacheable} handlers are reused before they are rendered again.
+     * Pages can be invalidated sooner through {@link WebServer#getResponseCache()}
+     * @param responseCacheTtl the time in milliseconds, or 0 to render every page
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if the time is negative
+     */
+    public ServerConfig responseCacheTtl(long responseCacheTtl) {
+        if (responseCacheTtl < 0) {
+            throw new IllegalArgumentException("responseCacheTtl cannot be negative");
+        }
+
+        this.responseCacheTtl = responseCacheTtl;
+        return this;
+    }
+
+    /**
+     * getMode
+     * gets the serving mode
+     * @return the serving mode
+     */
+    public ServerMode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * getMaxConnections
+     * gets the maximum number of connections handled at once
+     * @return the maximum number of in-flight connections
+     */
+    public int getMaxConnections() {
+        return this.maxConnections;
+    }
+
+    /**
+     * getKeepAliveTimeout
+     * gets the time an idle persistent connection is kept open
+     * @return the idle timeout in milliseconds
+     */
+    public int getKeepAliveTimeout() {
+        return this.keepAliveTimeout;
+    }
+
+    /**
+     * getMaxKeepAliveRequests
+     * gets the maximum number of requests served on a single persistent connection
+     * @return the maximum number of requests per connection
+     */
+    public int getMaxKeepAliveRequests() {
+        return this.maxKeepAliveRequests;
+    }
+
+    /**
+     * getHeaderTimeout
+     * gets the time allowed to receive the head of a request
+     * @return the header timeout in milliseconds
+     */
+    public int getHeaderTimeout() {
+        return this.headerTimeout;
+    }
+
+    /**
+     * getBodyTimeout
+     * gets the time allowed to receive the body of a request
+     * @return the body timeout in milliseconds
+     */
+    public int getBodyTimeout() {
+        return this.bodyTimeout;
+    }
+
+    /**
+     * getWriteTimeout
+     * gets the time a response may wait for the client to accept more of it
+     * @return the write timeout in milliseconds
+     */
+    public int getWriteTimeout() {
+        return this.writeTimeout;
+    }
+
+    /**
+     * getWebSocketPingInterval
+     * gets the time a web socket may be idle before the client is pinged
+     * @return the ping interval in milliseconds
+     */
+    public int getWebSocketPingInterval() {
+        return this.webSocketPingInterval;
+    }
+
+    /**
+     * getTimeout
+     * gets the length of one of the deadlines enforced on each connection
+     * @param timeout the deadline
+     * @return the timeout in milliseconds
+     */
+    public int getTimeout(Timeout timeout) {
+        switch (timeout) {
+            case HEADER:
+                return this.headerTimeout;
+            case BODY:
+                return this.bodyTimeout;
+            case WRITE:
+                return this.writeTimeout;
+            default:
+                return this.keepAliveTimeout;
+        }
+    }
+
+    /**
+     * getMaxHeaderSize
+     * gets the maximum size of the status line and headers of a request
+     * @return the maximum header size in bytes
+     */
+    public int getMaxHeaderSize() {
+        return this.maxHeaderSize;
+    }
+
+    /**
+     * getMaxBodySize
+     * gets the maximum size of the body of a request
+     * @return the maximum body size in bytes
+     */
+    public int getMaxBodySize() {
+        return this.maxBodySize;
+    }
+
+    /**
+     * getIoThreads
+     * gets the number of selector loops
+     * @return the number of I/O threads
+     */
+    public int getIoThreads() {
+        return this.ioThreads;
+    }
+
+    /**
+     * getWorkerThreads
+     * gets the number of handler dispatching threads
+     * @return the number of worker threads
+     */
+    public int getWorkerThreads() {
+        return this.workerThreads;
+    }
+
+    /**
+     * getWorkerQueueCapacity
+     * gets the maximum number of requests waiting for a worker thread
+     * @return the capacity of the worker queue
+     */
+    public int getWorkerQueueCapacity() {
+        return this.workerQueueCapacity;
+    }
+
+    /**
+     * getRetryAfter
+     * gets the number of seconds shed clients are asked to wait before retrying
+     * @return the retry delay in seconds
+     */
+    public int getRetryAfter() {
+        return this.retryAfter;
+    }
+
+    /**
+     * isCompression
+     * gets whether text responses are compressed
+     * @return whether to compress responses
+     */
+    public boolean isCompression() {
+        return this.compression;
+    }
+
+    /**
+     * getCompressionThreshold
+     * gets the minimum size of a response body worth compressing
+     * @return the minimum body size in bytes
+     */
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    /**
+     * getResponseCacheTtl
+     * gets how long pages of cacheable handlers are reused
+     * @return the time in milliseconds, or 0 if pages are not cached
+     */
+    public long getResponseCacheTtl() {
+        return this.responseCacheTtl;
+    }
+}
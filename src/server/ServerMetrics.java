@@ -0,0 +1,226 @@
+package server;
+
+import server.log.AccessLog;
+import server.request.Request;
+import server.response.Response;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long a {@link WebServer} takes to parse, handle, and write each request, by route pattern and status code,
+ * along with the bytes it transfers, and exports them with the {@link ServerStats} counters in the Prometheus text format.
+ * Every measurement is a {@link LatencyHistogram} or {@link LongAdder}, so requests are recorded without locking.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ServerMetrics {
+    /** The route label of requests which did not match any route, so unknown urls do not each create a series */
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    /** The counters of connections and requests admitted and shed */
+    private final ServerStats stats;
+
+    /** The log of served requests, or null if requests are not logged */
+    private final AccessLog accessLog;
+
+    /** The histograms of each route pattern and status code */
+    private final Map<String, RouteMetrics> routes;
+
+    /** The number of bytes read from clients */
+    private final LongAdder bytesReceived;
+
+    /** The number of bytes written to clients */
+    private final LongAdder bytesSent;
+
+    /**
+     * Constructs an empty set of metrics
+     * @param stats the counters of connections and requests admitted and shed, which are exported along with the metrics
+     * @param accessLog the log of served requests, whose counters are exported along with the metrics, or null
+     */
+    ServerMetrics(ServerStats stats, AccessLog accessLog) {
+        this.stats = stats;
+        this.accessLog = accessLog;
+        this.routes = new ConcurrentHashMap<>();
+        this.bytesReceived = new LongAdder();
+        this.bytesSent = new LongAdder();
+    }
+
+    /**
+     * record
+     * records a request whose response has been written
+     * @param req the request, whose route pattern has been set if it matched a route
+     * @param res the response to the request
+     * @param parseNanos the time from the first byte of the request arriving to the request being parsed
+     * @param handleNanos the time taken to produce the response, which does not include streaming its body
+     * @param writeNanos the time from the response being produced to it being fully written
+     */
+    void record(Request req, Response res, long parseNanos, long handleNanos, long writeNanos) {
+        String route = (req.getStatusLine().getRoute() != null) ? req.getStatusLine().getRoute() : UNMATCHED_ROUTE;
+        int status = res.getStatusLine().getCode().getCode();
+
+        String key = route + " " + status;
+        RouteMetrics metrics = this.routes.get(key);
+
+        // Created on the first request of each route and status
+        if (metrics == null) {
+            metrics = this.routes.computeIfAbsent(key, k -> new RouteMetrics(route, status));
+        }
+
+        metrics.parse.record(parseNanos);
+        metrics.handle.record(handleNanos);
+        metrics.write.record(writeNanos);
+    }
+
+    /**
+     * bytesReceived
+     * records bytes read from a client
+     * @param count the number of bytes
+     */
+    void bytesReceived(long count) {
+        this.bytesReceived.add(count);
+    }
+
+    /**
+     * bytesSent
+     * records bytes written to a client
+     * @param count the number of bytes
+     */
+    void bytesSent(long count) {
+        this.bytesSent.add(count);
+    }
+
+    /**
+     * getBytesReceived
+     * gets the number of bytes read from clients
+     * @return the number of bytes received
+     */
+    public long getBytesReceived() {
+        return this.bytesReceived.sum();
+    }
+
+    /**
+     * getBytesSent
+     * gets the number of bytes written to clients
+     * @return the number of bytes sent
+     */
+    public long getBytesSent() {
+        return this.bytesSent.sum();
+    }
+
+    /**
+     * write
+     * writes every metric in the Prometheus text exposition format
+     * @return the exposition
+     */
+    public String write() {
+        StringBuilder out = new StringBuilder();
+
+        // Histograms of each route and status
+        out.append("# HELP http_request_parse_seconds Time from the first byte of a request arriving to the request being parsed.\n");
+        out.append("# TYPE http_request_parse_seconds histogram\n");
+
+        for (RouteMetrics metrics : this.routes.values()) {
+            metrics.parse.write(out, "http_request_parse_seconds", metrics.labels);
+        }
+
+        out.append("# HELP http_request_handler_seconds Time taken by the handler to produce a response.\n");
+        out.append("# TYPE http_request_handler_seconds histogram\n");
+
+        for (RouteMetrics metrics : this.routes.values()) {
+            metrics.handle.write(out, "http_request_handler_seconds", metrics.labels);
+        }
+
+        out.append("# HELP http_response_write_seconds Time from a response being produced to it being fully written.\n");
+        out.append("# TYPE http_response_write_seconds histogram\n");
+
+        for (RouteMetrics metrics : this.routes.values()) {
+            metrics.write.write(out, "http_response_write_seconds", metrics.labels);
+        }
+
+        // Transfer and connection counters
+        counter(out, "http_received_bytes_total", "Bytes read from clients.", this.getBytesReceived());
+        counter(out, "http_sent_bytes_total", "Bytes written to clients.", this.getBytesSent());
+        counter(out, "http_connections_accepted_total", "Connections accepted and handled.", this.stats.getConnectionsAccepted());
+        counter(out, "http_connections_rejected_total", "Connections shed because the connection limit was reached.", this.stats.getConnectionsRejected());
+        counter(out, "http_requests_rejected_total", "Requests shed because the worker queue was full.", this.stats.getRequestsRejected());
+
+        out.append("# HELP http_timeouts_total Connections closed because they missed a deadline.\n");
+        out.append("# TYPE http_timeouts_total counter\n");
+
+        for (Timeout timeout : Timeout.values()) {
+            out.append("http_timeouts_total{deadline=\"").append(timeout.name().toLowerCase()).append("\"} ")
+                    .append(this.stats.getTimeouts(timeout)).append('\n');
+        }
+
+        out.append("# HELP http_active_connections Connections currently open.\n");
+        out.append("# TYPE http_active_connections gauge\n");
+        out.append("http_active_connections ").append(this.stats.getActiveConnections()).append('\n');
+
+        if (this.accessLog != null) {
+            counter(out, "http_access_log_entries_total", "Requests added to the access log.", this.accessLog.getLogged());
+            counter(out, "http_access_log_dropped_total", "Requests left out of the access log because it was full.", this.accessLog.getDropped());
+        }
+
+        return out.toString();
+    }
+
+    /**
+     * counter
+     * writes a counter without labels
+     * @param out the exposition being written
+     * @param name the name of the metric
+     * @param help the description of the metric
+     * @param value the value of the counter
+     */
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * escape
+     * escapes a label value of the Prometheus text format
+     * @param value the label value
+     * @return the escaped value
+     */
+    private static String escape(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n");
+    }
+
+    /**
+     * Holds the histograms of a single route pattern and status code
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class RouteMetrics {
+        /** The encoded labels of the route pattern and status code */
+        private final String labels;
+
+        /** The time taken to parse requests */
+        private final LatencyHistogram parse;
+
+        /** The time taken by the handler */
+        private final LatencyHistogram handle;
+
+        /** The time taken to write responses */
+        private final LatencyHistogram write;
+
+        /**
+         * Constructs empty histograms for a route pattern and status code
+         * @param route the route pattern
+         * @param status the status code
+         */
+        private RouteMetrics(String route, int status) {
+            this.labels = "route=\"" + escape(route) + "\",status=\"" + status + "\"";
+            this.parse = new LatencyHistogram();
+            this.handle = new LatencyHistogram();
+            this.write = new LatencyHistogram();
+        }
+    }
+}
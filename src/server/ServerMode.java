@@ -0,0 +1,21 @@
+package server;
+
+/**
+ * Represents the different ways a {@link WebServer} can accept and process client connections
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum ServerMode {
+    /** Each client connection is handled by its own newly created thread using blocking sockets */
+    BLOCKING,
+    /**
+     * Each client connection is handled by its own virtual thread using blocking sockets.
+     * Falls back to pooled platform threads on JVMs without virtual threads
+     */
+    VIRTUAL_THREADS,
+    /**
+     * Client connections are multiplexed over a small number of selector based I/O loops,
+     * which hand parsed requests to a bounded pool of worker threads
+     */
+    NIO,
+}
@@ -0,0 +1,149 @@
+package server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the connections and requests a {@link WebServer} has admitted, shed, and timed out,
+ * so the connection and queue limits in {@link ServerConfig} can be sized from real load.
+ * Counters are updated concurrently without locking.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ServerStats {
+    /** The number of connections accepted and handled */
+    private final LongAdder connectionsAccepted;
+
+    /** The number of connections turned away because the connection limit was reached */
+    private final LongAdder connectionsRejected;
+
+    /** The number of requests turned away because the worker queue was full */
+    private final LongAdder requestsRejected;
+
+    /** The number of connections currently open */
+    private final LongAdder activeConnections;
+
+    /** The number of connections closed by each deadline, indexed by {@link Timeout} ordinal */
+    private final LongAdder[] timeouts;
+
+    /**
+     * Constructs a set of counters starting at zero
+     */
+    ServerStats() {
+        this.connectionsAccepted = new LongAdder();
+        this.connectionsRejected = new LongAdder();
+        this.requestsRejected = new LongAdder();
+        this.activeConnections = new LongAdder();
+        this.timeouts = new LongAdder[Timeout.values().length];
+
+        for (int i = 0; i < this.timeouts.length; i++) {
+            this.timeouts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * connectionOpened
+     * records a connection which was admitted
+     */
+    void connectionOpened() {
+        this.connectionsAccepted.increment();
+        this.activeConnections.increment();
+    }
+
+    /**
+     * connectionClosed
+     * records an admitted connection which was closed
+     */
+    void connectionClosed() {
+        this.activeConnections.decrement();
+    }
+
+    /**
+     * connectionRejected
+     * records a connection which was shed because the connection limit was reached
+     */
+    void connectionRejected() {
+        this.connectionsRejected.increment();
+    }
+
+    /**
+     * requestRejected
+     * records a request which was shed because the worker queue was full
+     */
+    void requestRejected() {
+        this.requestsRejected.increment();
+    }
+
+    /**
+     * timedOut
+     * records a connection which was closed because it missed a deadline
+     * @param timeout the deadline which was missed
+     */
+    void timedOut(Timeout timeout) {
+        this.timeouts[timeout.ordinal()].increment();
+    }
+
+    /**
+     * getConnectionsAccepted
+     * gets the number of connections accepted and handled
+     * @return the number of accepted connections
+     */
+    public long getConnectionsAccepted() {
+        return this.connectionsAccepted.sum();
+    }
+
+    /**
+     * getConnectionsRejected
+     * gets the number of connections shed with 503 Service Unavailable because the connection limit was reached
+     * @return the number of rejected connections
+     */
+    public long getConnectionsRejected() {
+        return this.connectionsRejected.sum();
+    }
+
+    /**
+     * getRequestsRejected
+     * gets the number of requests shed with 503 Service Unavailable because the worker queue was full
+     * @return the number of rejected requests
+     */
+    public long getRequestsRejected() {
+        return this.requestsRejected.sum();
+    }
+
+    /**
+     * getActiveConnections
+     * gets the number of connections currently open
+     * @return the number of open connections
+     */
+    public long getActiveConnections() {
+        return this.activeConnections.sum();
+    }
+
+    /**
+     * getTimeouts
+     * gets the number of connections closed because they missed a deadline
+     * @param timeout the deadline
+     * @return the number of connections closed by the deadline
+     */
+    public long getTimeouts(Timeout timeout) {
+        return this.timeouts[timeout.ordinal()].sum();
+    }
+
+    /**
+     * toString
+     * returns a string representation of this object
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return "ServerStats{" +
+                "connectionsAccepted=" + this.getConnectionsAccepted() +
+                ", connectionsRejected=" + this.getConnectionsRejected() +
+                ", requestsRejected=" + this.getRequestsRejected() +
+                ", activeConnections=" + this.getActiveConnections() +
+                ", idleTimeouts=" + this.getTimeouts(Timeout.IDLE) +
+                ", headerTimeouts=" + this.getTimeouts(Timeout.HEADER) +
+                ", bodyTimeouts=" + this.getTimeouts(Timeout.BODY) +
+                ", writeTimeouts=" + this.getTimeouts(Timeout.WRITE) +
+                "}";
+    }
+}
@@ -0,0 +1,18 @@
+package server;
+
+/**
+ * Represents the deadlines a {@link WebServer} enforces on each connection,
+ * so slow or stalled clients cannot hold a thread or socket forever.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum Timeout {
+    /** The time a persistent connection may wait for the first byte of its next request */
+    IDLE,
+    /** The time allowed to receive the status line and headers of a request, once its first byte has arrived */
+    HEADER,
+    /** The time allowed to receive the body of a request, once its headers have arrived */
+    BODY,
+    /** The time a response may wait for the client to accept more of it */
+    WRITE,
+}
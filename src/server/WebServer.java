@@ -1,30 +1,66 @@
 package server;
 
+import assets.Asset;
 import assets.AssetEngine;
 import server.handler.Handler;
 import server.handler.HandlerException;
 import server.handler.Handlers;
 import server.handler.NotFoundException;
+import server.handler.ResponseCache;
 import server.handler.routes.FileHandler;
+import server.handler.routes.MetricsRoute;
+import server.log.AccessLog;
 import server.request.Request;
+import server.request.RequestMethod;
+import server.request.RequestParseException;
+import server.request.RequestParser;
+import server.response.ContentEncoding;
+import server.response.FileResponse;
+import server.response.HeaderBlock;
 import server.response.Response;
 import server.response.ResponseCode;
+import server.response.StreamingResponse;
+import server.websocket.WebSocket;
+import server.websocket.WebSocketResponse;
 import template.TemplateEngine;
 import template.TemplateNotFoundException;
 
-import java.io.BufferedReader;
-import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.zip.Deflater;
 
 /**
  * A multithreaded web server which parses HTTP requests, dispatches route handlers, and stringifies HTTP responses to the client.
@@ -33,41 +69,113 @@ import java.util.function.Consumer;
  * @version 1.0 - May 20th 2023
  */
 public class WebServer {
+    /** The size of the buffer each blocking connection reads into */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /** The size of the buffer each connection encodes response heads into, which fits all but unusually large heads */
+    private static final int HEAD_BUFFER_SIZE = 1024;
+
+    /** The largest piece of a response written to a blocking connection under a single write deadline */
+    private static final int WRITE_SLICE_SIZE = 65536;
+
+    /** The interval in milliseconds at which blocking connections are checked for stalled writes */
+    private static final int WATCHDOG_INTERVAL = 1000;
+
+    /** The number of frames which can wait to be written to a blocking web socket before it is closed as too slow */
+    private static final int MAX_QUEUED_FRAMES = 256;
+
+    /** The connection management headers of responses after which the connection is closed */
+    private static final HeaderBlock CLOSE_HEADERS = new HeaderBlock(Map.of("Connection", "close"));
+
+    /** The connection management headers of responses after which the connection switches to the web socket protocol */
+    private static final HeaderBlock UPGRADE_HEADERS = new HeaderBlock(Map.of("Connection", "Upgrade"));
+
     /** The request handlers of the server */
     private final Handlers requestHandlers;
 
+    /** The rendered pages of cacheable handlers, or null if pages are not cached */
+    private final ResponseCache responseCache;
+
+    /** The static asset directories of the server, longest url prefix first */
+    private final List<FileHandler> mounts;
+
+    /** The engine containing the static assets of the server */
+    private final AssetEngine assets;
+
     /** The template engine of the server */
     private final TemplateEngine templateEngine;
 
-    /** Logs requests to the console */
-    private final Consumer<Request> requestLogger;
+    /** Logs served requests on a background thread, or null if requests are not logged */
+    private final AccessLog accessLog;
+
+    /** The tunable options of the server */
+    private final ServerConfig config;
+
+    /** Limits the number of connections open at once */
+    private final Semaphore connectionPermits;
+
+    /** Counts the connections and requests admitted and shed */
+    private final ServerStats stats;
+
+    /** Records the latencies and transfers of requests, exported on the built-in /metrics route */
+    private final ServerMetrics metrics;
+
+    /** The open connections of the thread per connection modes, checked for stalled writes */
+    private final Set<ConnectionHandler> connectionHandlers;
+
+    /** The response sent to clients which are shed, built once since it never changes */
+    private final Response serviceUnavailable;
+
+    /** The connection management headers of responses after which the connection stays open */
+    private final HeaderBlock keepAliveHeaders;
 
     /**
      * Constructs a web server with a templating engine and the directory of styles
      * @param templateEngine the templating engine used to compile .th files to html
      * @param assets the engine containing static assets such as styles, scripts, and images
      * @param routes a {@link LinkedHashMap} of URL patterns to handlers
-     * @param assetMap maps the assets in a directory to a URL on which to host them
+     * @param assetMap maps each directory of assets to the URL prefix on which to host it
      * @param notFoundRoute the handler to handler the request if no other matching handler can be found
-     * @param requestLogger the logging function that will be called with the request
+     * @param accessLog the log every served request is added to, or null to not log requests
      */
-    public WebServer(TemplateEngine templateEngine, AssetEngine assets, LinkedHashMap<String, Handler> routes, Map<String, String> assetMap, Handler notFoundRoute, Consumer<Request> requestLogger) {
-        this.requestHandlers = new Handlers();
+    public WebServer(TemplateEngine templateEngine, AssetEngine assets, LinkedHashMap<String, Handler> routes, Map<String, String> assetMap, Handler notFoundRoute, AccessLog accessLog) {
+        this(templateEngine, assets, routes, assetMap, notFoundRoute, accessLog, new ServerConfig());
+    }
+
+    /**
+     * Constructs a web server with a templating engine, the directory of styles, and custom options
+     * @param templateEngine the templating engine used to compile .th files to html
+     * @param assets the engine containing static assets such as styles, scripts, and images
+     * @param routes a {@link LinkedHashMap} of URL patterns to handlers
+     * @param assetMap maps each directory of assets to the URL prefix on which to host it
+     * @param notFoundRoute the handler to handler the request if no other matching handler can be found
+     * @param accessLog the log every served request is added to, or null to not log requests
+     * @param config the options of the server, such as the serving mode
+     */
+    public WebServer(TemplateEngine templateEngine, AssetEngine assets, LinkedHashMap<String, Handler> routes, Map<String, String> assetMap, Handler notFoundRoute, AccessLog accessLog, ServerConfig config) {
+        // Pages shared between clients are rendered once per expiry
+        this.responseCache = config.getResponseCacheTtl() > 0 ? new ResponseCache(config) : null;
+        this.requestHandlers = new Handlers(this.responseCache);
 
         this.templateEngine = templateEngine;
 
-        // Maps each file in each directory of assets to a corresponding route
+        // Mounts each directory of assets on its url prefix
+        this.assets = assets;
+        this.mounts = new CopyOnWriteArrayList<>();
+
         for (Map.Entry<String, String> assetPair : assetMap.entrySet()) {
-            File folder = new File(assetPair.getKey());
-            File[] files = folder.listFiles();
+            this.mount(assetPair.getValue(), assetPair.getKey());
+        }
 
-            if (files != null) {
-                for (File file : files) {
-                    this.requestHandlers.register(assetPair.getValue() + file.getName(), new FileHandler(assets, assetPair.getKey()));
-                }
-            }
+        // Templates link to the current version of each mounted asset
+        if (templateEngine != null) {
+            templateEngine.setAssetLinker(this::link);
         }
 
+        this.stats = new ServerStats();
+        this.accessLog = accessLog;
+        this.metrics = new ServerMetrics(this.stats, accessLog);
+
         // Registers all routes
         for (Map.Entry<String, Handler> route : routes.entrySet()) {
             String url = route.getKey();
@@ -76,20 +184,178 @@ public class WebServer {
             this.requestHandlers.register(url, handler);
         }
 
+        // Built-in routes are registered last, so an application route on the same url takes precedence
+        this.requestHandlers.register("/metrics", new MetricsRoute(this.metrics));
+
         if (notFoundRoute != null) {
             this.requestHandlers.registerNotFoundHandler(notFoundRoute);
         }
 
-        this.requestLogger = requestLogger;
+        this.config = config;
+        this.connectionPermits = new Semaphore(config.getMaxConnections());
+
+        // Encoded once since the timeout does not change
+        Map<String, String> keepAliveHeaders = new LinkedHashMap<>();
+        keepAliveHeaders.put("Connection", "keep-alive");
+        keepAliveHeaders.put("Keep-Alive", "timeout=" + (config.getKeepAliveTimeout() / 1000));
+
+        this.keepAliveHeaders = new HeaderBlock(keepAliveHeaders);
+
+        this.connectionHandlers = ConcurrentHashMap.newKeySet();
+
+        Map<String, String> retryAfterHeaders = new HashMap<>();
+        retryAfterHeaders.put("Retry-After", Integer.toString(config.getRetryAfter()));
+
+        this.serviceUnavailable = this.prepare(new Response(
+                new Response.StatusLine(ResponseCode.SERVICE_UNAVAILABLE),
+                new HeaderBlock(retryAfterHeaders),
+                ""
+        ), false);
+    }
+
+    /**
+     * mount
+     * Hosts every asset in a directory of the asset engine under a url prefix.
+     * Requests under the prefix which name an asset are served before any route is dispatched,
+     * while other requests fall through to the routes
+     * @param prefix the url prefix, ending with a slash
+     * @param directory the directory of the assets as registered in the asset engine, ending with a slash
+     * @throws NullPointerException if the prefix or directory is null
+     */
+    public void mount(String prefix, String directory) {
+        if ((prefix == null) || (directory == null)) {
+            throw new NullPointerException("prefix and directory cannot be null");
+        }
+
+        FileHandler mount = new FileHandler(this.assets, directory, prefix);
+
+        // More specific prefixes are checked first
+        int index = 0;
+
+        while ((index < this.mounts.size()) && (this.mounts.get(index).getPrefix().length() >= prefix.length())) {
+            index++;
+        }
+
+        this.mounts.add(index, mount);
+    }
+
+    /**
+     * link
+     * gets the fingerprinted url of a mounted asset, which names its current version and can be cached forever
+     * @param url the plain url of the asset
+     * @return the fingerprinted url, or the url itself if it does not name a mounted asset
+     */
+    public String link(String url) {
+        for (FileHandler mount : this.mounts) {
+            String link = mount.link(url);
+
+            if (link != null) {
+                return link;
+            }
+        }
+
+        return url;
+    }
+
+    /**
+     * getResponseCache
+     * gets the cache of rendered pages, which should be invalidated when the data pages are rendered from changes
+     * @return the response cache, or null if pages are not cached
+     */
+    public ResponseCache getResponseCache() {
+        return this.responseCache;
+    }
+
+    /**
+     * getStats
+     * gets the counters of the connections and requests admitted and shed by the server
+     * @return the server counters
+     */
+    public ServerStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * getMetrics
+     * gets the latency histograms and transfer counters of the server, which are also served on {@code /metrics}
+     * @return the server metrics
+     */
+    public ServerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * completed
+     * records a request whose response has been written in the metrics and the access log,
+     * and lets go of the file a file response was transferred from
+     * @param req the request, whose route pattern has been set if it matched a route
+     * @param res the response to the request
+     * @param parseNanos the time from the first byte of the request arriving to the request being parsed
+     * @param handleNanos the time taken to produce the response, which does not include streaming its body
+     * @param writeNanos the time from the response being produced to it being fully written
+     * @param bytes the number of bytes of the response written to the client
+     */
+    void completed(Request req, Response res, long parseNanos, long handleNanos, long writeNanos, long bytes) {
+        // The file of a replaced asset can be closed once nothing is transferring from it
+        if (res instanceof FileResponse) {
+            ((FileResponse) res).release();
+        }
+
+        this.metrics.record(req, res, parseNanos, handleNanos, writeNanos);
+
+        if (this.accessLog != null) {
+            this.accessLog.log(req, res.getStatusLine().getCode().getCode(), bytes, parseNanos, handleNanos, writeNanos);
+        }
     }
 
     /**
      * serve
-     * Serves the server at the specified port
+     * Serves the server at the specified port using the configured {@link ServerMode}
      * @param port the port to serve on
      * @param onOpen a consumer that receives the port as its argument
      */
     public void serve(int port, Consumer<Integer> onOpen) {
+        switch (this.config.getMode()) {
+            case NIO:
+                this.serveNonBlocking(port, onOpen);
+                break;
+            case VIRTUAL_THREADS:
+                this.serveBlocking(port, onOpen, newVirtualThreadExecutor());
+                break;
+            default:
+                this.serveBlocking(port, onOpen, command -> new Thread(command).start());
+                break;
+        }
+    }
+
+    /**
+     * serve
+     * Serves the server at the specified port
+     * @param port the port to serve on
+     */
+    public void serve(int port) {
+        this.serve(port, null);
+    }
+
+    /**
+     * serveBlocking
+     * Serves the server at the specified port, handling each connection on its own thread.
+     * At most {@link ServerConfig#getMaxConnections()} connections are handled at once;
+     * further clients are sent 503 Service Unavailable rather than being given a thread.
+     * @param port the port to serve on
+     * @param onOpen a consumer that receives the port as its argument
+     * @param executor runs each {@link ConnectionHandler} on its own thread
+     */
+    private void serveBlocking(int port, Consumer<Integer> onOpen, Executor executor) {
+        // Blocking writes have no timeout of their own, so stalled ones are closed from another thread
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(command -> {
+            Thread thread = new Thread(command, "write-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        watchdog.scheduleAtFixedRate(this::closeStalledWrites, WATCHDOG_INTERVAL, WATCHDOG_INTERVAL, TimeUnit.MILLISECONDS);
+
         // Open the server socket
         try (ServerSocket socket = new ServerSocket(port)) {
             // Server loop
@@ -103,24 +369,421 @@ public class WebServer {
                 while (true) {
                     Socket client = socket.accept();
 
-                    Thread t = new Thread(new ConnectionHandler(client));
-                    t.start();
+                    // Shed the connection if too many are already open
+                    if (!this.connectionPermits.tryAcquire()) {
+                        this.shed(client);
+                        continue;
+                    }
+
+                    this.stats.connectionOpened();
+
+                    try {
+                        executor.execute(new ConnectionHandler(client, executor));
+                    } catch (IOException e) {
+                        this.connectionClosed();
+                        e.printStackTrace();
+                    }
                 }
             } catch (IOException e) {
                 System.out.println("Error when waiting for connection");
             }
         } catch (IOException e) {
             System.out.println("Error opening server socket");
+        } finally {
+            watchdog.shutdown();
         }
     }
 
     /**
-     * serve
-     * Serves the server at the specified port
+     * closeStalledWrites
+     * Closes the blocking connections whose current write has missed its deadline
+     */
+    private void closeStalledWrites() {
+        long now = System.currentTimeMillis();
+
+        for (ConnectionHandler handler : this.connectionHandlers) {
+            long deadline = handler.writeDeadline;
+
+            if ((deadline != 0) && (now > deadline)) {
+                handler.abort(Timeout.WRITE);
+            }
+        }
+    }
+
+    /**
+     * newVirtualThreadExecutor
+     * Creates an executor which starts a new virtual thread for each task.
+     * The executor is looked up reflectively so the server still runs on JVMs without virtual threads,
+     * in which case a cached pool of platform threads is used instead.
+     * @return the executor to run connection handlers on
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads are not supported by this JVM, using platform threads instead");
+
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * serveNonBlocking
+     * Serves the server at the specified port, multiplexing connections over a fixed number of
+     * {@link EventLoop event loops} and dispatching handlers on a bounded pool of worker threads
      * @param port the port to serve on
+     * @param onOpen a consumer that receives the port as its argument
      */
-    public void serve(int port) {
-        this.serve(port, null);
+    private void serveNonBlocking(int port, Consumer<Integer> onOpen) {
+        // Bounded pool of worker threads
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(
+                this.config.getWorkerThreads(),
+                this.config.getWorkerThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.config.getWorkerQueueCapacity())
+        );
+
+        EventLoop[] loops = new EventLoop[this.config.getIoThreads()];
+
+        // Open the server socket
+        try (ServerSocketChannel socket = ServerSocketChannel.open()) {
+            socket.bind(new InetSocketAddress(port));
+
+            // Start the I/O loops
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new EventLoop(this, workers, this.config);
+
+                Thread t = new Thread(loops[i], "event-loop-" + i);
+                t.start();
+            }
+
+            // Server loop
+            // Accept client connections and distribute them between the loops
+            try {
+                // Output message when server is up
+                if (onOpen != null) {
+                    onOpen.accept(port);
+                }
+
+                int nextLoop = 0;
+
+                while (true) {
+                    SocketChannel client = socket.accept();
+
+                    // Shed the connection if too many are already open
+                    if (!this.connectionPermits.tryAcquire()) {
+                        this.shed(client.socket());
+                        continue;
+                    }
+
+                    this.stats.connectionOpened();
+
+                    loops[nextLoop].register(client);
+                    nextLoop = (nextLoop + 1) % loops.length;
+                }
+            } catch (IOException e) {
+                System.out.println("Error when waiting for connection");
+            }
+        } catch (IOException e) {
+            System.out.println("Error opening server socket");
+        } finally {
+            for (EventLoop loop : loops) {
+                if (loop != null) {
+                    loop.shutdown();
+                }
+            }
+
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * shed
+     * Turns a newly accepted connection away with 503 Service Unavailable, without reading its request
+     * @param client the socket of the client, which must be in blocking mode
+     */
+    private void shed(Socket client) {
+        this.stats.connectionRejected();
+
+        try (client) {
+            OutputStream output = client.getOutputStream();
+
+            for (ByteBuffer buffer : this.serviceUnavailable.getBuffers()) {
+                output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            }
+
+            client.shutdownOutput();
+
+            // Discard what the client has sent so far, so closing does not reset the connection before the response is read
+            InputStream input = client.getInputStream();
+            input.skip(input.available());
+        } catch (IOException e) {
+            // Client has already gone away
+        }
+    }
+
+    /**
+     * connectionClosed
+     * Frees the place of a closed connection so another client can be admitted
+     */
+    void connectionClosed() {
+        this.stats.connectionClosed();
+        this.connectionPermits.release();
+    }
+
+    /**
+     * serviceUnavailable
+     * Gets the response sent to clients while the server is shedding load.
+     * The response is shared, so it must not be modified
+     * @return the 503 Service Unavailable response
+     */
+    Response serviceUnavailable() {
+        return this.serviceUnavailable;
+    }
+
+    /**
+     * readPhase
+     * Determines which deadline applies to a connection while it waits for more of a request
+     * @param parser the parser of the requests sent over the connection
+     * @return the deadline of the part of the request being received
+     */
+    static Timeout readPhase(RequestParser parser) {
+        if (parser.isIdle()) {
+            return Timeout.IDLE;
+        }
+
+        return parser.isReadingBody() ? Timeout.BODY : Timeout.HEADER;
+    }
+
+    /**
+     * serveStatic
+     * Serves a GET or HEAD request for a mounted static asset without dispatching any route.
+     * Assets are precompressed, so the response is not compressed again
+     * @param req the parsed request
+     * @return the response holding the asset, or null if the request is not for a mounted asset
+     */
+    private Response serveStatic(Request req) {
+        RequestMethod method = req.getStatusLine().getMethod();
+
+        if ((method != RequestMethod.GET) && (method != RequestMethod.HEAD)) {
+            return null;
+        }
+
+        String location = req.getStatusLine().getLocation();
+
+        for (FileHandler mount : this.mounts) {
+            Asset asset = mount.find(location);
+
+            if (asset != null) {
+                req.getStatusLine().setRoute(mount.getPrefix() + "*");
+                return mount.serve(req, asset);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * respond
+     * Produces the response to send back for a parsed request, serving static assets directly
+     * and dispatching the correct handler for everything else
+     * @param req the parsed request
+     * @return the response to send, or null if no response can be produced
+     */
+    Response respond(Request req) {
+        RequestEvent event = new RequestEvent();
+
+        // Static assets skip error pages
+        Response res = this.serveStatic(req);
+
+        if (res == null) {
+            res = this.dispatch(req);
+        }
+
+        // HEAD responses carry the headers of the GET response without its body
+        if ((res != null) && (req.getStatusLine().getMethod() == RequestMethod.HEAD)) {
+            res.omitBody();
+        }
+
+        event.complete(req, res);
+
+        return res;
+    }
+
+    /**
+     * dispatch
+     * Dispatches the correct handler for a parsed request, and produces the response to send back.
+     * Falls back to the server error page if the handler fails.
+     * @param req the parsed request
+     * @return the response to send, or null if no response can be produced
+     */
+    private Response dispatch(Request req) {
+        // Dispatch the correct handler
+        try {
+            Response res = this.requestHandlers.dispatch(req);
+
+            // Clients before HTTP/1.1 cannot decode chunked bodies, so the body is ended by closing the connection
+            if ((res instanceof StreamingResponse) && !"HTTP/1.1".equals(req.getStatusLine().getProtocol())) {
+                ((StreamingResponse) res).setChunked(false);
+            }
+
+            return this.compress(req, res);
+        } catch (HandlerException | NotFoundException e) {
+            // No 404 handler
+            e.printStackTrace();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            // Handler cannot load template
+
+            System.out.println("Error loading template");
+
+            // Load server error page
+            try {
+                return new Response(
+                        new Response.StatusLine(ResponseCode.INTERNAL_SERVER_ERROR),
+                        Handler.HTML_HEADERS,
+                        this.templateEngine.getTemplate("frontend/templates/error.th")
+                );
+            } catch (TemplateNotFoundException ex) {
+                ex.printStackTrace();
+                System.out.println("Cannot render 500 page");
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * compress
+     * Compresses a text response produced by a handler with the coding the client prefers.
+     * Responses which are already encoded, are not text, or are too small to benefit are left as is
+     * @param req the request being responded to
+     * @param res the response produced by the handler
+     * @return the response to send
+     */
+    private Response compress(Request req, Response res) {
+        // Assets are compressed once when they are loaded, and their files are sent as they are
+        if ((res == null) || !this.config.isCompression() || (res.getHeader("Content-Encoding") != null) || (res instanceof FileResponse)) {
+            return res;
+        }
+
+        String contentType = res.getHeader("Content-Type");
+
+        if ((contentType == null) || !isCompressible(contentType)) {
+            return res;
+        }
+
+        ContentEncoding encoding = ContentEncoding.negotiate(req.getHeader("Accept-Encoding"));
+
+        if (encoding == ContentEncoding.IDENTITY) {
+            return res;
+        }
+
+        // Streamed bodies are compressed as they are written
+        if (res instanceof StreamingResponse) {
+            ((StreamingResponse) res).setContentEncoding(encoding, Deflater.DEFAULT_COMPRESSION);
+            return res;
+        }
+
+        if (res.getBodyLength() < this.config.getCompressionThreshold()) {
+            return res;
+        }
+
+        Response compressed = res.encode(encoding, Deflater.DEFAULT_COMPRESSION);
+
+        return compressed.getBodyLength() < res.getBodyLength() ? compressed : res;
+    }
+
+    /**
+     * isCompressible
+     * Determines whether a content type is a text format which compresses well
+     * @param contentType the value of the Content-Type header
+     * @return whether the content is worth compressing
+     */
+    private static boolean isCompressible(String contentType) {
+        // Events must reach the client as soon as they are written, rather than when the compressor fills a block
+        if (contentType.startsWith("text/event-stream")) {
+            return false;
+        }
+
+        return contentType.startsWith("text/")
+                || contentType.contains("json")
+                || contentType.contains("javascript")
+                || contentType.contains("xml");
+    }
+
+    /**
+     * errorResponse
+     * Creates an empty response with an error code, used when a request cannot be handled at all
+     * @param code the response code
+     * @return the error response
+     */
+    Response errorResponse(ResponseCode code) {
+        return new Response(
+                new Response.StatusLine(code),
+                HeaderBlock.EMPTY,
+                ""
+        );
+    }
+
+    /**
+     * keepAlive
+     * Determines whether a connection should stay open after responding to a request.
+     * HTTP/1.1 connections are persistent unless the client sends {@code Connection: close},
+     * while older clients must explicitly ask for {@code Connection: keep-alive}
+     * @param req the request being responded to
+     * @param res the response to the request
+     * @param requestsServed the number of requests served on the connection, including this one
+     * @return whether the connection should stay open
+     */
+    boolean keepAlive(Request req, Response res, int requestsServed) {
+        if (requestsServed >= this.config.getMaxKeepAliveRequests()) {
+            return false;
+        }
+
+        // The end of a streamed body which is not chunked is marked by closing the connection
+        if ((res instanceof StreamingResponse) && !((StreamingResponse) res).isChunked()) {
+            return false;
+        }
+
+        // Requests whose body could have been framed differently upstream must not be followed by another
+        if (req.isCloseRequired()) {
+            return false;
+        }
+
+        String connection = req.getHeader("Connection");
+
+        if (connection != null) {
+            if (connection.equalsIgnoreCase("close")) {
+                return false;
+            }
+
+            if (connection.equalsIgnoreCase("keep-alive")) {
+                return true;
+            }
+        }
+
+        return "HTTP/1.1".equals(req.getStatusLine().getProtocol());
+    }
+
+    /**
+     * prepare
+     * Adds the connection management headers to a response before it is sent
+     * @param res the response to send
+     * @param keepAlive whether the connection will stay open after the response
+     * @return the response
+     */
+    Response prepare(Response res, boolean keepAlive) {
+        if (res instanceof WebSocketResponse) {
+            res.setConnectionHeaders(UPGRADE_HEADERS);
+        } else {
+            res.setConnectionHeaders(keepAlive ? this.keepAliveHeaders : CLOSE_HEADERS);
+        }
+
+        return res;
     }
 
     /**
@@ -135,21 +798,59 @@ public class WebServer {
         /** The output stream of the socket */
         private final OutputStream output;
 
-        /** The input stream of the socket wrapped by a {@link BufferedReader} */
-        private final BufferedReader input;
+        /** The input stream of the socket */
+        private final InputStream input;
+
+        /** Holds bytes read from the input stream which have not been parsed yet */
+        private final ByteBuffer readBuffer;
+
+        /** Holds the encoded head of the response being written, reused for every response */
+        private final ByteBuffer headBuffer;
+
+        /** Parses the bytes read from the client into requests */
+        private final RequestParser parser;
+
+        /** Runs the thread writing the frames of the connection once it is upgraded to a web socket */
+        private final Executor executor;
+
+        /** The deadline which applies to the part of the request being received */
+        private Timeout phase;
+
+        /** The time in milliseconds at which the current part of the request started to be received */
+        private long phaseStart;
+
+        /** The time in milliseconds by which the current write must complete, or 0 if nothing is being written */
+        private volatile long writeDeadline;
+
+        /** The time in nanoseconds from the first byte of the last request arriving to it being parsed */
+        private long parseNanos;
+
+        /** The number of bytes written to the client */
+        private long bytesWritten;
 
         /**
          * Constructs a connection handler with a client socket to read to and write from
          * @param clientSocket the socket to communicate with
+         * @param executor runs the thread writing web socket frames, if the connection is upgraded
          * @throws IOException if an exception occurs while working with the input or output streams of the client
          * */
-        public ConnectionHandler(Socket clientSocket) throws IOException {
+        public ConnectionHandler(Socket clientSocket, Executor executor) throws IOException {
             this.client = clientSocket;
+            this.executor = executor;
 
             // Socket streams
-            this.output = client.getOutputStream();
-            InputStreamReader inStream = new InputStreamReader(client.getInputStream());
-            this.input = new BufferedReader(inStream);
+            this.output = new DeadlineOutputStream(client.getOutputStream());
+            this.input = client.getInputStream();
+
+            // Start with an empty buffer ready to be parsed
+            this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            this.readBuffer.limit(0);
+
+            this.headBuffer = ByteBuffer.allocate(HEAD_BUFFER_SIZE);
+
+            this.parser = new RequestParser(config.getMaxHeaderSize(), config.getMaxBodySize());
+
+            connectionHandlers.add(this);
         }
 
         /**
@@ -157,6 +858,13 @@ public class WebServer {
          * properly closes the socket and its input and output streams
          */
         public void close() {
+            connectionHandlers.remove(this);
+
+            // Already closed by a missed deadline
+            if (this.client.isClosed()) {
+                return;
+            }
+
             try {
                 this.client.shutdownInput();
                 this.client.shutdownOutput();
@@ -169,99 +877,506 @@ public class WebServer {
             }
         }
 
+        /**
+         * abort
+         * closes the socket from another thread because the connection missed a deadline,
+         * which makes any read or write blocked on it fail
+         * @param timeout the deadline which was missed
+         */
+        private void abort(Timeout timeout) {
+            stats.timedOut(timeout);
+
+            try {
+                this.client.close();
+            } catch (IOException e) {
+                System.out.println("Failed to close socket");
+            }
+        }
+
         /**
          * handleRequest
          * Handles parsing of the request, dispatch of the request handler, and response creating and sending
+         * @param requestsServed the number of requests already served on this connection
+         * @return whether the connection should be kept open for another request
          */
-        public void handleRequest() {
-            // End execution if input stream is not read
+        public boolean handleRequest(int requestsServed) {
+            Request req;
+
             try {
-                if (!this.input.ready()) {
-                    return;
+                req = this.readRequest();
+            } catch (SocketTimeoutException e) {
+                // Client took too long to send the request
+                stats.timedOut(this.phase);
+
+                // Idle persistent connections are closed silently
+                if (this.phase != Timeout.IDLE) {
+                    this.write(prepare(errorResponse(ResponseCode.REQUEST_TIMEOUT), false));
                 }
+
+                return false;
+            } catch (RequestParseException e) {
+                // Malformed or oversized request
+                this.write(prepare(errorResponse(e.getCode()), false));
+                return false;
             } catch (IOException e) {
                 e.printStackTrace();
-                return;
+                return false;
             }
 
-            List<String> rawRequest = new ArrayList<>();
+            // Client closed the connection
+            if (req == null) {
+                return false;
+            }
 
-            // Read HTTP request into a list of strings
-            try {
-                String inputLine = this.input.readLine();
+            long handleStart = System.nanoTime();
+            Response res = respond(req);
+            long handleEnd = System.nanoTime();
+
+            long bytesBefore = this.bytesWritten;
 
-                while ((inputLine != null) && (inputLine.length() != 0)) {
-                    rawRequest.add(inputLine);
+            if (res == null) {
+                return false;
+            }
+
+            // The connection no longer carries requests once it is upgraded
+            if (res instanceof WebSocketResponse) {
+                boolean written = this.write(prepare(res, false));
 
-                    inputLine = this.input.readLine();
+                completed(req, res, this.parseNanos, handleEnd - handleStart, System.nanoTime() - handleEnd, this.bytesWritten - bytesBefore);
+
+                if (written) {
+                    this.serveWebSocket((WebSocketResponse) res);
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
-                return;
+
+                return false;
             }
 
-            // Read request body
-            StringBuilder payload = new StringBuilder();
+            boolean keepAlive = keepAlive(req, res, requestsServed + 1);
+            boolean written = this.write(prepare(res, keepAlive));
+
+            completed(req, res, this.parseNanos, handleEnd - handleStart, System.nanoTime() - handleEnd, this.bytesWritten - bytesBefore);
+
+            return written && keepAlive;
+        }
+
+        /**
+         * serveWebSocket
+         * reads and handles the frames sent over an upgraded connection until the socket is closed.
+         * Frames sent from other threads are queued for a {@link FrameWriter} running on its own thread,
+         * so senders never wait on a slow client. The read timeout is the ping interval,
+         * so an idle client is pinged and then dropped if it stays silent
+         * @param res the response which upgraded the connection
+         */
+        private void serveWebSocket(WebSocketResponse res) {
+            FrameWriter writer = new FrameWriter();
+            int pingInterval = config.getWebSocketPingInterval();
+
+            WebSocket socket = res.open(config.getMaxBodySize(), writer);
+            this.executor.execute(writer);
 
             try {
-                while (this.input.ready()) {
-                    payload.append((char) this.input.read());
+                this.client.setSoTimeout(pingInterval);
+
+                // Handle any frames sent along with the handshake
+                boolean open = socket.opened() && socket.receive(this.readBuffer);
+
+                while (open) {
+                    this.readBuffer.compact();
+
+                    int read;
+
+                    try {
+                        read = this.input.read(this.readBuffer.array(), this.readBuffer.position(), this.readBuffer.remaining());
+                    } catch (SocketTimeoutException e) {
+                        this.readBuffer.flip();
+                        open = socket.keepAlive(System.currentTimeMillis(), pingInterval);
+
+                        if (!open) {
+                            stats.timedOut(Timeout.IDLE);
+                        }
+
+                        continue;
+                    }
+
+                    if (read == -1) {
+                        break;
+                    }
+
+                    metrics.bytesReceived(read);
+
+                    this.readBuffer.position(this.readBuffer.position() + read);
+                    this.readBuffer.flip();
+
+                    open = socket.receive(this.readBuffer);
                 }
             } catch (IOException e) {
-                e.printStackTrace();
-                return;
+                // Sockets closed by a missed write deadline have already been accounted for
+                if (!this.client.isClosed()) {
+                    System.out.println("Error reading from web socket");
+                }
+            } finally {
+                // Let the queued frames, such as a close frame, be written before the connection is closed
+                writer.finish();
+                socket.closed();
             }
+        }
+
+        /**
+         * readRequest
+         * reads bytes from the client until a full request has been parsed.
+         * Each part of the request must arrive before its deadline
+         * @return the parsed request or null if the client closed the connection
+         * @throws SocketTimeoutException if the part of the request being received misses its deadline
+         * @throws IOException if an error occurs while reading from the socket
+         * @throws RequestParseException if the client sends a malformed or oversized request
+         */
+        private Request readRequest() throws IOException, RequestParseException {
+            this.phase = null;
+
+            // A pipelined request has already started to arrive
+            long parseStart = this.readBuffer.hasRemaining() ? System.nanoTime() : 0;
+
+            // Parse any bytes left over from the previous request first
+            Request req = this.parser.parse(this.readBuffer);
+
+            while (req == null) {
+                // Restart the deadline whenever the request moves on to its next part
+                Timeout current = readPhase(this.parser);
+                long now = System.currentTimeMillis();
+
+                if (current != this.phase) {
+                    this.phase = current;
+                    this.phaseStart = now;
+                }
+
+                long remaining = this.phaseStart + config.getTimeout(this.phase) - now;
+
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException(this.phase + " timeout expired");
+                }
 
-            // Append request body to the request list
-            rawRequest.add(payload.toString());
+                this.client.setSoTimeout((int) remaining);
 
-            // Parse request into Request object
-            Request req = Request.parse(rawRequest);
+                // Read more bytes from the client
+                this.readBuffer.compact();
 
-            synchronized (requestLogger) {
-                requestLogger.accept(req);
+                int read = this.input.read(this.readBuffer.array(), this.readBuffer.position(), this.readBuffer.remaining());
+
+                if (read == -1) {
+                    return null;
+                }
+
+                if (parseStart == 0) {
+                    parseStart = System.nanoTime();
+                }
+
+                metrics.bytesReceived(read);
+
+                this.readBuffer.position(this.readBuffer.position() + read);
+                this.readBuffer.flip();
+
+                req = this.parser.parse(this.readBuffer);
             }
 
-            // Dispatch the correct handler
-            try {
-                Response res = requestHandlers.dispatch(req);
-                this.output.write(res.toBytes());
-            } catch (HandlerException | NotFoundException e) {
-                // No 404 handler
-                e.printStackTrace();
-            } catch (RuntimeException e) {
-                e.printStackTrace();
-                // Handler cannot load template
+            this.parseNanos = System.nanoTime() - parseStart;
 
-                System.out.println("Error loading template");
+            return req;
+        }
 
-                // Load server error page
-                try {
-                    Response serverError = new Response(
-                            new Response.StatusLine(ResponseCode.INTERNAL_SERVER_ERROR),
-                            new HashMap<>(),
-                            templateEngine.getTemplate("frontend/templates/error.th")
-                    );
-
-                    this.output.write(serverError.toBytes());
-                } catch (IOException | TemplateNotFoundException ex) {
-                    ex.printStackTrace();
-                    System.out.println("Cannot render 500 page");
+        /**
+         * write
+         * writes a response to the client
+         * @param res the response to write
+         * @return whether the response was written successfully
+         */
+        private boolean write(Response res) {
+            try {
+                // Head and body are written separately rather than concatenated
+                if (res instanceof StreamingResponse) {
+                    // Send the head before the body is produced
+                    this.writeBuffer(res.getHead(this.headBuffer));
+                    this.output.flush();
+                    ((StreamingResponse) res).writeBody(this.output);
+                } else {
+                    for (ByteBuffer buffer : res.getBuffers(this.headBuffer)) {
+                        this.writeBuffer(buffer);
+                    }
                 }
+
+                this.output.flush();
             } catch (IOException e) {
+                // Sockets closed by a missed write deadline have already been accounted for
+                if (!this.client.isClosed()) {
+                    e.printStackTrace();
+                    System.out.println("Error writing response to client");
+                }
+
+                return false;
+            } catch (RuntimeException e) {
+                // Body writer failed after the head was sent, so the response can only be cut short
                 e.printStackTrace();
-                System.out.println("Error writing response to client");
+                System.out.println("Error streaming response to client");
+                return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * writeBuffer
+         * writes the remaining bytes of a buffer to the client
+         * @param buffer the buffer to write
+         * @throws IOException if an error occurs while writing to the socket, or the file a buffer is mapped from was truncated
+         */
+        private void writeBuffer(ByteBuffer buffer) throws IOException {
+            if (buffer.hasArray()) {
+                this.output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                return;
+            }
+
+            try {
+                Channels.newChannel(this.output).write(buffer);
+            } catch (InternalError e) {
+                // Reading past the end of a truncated mapped file faults, which only cuts this response short
+                throw new IOException("mapped file was truncated while being sent", e);
             }
         }
 
         /**
          * run
-         * starts execution of the thread separately from the main thread
+         * starts execution of the thread separately from the main thread.
+         * Keeps serving requests on the connection until either side asks to close it,
+         * the connection is idle for too long, or the per connection request limit is reached
          */
         @Override
         public void run() {
-            this.handleRequest();
-            this.close();
+            try {
+                int requestsServed = 0;
+
+                while (this.handleRequest(requestsServed)) {
+                    requestsServed++;
+                }
+
+                this.close();
+            } finally {
+                connectionClosed();
+            }
+        }
+
+        /**
+         * Writes the frames of a web socket served on a blocking connection, on a thread of its own.
+         * Frames sent from any thread are only added to a bounded queue, so a client which reads slowly
+         * never holds up the sender, such as the code runner pushing submission progress.
+         * A client which falls so far behind that the queue fills up is closed as if its write had timed out
+         * @author Harry Xu
+         * @version 1.0 - October 18th 2026
+         */
+        private class FrameWriter implements WebSocket.Output, Runnable {
+            /** The frames waiting to be written */
+            private final Deque<ByteBuffer> frames;
+
+            /**
+             * Guards the queue, and is never held while writing to the socket.
+             * A lock is used rather than a monitor so that virtual threads never pin their carrier thread
+             */
+            private final Lock queueLock;
+
+            /** Signalled when a frame is queued or the writer is finished */
+            private final Condition queued;
+
+            /** Signalled once the writer has stopped */
+            private final CountDownLatch stopped;
+
+            /** Whether no more frames are accepted, so the writer stops once the queue is empty */
+            private boolean finished;
+
+            /**
+             * Constructs a writer with an empty queue
+             */
+            private FrameWriter() {
+                this.frames = new ArrayDeque<>();
+                this.queueLock = new ReentrantLock();
+                this.queued = this.queueLock.newCondition();
+                this.stopped = new CountDownLatch(1);
+            }
+
+            /**
+             * write
+             * queues a whole frame to be written, without waiting for it to be written
+             * @param frame the encoded frame, ready to be read
+             * @throws IOException if the connection is closed, or has too many frames waiting and is closed
+             */
+            @Override
+            public void write(ByteBuffer frame) throws IOException {
+                this.queueLock.lock();
+
+                try {
+                    if (this.finished) {
+                        throw new IOException("connection closed");
+                    }
+
+                    if (this.frames.size() < MAX_QUEUED_FRAMES) {
+                        this.frames.add(frame);
+                        this.queued.signal();
+                        return;
+                    }
+
+                    this.finished = true;
+                    this.frames.clear();
+                    this.queued.signal();
+                } finally {
+                    this.queueLock.unlock();
+                }
+
+                // Closing the socket also stops the connection thread reading from it
+                abort(Timeout.WRITE);
+
+                throw new IOException("client is not reading frames");
+            }
+
+            /**
+             * run
+             * writes queued frames until the writer is finished and the queue is empty, or writing fails.
+             * Each write is covered by the write deadline, and the stream is flushed whenever the queue runs empty
+             */
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        ByteBuffer frame;
+                        boolean last;
+
+                        this.queueLock.lock();
+
+                        try {
+                            while (this.frames.isEmpty() && !this.finished) {
+                                this.queued.awaitUninterruptibly();
+                            }
+
+                            frame = this.frames.poll();
+                            last = this.frames.isEmpty();
+                        } finally {
+                            this.queueLock.unlock();
+                        }
+
+                        if (frame == null) {
+                            return;
+                        }
+
+                        writeBuffer(frame);
+
+                        if (last) {
+                            output.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    this.queueLock.lock();
+
+                    try {
+                        this.finished = true;
+                        this.frames.clear();
+                    } finally {
+                        this.queueLock.unlock();
+                    }
+
+                    // Sockets closed by a missed write deadline have already been accounted for
+                    if (!client.isClosed()) {
+                        System.out.println("Error writing to web socket");
+
+                        try {
+                            client.close();
+                        } catch (IOException closeError) {
+                            System.out.println("Failed to close socket");
+                        }
+                    }
+                } finally {
+                    this.stopped.countDown();
+                }
+            }
+
+            /**
+             * finish
+             * stops accepting frames and waits for the queued frames to be written
+             */
+            private void finish() {
+                this.queueLock.lock();
+
+                try {
+                    this.finished = true;
+                    this.queued.signal();
+                } finally {
+                    this.queueLock.unlock();
+                }
+
+                // Bounded by the write deadline, after which the watchdog closes the socket
+                try {
+                    this.stopped.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * An output stream which sets the write deadline of the connection around each write to the socket.
+         * Large writes are split into slices so the deadline only expires when the client stops accepting data
+         * @author Harry Xu
+         * @version 1.0 - October 18th 2026
+         */
+        private class DeadlineOutputStream extends FilterOutputStream {
+            /**
+             * Constructs a stream which writes to the socket under deadlines
+             * @param out the output stream of the socket
+             */
+            private DeadlineOutputStream(OutputStream out) {
+                super(out);
+            }
+
+            /**
+             * write
+             * writes a single byte to the socket
+             * @param b the byte to write
+             * @throws IOException if an error occurs while writing to the socket
+             */
+            @Override
+            public void write(int b) throws IOException {
+                writeDeadline = System.currentTimeMillis() + config.getWriteTimeout();
+
+                try {
+                    this.out.write(b);
+                    metrics.bytesSent(1);
+                    bytesWritten++;
+                } finally {
+                    writeDeadline = 0;
+                }
+            }
+
+            /**
+             * write
+             * writes a range of bytes to the socket, one slice at a time
+             * @param b the array holding the bytes
+             * @param off the index of the first byte to write
+             * @param len the number of bytes to write
+             * @throws IOException if an error occurs while writing to the socket
+             */
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    while (len > 0) {
+                        int slice = Math.min(len, WRITE_SLICE_SIZE);
+
+                        writeDeadline = System.currentTimeMillis() + config.getWriteTimeout();
+                        this.out.write(b, off, slice);
+                        metrics.bytesSent(slice);
+                        bytesWritten += slice;
+
+                        off += slice;
+                        len -= slice;
+                    }
+                } finally {
+                    writeDeadline = 0;
+                }
+            }
         }
     }
 }
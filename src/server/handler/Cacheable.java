@@ -0,0 +1,20 @@
+package server.handler;
+
+import server.request.Request;
+
+/**
+ * represents a handler whose pages can be shared between requests, so they are rendered once and served from a {@link ResponseCache}.
+ * A page is identified by its url and a variant, such as whether the visitor is logged in,
+ * so only requests which would render identical pages share a response
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public interface Cacheable {
+    /**
+     * getCacheVariant
+     * gets the variant of the page a request is for
+     * @param req the HTTP request
+     * @return the variant, such as {@code "anonymous"}, or null if the response to the request must not be shared
+     */
+    String getCacheVariant(Request req);
+}
@@ -1,13 +1,23 @@
 package server.handler;
 
 import server.request.Request;
+import server.request.RequestMethod;
+import server.response.HeaderBlock;
 import server.response.Response;
+import server.response.ETag;
+import server.response.ResponseCode;
+import template.TemplateEngine;
 import server.handler.methods.Delete;
 import server.handler.methods.Get;
 import server.handler.methods.Post;
 import server.handler.methods.Put;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,47 +27,143 @@ import java.util.Map;
  * @version 1.0 - May 20th 2023
  */
 public abstract class Handler {
+    /** Pre-encoded generic headers for an HTTP response with HTML, shared by all HTML responses */
+    public static final HeaderBlock HTML_HEADERS = new HeaderBlock(htmlHeaders());
+
+    /** The implementation of each request method, indexed by {@link RequestMethod} ordinal, or null if the method is not allowed */
+    private final MethodHandler[] methods;
+
+    /** The pre-encoded Allow header listing the methods this handler accepts */
+    private final HeaderBlock allowHeaders;
+
+    /**
+     * Constructs a handler, resolving once which request methods its subclass implements
+     * so that requests can be dispatched without checking its type each time.
+     * HEAD is answered by the GET implementation, and OPTIONS is answered automatically
+     */
+    protected Handler() {
+        this.methods = new MethodHandler[RequestMethod.values().length];
+
+        if (this instanceof Get) {
+            Get get = (Get) this;
+
+            this.methods[RequestMethod.GET.ordinal()] = get::get;
+
+            // The server omits the body of responses to HEAD requests
+            this.methods[RequestMethod.HEAD.ordinal()] = get::get;
+        }
+
+        if (this instanceof Post) {
+            this.methods[RequestMethod.POST.ordinal()] = ((Post) this)::post;
+        }
+
+        if (this instanceof Put) {
+            this.methods[RequestMethod.PUT.ordinal()] = ((Put) this)::put;
+        }
+
+        if (this instanceof Delete) {
+            this.methods[RequestMethod.DELETE.ordinal()] = ((Delete) this)::delete;
+        }
+
+        // List the allowed methods once, including OPTIONS itself
+        StringBuilder allow = new StringBuilder();
+
+        for (RequestMethod method : RequestMethod.values()) {
+            if ((this.methods[method.ordinal()] != null) || (method == RequestMethod.OPTIONS)) {
+                if (allow.length() > 0) {
+                    allow.append(", ");
+                }
+
+                allow.append(method);
+            }
+        }
+
+        HeaderBlock allowHeaders = new HeaderBlock(Map.of("Allow", allow.toString()));
+
+        this.allowHeaders = allowHeaders;
+        this.methods[RequestMethod.OPTIONS.ordinal()] = req -> new Response(
+                new Response.StatusLine(ResponseCode.NO_CONTENT),
+                allowHeaders,
+                ""
+        );
+    }
+
     /**
      * handle
      * dispatches the correct handler implemented on a subclass based on the request
      * @param req the request from  to dispatch the handler for
-     * @return the response from the dispatched handler
-     * @throws HandlerException if no handler exists that can handle the specific request
+     * @return the response from the dispatched handler, or 405 Method Not Allowed if the subclass does not implement the request method
+     * @throws HandlerException if the dispatched handler cannot handle the specific request
      */
     public Response handle(Request req) throws HandlerException {
-        switch (req.getStatusLine().getMethod()) {
-            case GET: {
-                if (this instanceof Get) {
-                    return ((Get) this).get(req);
-                }
+        MethodHandler method = this.methods[req.getStatusLine().getMethod().ordinal()];
 
-                throw new HandlerException("GET handler not implemented on this route");
-            }
-            case POST: {
-                if (this instanceof Post) {
-                    return ((Post) this).post(req);
-                }
+        if (method == null) {
+            return new Response(
+                    new Response.StatusLine(ResponseCode.METHOD_NOT_ALLOWED),
+                    this.allowHeaders,
+                    ""
+            );
+        }
 
-                throw new HandlerException("POST handler not implemented on this route");
-            }
-            case PUT: {
-                if (this instanceof Put) {
-                    return ((Put) this).put(req);
-                }
+        return method.handle(req);
+    }
 
-                throw new HandlerException("PUT handler not implemented on this route");
-            }
-            case DELETE: {
-                if (this instanceof Delete) {
-                    return ((Delete) this).delete(req);
-                }
+    /**
+     * notModified
+     * answers a conditional request with 304 Not Modified if the client already has the current body
+     * @param req the HTTP request
+     * @param headers the headers of the full response, which are repeated in the 304 response
+     * @param eTag the entity tag of the current body
+     * @return the 304 response, or null if the full response must be sent
+     */
+    protected static Response notModified(Request req, HeaderBlock headers, String eTag) {
+        if (!ETag.matches(req.getHeader("If-None-Match"), eTag)) {
+            return null;
+        }
 
-                throw new HandlerException("DELETE handler not implemented on this route");
-            }
-            default: {
-                throw new HandlerException("No handler can handle the request " + req.getStatusLine());
+        Response res = new Response(
+                new Response.StatusLine(ResponseCode.NOT_MODIFIED),
+                headers,
+                ""
+        );
+
+        res.getHeaders().put("ETag", eTag);
+
+        return res;
+    }
+
+    /**
+     * templateETag
+     * creates a weak entity tag for a page rendered from a template,
+     * from the template and the partials it includes, the versions of the assets they link to, and the public fields of the data it is compiled with.
+     * Field values are compared through their string representations, so nested objects must describe their contents in toString
+     * @param templateEngine the template engine which holds the template
+     * @param template the registered path of the template
+     * @param data the root `data` object of the template
+     * @return the weak entity tag of the page
+     */
+    protected static String templateETag(TemplateEngine templateEngine, String template, Object data) {
+        Field[] fields = data.getClass().getFields();
+
+        // Declaration order is not guaranteed by reflection
+        Arrays.sort(fields, Comparator.comparing(Field::getName));
+
+        List<Object> values = new ArrayList<>();
+
+        values.add(templateEngine.getSource(template));
+
+        try {
+            for (Field field : fields) {
+                values.add(field.getName());
+                values.add(field.get(data));
             }
+        } catch (IllegalAccessException e) {
+            // Public fields are always accessible
+            throw new IllegalStateException(e);
         }
+
+        return ETag.weak(values.toArray());
     }
 
     /**
@@ -74,4 +180,21 @@ public abstract class Handler {
 
         return headers;
     }
+
+    /**
+     * Represents the implementation of a single request method on a handler
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    @FunctionalInterface
+    private interface MethodHandler {
+        /**
+         * handle
+         * handles a request with this method
+         * @param req the HTTP request
+         * @return the HTTP response to the request
+         * @throws HandlerException if the request cannot be handled
+         */
+        Response handle(Request req) throws HandlerException;
+    }
 }
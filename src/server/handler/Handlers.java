@@ -1,30 +1,41 @@
 package server.handler;
 
 import server.request.Request;
+import server.request.RequestMethod;
 import server.response.Response;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 /**
  * Maps {@link URL URL patterns} to different {@link Handler Handlers} and
  * allows them to be dispatched correctly.
+ * Patterns are compiled into a {@link Router} as they are registered, so dispatching does not depend on the number of routes.
  * @author Harry XU
  * @version 1.0 - May 21st 2023
  * */
 public class Handlers {
-    /** mapping of URL patterns to handlers */
-    private final LinkedHashMap<URL, Handler> registry;
+    /** compiled mapping of URL patterns to handlers */
+    private final Router registry;
 
     /** handler for the not found page */
     private Handler notFoundHandler;
 
+    /** holds the rendered pages of cacheable handlers, or null if pages are not cached */
+    private final ResponseCache responseCache;
+
     /**
      * Constructs a Handlers class with an empty registry
      */
     public Handlers() {
-        this.registry = new LinkedHashMap<>();
+        this(null);
+    }
+
+    /**
+     * Constructs a Handlers class with an empty registry which serves the pages of {@link Cacheable} handlers from a cache
+     * @param responseCache the cache of rendered pages, or null if pages are not cached
+     */
+    public Handlers(ResponseCache responseCache) {
+        this.registry = new Router();
         this.notFoundHandler = null;
+        this.responseCache = responseCache;
     }
 
     /**
@@ -34,7 +45,7 @@ public class Handlers {
      * @param handler the route handler
      */
     public void register(URL route, Handler handler) {
-        this.registry.put(route, handler);
+        this.registry.add(route, handler);
     }
 
     /**
@@ -58,31 +69,37 @@ public class Handlers {
 
     /**
      * dispatch
-     * Dispatches the first registered handler that matches the request and returns the response
+     * Dispatches the most specific registered handler that matches the request and returns the response
      * @param req the request to handle
      * @return the response of the dispatched handler
      * @throws HandlerException if no handler is found that can handle the request
      */
     public Response dispatch(Request req) throws HandlerException {
-        for (Map.Entry<URL, Handler> entry : this.registry.entrySet()) {
-            URL url = entry.getKey();
-            String route = req.getStatusLine().getLocation();
-
-            if (url.matches(route)) {
-                // Populate the request parameters
-                req.getStatusLine().populateRequestParams(url, route);
-
-                // Dispatch the handle method
-                try {
-                    return entry.getValue().handle(req);
-                } catch (NotFoundException e) {
-                    // Dispatch not found handler if it exists
-                    if (this.notFoundHandler != null) {
-                        return this.notFoundHandler.handle(req);
-                    }
-
-                    throw e;
+        Router.Match match = this.registry.match(req.getStatusLine().getLocation());
+
+        if (match != null) {
+            // Populate the request parameters
+            req.getStatusLine().setRouteParams(match.getRouteParams());
+            req.getStatusLine().setRoute(match.getUrl().getPath());
+
+            // Dispatch the handle method
+            try {
+                Handler handler = match.getHandler();
+                String variant = this.cacheVariant(req, handler);
+
+                // Shared pages are rendered once and served from the cache
+                if (variant != null) {
+                    return this.responseCache.serve(req, variant, handler);
+                }
+
+                return handler.handle(req);
+            } catch (NotFoundException e) {
+                // Dispatch not found handler if it exists
+                if (this.notFoundHandler != null) {
+                    return this.notFoundHandler.handle(req);
                 }
+
+                throw e;
             }
         }
 
@@ -94,6 +111,27 @@ public class Handlers {
         throw new HandlerException("No handler can handle the request " + req.getStatusLine());
     }
 
+    /**
+     * cacheVariant
+     * gets the variant of a cached page a request can be served from
+     * @param req the HTTP request
+     * @param handler the handler matching the request
+     * @return the variant of the page, or null if the request must be handled
+     */
+    private String cacheVariant(Request req, Handler handler) {
+        RequestMethod method = req.getStatusLine().getMethod();
+
+        if ((this.responseCache == null) || !(handler instanceof Cacheable)) {
+            return null;
+        }
+
+        if ((method != RequestMethod.GET) && (method != RequestMethod.HEAD)) {
+            return null;
+        }
+
+        return ((Cacheable) handler).getCacheVariant(req);
+    }
+
     /**
      * toString
      * converts this object to a string
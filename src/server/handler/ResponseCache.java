@@ -0,0 +1,282 @@
+package server.handler;
+
+import server.ServerConfig;
+import server.request.Request;
+import server.response.ContentEncoding;
+import server.response.ETag;
+import server.response.FileResponse;
+import server.response.HeaderBlock;
+import server.response.MultipartResponse;
+import server.response.Response;
+import server.response.ResponseCode;
+import server.response.StreamingResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Holds fully rendered pages of {@link Cacheable} handlers, so requests for the same page skip the database and the template engine.
+ * Each page is stored as its pre-encoded headers and body, along with the body compressed with every coding,
+ * so a cached page is served without any encoding work at all.
+ * Pages expire after a fixed time, and can be invalidated early when the data they are rendered from changes.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ResponseCache {
+    /** The codings cached pages are compressed with */
+    private static final ContentEncoding[] COMPRESSED_ENCODINGS = { ContentEncoding.GZIP, ContentEncoding.DEFLATE };
+
+    /** The most pages held at once, bounding the memory used when clients request many distinct urls */
+    private static final int MAX_ENTRIES = 1024;
+
+    /** The time in nanoseconds a page is served from the cache before it is rendered again */
+    private final long ttl;
+
+    /** Whether cached pages are compressed */
+    private final boolean compression;
+
+    /** The minimum size in bytes of a page worth compressing */
+    private final int compressionThreshold;
+
+    /** The cached pages by url and variant */
+    private final Map<String, Entry> entries;
+
+    /** The number of requests served from the cache */
+    private final LongAdder hits;
+
+    /** The number of requests which rendered their page */
+    private final LongAdder misses;
+
+    /**
+     * Constructs an empty cache with the expiry and compression options of a server
+     * @param config the options of the server
+     */
+    public ResponseCache(ServerConfig config) {
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(config.getResponseCacheTtl());
+        this.compression = config.isCompression();
+        this.compressionThreshold = config.getCompressionThreshold();
+        this.entries = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * serve
+     * serves a page from the cache, or renders it with its handler and caches it if it is missing or expired.
+     * Only 200 OK responses without cookies are cached; any other response is returned as the handler produced it
+     * @param req the HTTP request for the page
+     * @param variant the variant of the page the request is for
+     * @param handler the handler which renders the page
+     * @return the HTTP response to the request
+     * @throws HandlerException if the handler cannot handle the request
+     */
+    public Response serve(Request req, String variant, Handler handler) throws HandlerException {
+        String key = req.getStatusLine().getUrl() + " " + variant;
+        long now = System.nanoTime();
+
+        Entry entry = this.entries.get(key);
+
+        if ((entry == null) || (now - entry.created >= this.ttl)) {
+            this.misses.increment();
+
+            Response res = handler.handle(req);
+
+            if (!isCacheable(res)) {
+                return res;
+            }
+
+            entry = this.store(key, res, now);
+        } else {
+            this.hits.increment();
+        }
+
+        return entry.respond(req);
+    }
+
+    /**
+     * invalidate
+     * removes every page from the cache, so each is rendered again on its next request
+     */
+    public void invalidate() {
+        this.entries.clear();
+    }
+
+    /**
+     * invalidate
+     * removes every variant of a page from the cache
+     * @param url the url of the page, including its query
+     */
+    public void invalidate(String url) {
+        this.entries.keySet().removeIf(key -> key.startsWith(url + " "));
+    }
+
+    /**
+     * store
+     * encodes a rendered page and adds it to the cache.
+     * When the cache is full, expired pages are dropped first, and the page is not cached if none have expired
+     * @param key the url and variant of the page
+     * @param res the rendered page
+     * @param now the time at which the page was rendered
+     * @return the cached page
+     */
+    private Entry store(String key, Response res, long now) {
+        Entry entry = new Entry(res, now);
+
+        if ((this.entries.size() >= MAX_ENTRIES) && !this.entries.containsKey(key)) {
+            this.entries.values().removeIf(cached -> now - cached.created >= this.ttl);
+
+            if (this.entries.size() >= MAX_ENTRIES) {
+                return entry;
+            }
+        }
+
+        this.entries.put(key, entry);
+
+        return entry;
+    }
+
+    /**
+     * isCacheable
+     * checks whether a response holds a whole page which can be shared with other clients
+     * @param res the response
+     * @return whether the response can be cached
+     */
+    private static boolean isCacheable(Response res) {
+        return (res != null)
+                && (res.getStatusLine().getCode() == ResponseCode.OK)
+                && !(res instanceof FileResponse)
+                && !(res instanceof MultipartResponse)
+                && (res.getHeader("Set-Cookie") == null)
+                && (res.getHeader("Content-Encoding") == null);
+    }
+
+    /**
+     * toString
+     * returns a string representation of this object
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return "ResponseCache{entries=" + this.entries.size() + ", hits=" + this.hits.sum() + ", misses=" + this.misses.sum() + "}";
+    }
+
+    /**
+     * Represents a cached page, holding its pre-encoded headers and body for each coding
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private class Entry {
+        /** The time at which the page was rendered, in nanoseconds */
+        private final long created;
+
+        /** The entity tag of the page, or null if it has none */
+        private final String eTag;
+
+        /** The pre-encoded headers of the page for each coding its body is cached with */
+        private final Map<ContentEncoding, HeaderBlock> headers;
+
+        /** The read only body of the page for each coding it is cached with */
+        private final Map<ContentEncoding, ByteBuffer> bodies;
+
+        /**
+         * Constructs a cached page from a rendered response, compressing its body if it is worthwhile
+         * @param res the rendered response
+         * @param created the time at which the page was rendered
+         */
+        private Entry(Response res, long created) {
+            this.created = created;
+            this.eTag = res.getHeader("ETag");
+            this.headers = new EnumMap<>(ContentEncoding.class);
+            this.bodies = new EnumMap<>(ContentEncoding.class);
+
+            // Headers specific to the response are folded into a single pre-encoded block
+            Map<String, String> headers = new LinkedHashMap<>(res.getHeaderBlock().getHeaders());
+            headers.putAll(res.getHeaders());
+
+            HeaderBlock identityHeaders = new HeaderBlock(headers);
+            ByteBuffer identityBody = body(res);
+
+            this.headers.put(ContentEncoding.IDENTITY, identityHeaders);
+            this.bodies.put(ContentEncoding.IDENTITY, identityBody);
+
+            if (!ResponseCache.this.compression || (identityBody.remaining() < ResponseCache.this.compressionThreshold)) {
+                return;
+            }
+
+            for (ContentEncoding encoding : COMPRESSED_ENCODINGS) {
+                byte[] variant = encoding.encode(identityBody.duplicate(), Deflater.DEFAULT_COMPRESSION);
+
+                // Keep the variant only if compression actually pays off
+                if (variant.length < identityBody.remaining()) {
+                    this.headers.put(encoding, identityHeaders.with("Content-Encoding", encoding.getToken()));
+                    this.bodies.put(encoding, ByteBuffer.wrap(variant).asReadOnlyBuffer());
+                }
+            }
+        }
+
+        /**
+         * respond
+         * creates the response holding the cached page in the coding a client prefers
+         * @param req the HTTP request for the page
+         * @return 304 Not Modified if the client already has the page, otherwise 200 OK with the page
+         */
+        private Response respond(Request req) {
+            // Revalidated copies are not sent again
+            if ((this.eTag != null) && ETag.matches(req.getHeader("If-None-Match"), this.eTag)) {
+                return new Response(
+                        new Response.StatusLine(ResponseCode.NOT_MODIFIED),
+                        this.headers.get(ContentEncoding.IDENTITY),
+                        null,
+                        ByteBuffer.allocate(0)
+                );
+            }
+
+            ContentEncoding encoding = ContentEncoding.negotiate(req.getHeader("Accept-Encoding"));
+
+            if (!this.bodies.containsKey(encoding)) {
+                encoding = ContentEncoding.IDENTITY;
+            }
+
+            return new Response(
+                    new Response.StatusLine(ResponseCode.OK),
+                    this.headers.get(encoding),
+                    null,
+                    this.bodies.get(encoding).duplicate()
+            );
+        }
+
+        /**
+         * body
+         * copies the body of a rendered response, running the writer of a streamed response to completion
+         * @param res the rendered response
+         * @return a read only buffer holding the whole body
+         */
+        private ByteBuffer body(Response res) {
+            if (!(res instanceof StreamingResponse)) {
+                return res.getBody().asReadOnlyBuffer();
+            }
+
+            StreamingResponse streamingRes = (StreamingResponse) res;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            streamingRes.setChunked(false);
+
+            try {
+                streamingRes.writeBody(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return ByteBuffer.wrap(out.toByteArray()).asReadOnlyBuffer();
+        }
+    }
+}
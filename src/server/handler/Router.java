@@ -0,0 +1,382 @@
+package server.handler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiles {@link URL URL patterns} into a trie of path segments so a request path can be matched
+ * against every registered pattern in a single pass, without splitting the path or scanning each pattern.
+ * Segments are matched with the same rules as {@link URL#matches(String)}: literal segments must be equal,
+ * {@code :name} segments capture any segment as a route parameter, and {@code *} matches any segment.
+ * When several patterns match a path, literal segments are preferred over parameters, and parameters over wildcards.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Router {
+    /** The root of the trie, which matches paths without any segments */
+    private final Node root;
+
+    /**
+     * Constructs an empty router
+     */
+    public Router() {
+        this.root = new Node();
+    }
+
+    /**
+     * add
+     * compiles a URL pattern into the trie.
+     * If the same pattern is added more than once, the first handler is kept
+     * @param url the URL pattern
+     * @param handler the handler of the pattern
+     */
+    public void add(URL url, Handler handler) {
+        String[] segments = url.getPathSegments();
+        String[] paramNames = new String[segments.length];
+        Node node = this.root;
+
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+
+            if (segment.startsWith(":")) {
+                paramNames[i] = segment.substring(1);
+
+                if (node.param == null) {
+                    node.param = new Node();
+                }
+
+                node = node.param;
+            } else if (segment.equals("*")) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+
+                node = node.wildcard;
+            } else {
+                node = node.literal(segment);
+            }
+        }
+
+        if (node.handler == null) {
+            node.handler = handler;
+            node.url = url;
+            node.paramNames = paramNames;
+        }
+    }
+
+    /**
+     * match
+     * finds the handler of the pattern which matches a path
+     * @param path the path of the request, without any query parameters
+     * @return the matched handler and its route parameters, or null if no pattern matches the path
+     */
+    public Match match(String path) {
+        // Trailing slashes do not form segments, as with String.split
+        int end = path.length();
+
+        while ((end > 0) && (path.charAt(end - 1) == '/')) {
+            end--;
+        }
+
+        // Record where each segment starts and ends so parameters can be extracted once a pattern matches
+        int segmentCount = 0;
+
+        if (end > 0) {
+            segmentCount = 1;
+
+            for (int i = 0; i < end; i++) {
+                if (path.charAt(i) == '/') {
+                    segmentCount++;
+                }
+            }
+        }
+
+        int[] bounds = new int[segmentCount * 2];
+        int start = 0;
+
+        for (int i = 0; i < segmentCount; i++) {
+            int slash = path.indexOf('/', start);
+            int segmentEnd = ((slash == -1) || (slash > end)) ? end : slash;
+
+            bounds[i * 2] = start;
+            bounds[i * 2 + 1] = segmentEnd;
+            start = segmentEnd + 1;
+        }
+
+        Node node = this.root.find(path, bounds, 0);
+
+        if (node == null) {
+            return null;
+        }
+
+        // Extract the route parameters
+        Map<String, String> routeParams = new HashMap<>();
+
+        for (int i = 0; i < node.paramNames.length; i++) {
+            if (node.paramNames[i] != null) {
+                routeParams.put(node.paramNames[i], path.substring(bounds[i * 2], bounds[i * 2 + 1]));
+            }
+        }
+
+        return new Match(node.url, node.handler, routeParams);
+    }
+
+    /**
+     * toString
+     * converts this object to a string
+     * @return a properly formatted string representation of this object
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Router{");
+
+        this.root.describe(builder);
+
+        if (builder.charAt(builder.length() - 1) == ' ') {
+            builder.setLength(builder.length() - 2);
+        }
+
+        return builder.append("}").toString();
+    }
+
+    /**
+     * Represents the result of matching a path: the handler of the matched pattern and the route parameters it captured.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    public static class Match {
+        /** The matched URL pattern */
+        private final URL url;
+
+        /** The handler of the matched pattern */
+        private final Handler handler;
+
+        /** The route parameters captured from the path */
+        private final Map<String, String> routeParams;
+
+        /**
+         * Constructs a match
+         * @param url the matched URL pattern
+         * @param handler the handler of the matched pattern
+         * @param routeParams the route parameters captured from the path
+         */
+        private Match(URL url, Handler handler, Map<String, String> routeParams) {
+            this.url = url;
+            this.handler = handler;
+            this.routeParams = routeParams;
+        }
+
+        /**
+         * getUrl
+         * gets the matched URL pattern
+         * @return the URL pattern
+         */
+        public URL getUrl() {
+            return this.url;
+        }
+
+        /**
+         * getHandler
+         * gets the handler of the matched pattern
+         * @return the handler
+         */
+        public Handler getHandler() {
+            return this.handler;
+        }
+
+        /**
+         * getRouteParams
+         * gets the route parameters captured from the path
+         * @return a map of parameter names to values
+         */
+        public Map<String, String> getRouteParams() {
+            return this.routeParams;
+        }
+    }
+
+    /**
+     * Represents a segment in the trie. Literal children are kept sorted so they can be
+     * binary searched against a region of the path without copying it.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Node {
+        /** The literal segments which can follow this segment, in sorted order */
+        private String[] literals;
+
+        /** The nodes of the literal segments, in the same order */
+        private Node[] literalNodes;
+
+        /** The node matching a route parameter, or null if no pattern has one here */
+        private Node param;
+
+        /** The node matching a wildcard, or null if no pattern has one here */
+        private Node wildcard;
+
+        /** The handler of the pattern ending at this segment, or null if no pattern ends here */
+        private Handler handler;
+
+        /** The pattern ending at this segment */
+        private URL url;
+
+        /** The parameter name of each segment of the pattern ending here, or null for segments which are not parameters */
+        private String[] paramNames;
+
+        /**
+         * Constructs a node without any children
+         */
+        private Node() {
+            this.literals = new String[0];
+            this.literalNodes = new Node[0];
+        }
+
+        /**
+         * literal
+         * gets the child of a literal segment, adding it if it does not exist
+         * @param segment the literal segment
+         * @return the child node
+         */
+        private Node literal(String segment) {
+            int index = Arrays.binarySearch(this.literals, segment, Router::compare);
+
+            if (index >= 0) {
+                return this.literalNodes[index];
+            }
+
+            // Insert the segment at its sorted position
+            int insertion = -(index + 1);
+            Node node = new Node();
+
+            String[] literals = new String[this.literals.length + 1];
+            Node[] literalNodes = new Node[this.literalNodes.length + 1];
+
+            System.arraycopy(this.literals, 0, literals, 0, insertion);
+            System.arraycopy(this.literalNodes, 0, literalNodes, 0, insertion);
+
+            literals[insertion] = segment;
+            literalNodes[insertion] = node;
+
+            System.arraycopy(this.literals, insertion, literals, insertion + 1, this.literals.length - insertion);
+            System.arraycopy(this.literalNodes, insertion, literalNodes, insertion + 1, this.literalNodes.length - insertion);
+
+            this.literals = literals;
+            this.literalNodes = literalNodes;
+
+            return node;
+        }
+
+        /**
+         * find
+         * finds the node of the pattern matching the remaining segments of a path,
+         * falling back to parameters and then wildcards when a more specific branch does not match
+         * @param path the path
+         * @param bounds the start and end index of each segment of the path
+         * @param depth the index of the next segment to match
+         * @return the matched node, or null if no pattern matches
+         */
+        private Node find(String path, int[] bounds, int depth) {
+            if (depth * 2 == bounds.length) {
+                return this.handler != null ? this : null;
+            }
+
+            int start = bounds[depth * 2];
+            int end = bounds[depth * 2 + 1];
+
+            // Binary search the literal segments against the region of the path
+            int low = 0;
+            int high = this.literals.length - 1;
+
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int comparison = compareRegion(this.literals[mid], path, start, end);
+
+                if (comparison < 0) {
+                    low = mid + 1;
+                } else if (comparison > 0) {
+                    high = mid - 1;
+                } else {
+                    Node match = this.literalNodes[mid].find(path, bounds, depth + 1);
+
+                    if (match != null) {
+                        return match;
+                    }
+
+                    break;
+                }
+            }
+
+            if (this.param != null) {
+                Node match = this.param.find(path, bounds, depth + 1);
+
+                if (match != null) {
+                    return match;
+                }
+            }
+
+            if (this.wildcard != null) {
+                return this.wildcard.find(path, bounds, depth + 1);
+            }
+
+            return null;
+        }
+
+        /**
+         * describe
+         * appends the patterns ending at or below this node to a string
+         * @param builder the builder to append to
+         */
+        private void describe(StringBuilder builder) {
+            if (this.handler != null) {
+                builder.append(this.url).append("=").append(this.handler).append(", ");
+            }
+
+            for (Node node : this.literalNodes) {
+                node.describe(builder);
+            }
+
+            if (this.param != null) {
+                this.param.describe(builder);
+            }
+
+            if (this.wildcard != null) {
+                this.wildcard.describe(builder);
+            }
+        }
+    }
+
+    /**
+     * compare
+     * orders two literal segments
+     * @param a the first segment
+     * @param b the second segment
+     * @return a negative number, zero, or a positive number if the first segment is less than, equal to, or greater than the second
+     */
+    private static int compare(String a, String b) {
+        return compareRegion(a, b, 0, b.length());
+    }
+
+    /**
+     * compareRegion
+     * orders a literal segment against a region of a path without copying the region
+     * @param segment the literal segment
+     * @param path the path
+     * @param start the index of the first character of the region
+     * @param end the index after the last character of the region
+     * @return a negative number, zero, or a positive number if the segment is less than, equal to, or greater than the region
+     */
+    private static int compareRegion(String segment, String path, int start, int end) {
+        int length = end - start;
+        int shared = Math.min(segment.length(), length);
+
+        for (int i = 0; i < shared; i++) {
+            int difference = segment.charAt(i) - path.charAt(start + i);
+
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return segment.length() - length;
+    }
+}
@@ -2,21 +2,21 @@ package server.handler.routes;
 
 import database.Database;
 import database.model.User;
+import server.handler.Cacheable;
 import server.handler.Handler;
 import server.handler.methods.Get;
 import server.request.Request;
+import server.response.HeaderBlock;
 import server.response.Response;
 import server.response.ResponseCode;
 import template.TemplateEngine;
 
-import java.util.Map;
-
 /**
  * Responsible for handling the `/about` route
  * @author Harry Xu
  * @version 1.0 - June 9th 2023
  */
-public class AboutRoute extends Handler implements Get {
+public class AboutRoute extends Handler implements Get, Cacheable {
 
     /** The template engine which contains and compiles the templates */
     private final TemplateEngine templateEngine;
@@ -34,6 +34,17 @@ public class AboutRoute extends Handler implements Get {
         this.database = database;
     }
 
+    /**
+     * getCacheVariant
+     * The about page is the same for every visitor who is not logged in, so it is rendered once for all of them
+     * @param req the HTTP request
+     * @return {@code "anonymous"} for visitors who are not logged in, or null for users whose page shows their own data
+     */
+    @Override
+    public String getCacheVariant(Request req) {
+        return this.database.users().isAnonymous(req) ? "anonymous" : null;
+    }
+
     /**
      * get
      * Handles the GET request on the request's url.
@@ -46,17 +57,31 @@ public class AboutRoute extends Handler implements Get {
         // Authenticate user
         User currentUser = this.database.users().getCurrentUserFromRequest(req);
 
-        // Compile template with data
-        String body = this.templateEngine.compile("frontend/templates/about.th", new Data(currentUser));
+        Data data = new Data(currentUser);
 
         // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
+        HeaderBlock headers = Handler.HTML_HEADERS;
 
-        return new Response(
+        // Skip rendering if the client already has the page rendered from the same data
+        String eTag = Handler.templateETag(this.templateEngine, "frontend/templates/about.th", data);
+        Response notModified = Handler.notModified(req, headers, eTag);
+
+        if (notModified != null) {
+            return notModified;
+        }
+
+        // Compile template with data
+        String body = this.templateEngine.compile("frontend/templates/about.th", data);
+
+        Response res = new Response(
                 new Response.StatusLine(ResponseCode.OK),
                 headers,
                 body
         );
+
+        res.getHeaders().put("ETag", eTag);
+
+        return res;
     }
 
     /**
@@ -1,36 +1,101 @@
 package server.handler.routes;
 
+import assets.Asset;
 import assets.AssetEngine;
 import server.handler.Handler;
+import server.handler.NotFoundException;
 import server.handler.methods.Get;
 import server.request.Request;
+import server.response.ByteRange;
+import server.response.ContentEncoding;
+import server.response.FileResponse;
+import server.response.HeaderBlock;
+import server.response.MultipartResponse;
 import server.response.Response;
 import server.response.ResponseCode;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Handles all assets and files which must be statically hosted
+ * Handles all assets and files which must be statically hosted.
+ * Each handler mounts a whole directory of assets under a URL prefix,
+ * so a file is served by looking its name up in the {@link AssetEngine} rather than by a route of its own.
+ * Files requested under their fingerprinted names never change, so they are cached by clients for a year without revalidation.
  * @author Harry Xu
  * @version 1.0 - May 21st 2023
  */
 public class FileHandler extends Handler implements Get {
+    /** Pre-encoded headers of the served files by file extension and content coding, shared by the handlers of all files */
+    private static final Map<String, HeaderBlock> HEADER_BLOCKS = new ConcurrentHashMap<>();
+
+    /** The number of seconds clients may cache an asset under its plain name */
+    private static final int MAX_AGE = 86400;
+
+    /** The number of seconds clients may cache an asset under its fingerprinted name, the longest age caches are required to support */
+    private static final int IMMUTABLE_MAX_AGE = 31536000;
 
     /** The template engine which holds all the asset files */
     private final AssetEngine assets;
 
-    /** The url on which to host the file */
+    /** The directory of the assets, as registered in the asset engine */
     private final String directory;
 
+    /** The url prefix on which the directory is hosted */
+    private final String prefix;
+
     /**
      * Constructs a File Handler which is used to handle static file assets
      * @param assets the asset engine which holds the static asset
-     * @param directory the url on which to host the file
+     * @param directory the directory of the assets, ending with a slash
+     * @param prefix the url prefix on which to host the directory, ending with a slash
      */
-    public FileHandler(AssetEngine assets, String directory) {
+    public FileHandler(AssetEngine assets, String directory, String prefix) {
         this.assets = assets;
         this.directory = directory;
+        this.prefix = prefix;
+    }
+
+    /**
+     * getPrefix
+     * gets the url prefix on which the directory is hosted
+     * @return the url prefix
+     */
+    public String getPrefix() {
+        return this.prefix;
+    }
+
+    /**
+     * find
+     * finds the asset hosted on a url
+     * @param location the url, without any query parameters
+     * @return the asset, or null if the url is not under the prefix or no such asset exists
+     */
+    public Asset find(String location) {
+        if (!location.startsWith(this.prefix)) {
+            return null;
+        }
+
+        return this.assets.findAsset(this.directory + location.substring(this.prefix.length()));
+    }
+
+    /**
+     * link
+     * gets the url of the current version of an asset hosted on a url, which can be cached forever
+     * @param url the plain url of the asset
+     * @return the fingerprinted url, or null if the url is not under the prefix or no such asset exists
+     */
+    public String link(String url) {
+        if (!url.startsWith(this.prefix)) {
+            return null;
+        }
+
+        String path = this.assets.getFingerprintedPath(this.directory + url.substring(this.prefix.length()));
+
+        return path == null ? null : this.prefix + path.substring(this.directory.length());
     }
 
     /**
@@ -42,19 +107,155 @@ public class FileHandler extends Handler implements Get {
      */
     @Override
     public Response get(Request req) {
+        Asset asset = this.find(req.getStatusLine().getLocation());
+
+        if (asset == null) {
+            throw new NotFoundException("No asset is hosted on " + req.getStatusLine().getLocation());
+        }
+
+        return this.serve(req, asset);
+    }
+
+    /**
+     * serve
+     * creates the response holding a static asset
+     * @param req the HTTP request for the asset
+     * @param asset the asset hosted on the request's url
+     * @return the server HTTP response
+     */
+    public Response serve(Request req, Asset asset) {
         // Full request URL
         String url = req.getStatusLine().getLocation();
 
-        // Get file name
-        String filename = url.substring(url.lastIndexOf("/") + 1);
-
         // Get file extension
         String extension = url.substring(url.lastIndexOf(".") + 1);
 
-        // Appends file name to hosting directory
-        byte[] fileContent = this.assets.getAsset(this.directory + filename);
+        // Ranges are served from the original content so their offsets do not depend on the client's codings
+        String range = req.getHeader("Range");
+
+        // Serve the precompressed variant the client prefers, if there is one
+        ContentEncoding encoding = range == null ? ContentEncoding.negotiate(req.getHeader("Accept-Encoding")) : ContentEncoding.IDENTITY;
+        ByteBuffer fileContent = asset.getContent(encoding);
+
+        if (fileContent == null) {
+            encoding = ContentEncoding.IDENTITY;
+            fileContent = asset.getContent();
+        }
+
+        // Fingerprinted urls name a single version of the asset
+        String cacheControl = AssetEngine.isFingerprinted(url, asset) ? "immutable" : "revalidated";
+
+        // Headers are encoded once per file extension, coding, and caching policy
+        HeaderBlock headers = HEADER_BLOCKS.computeIfAbsent(extension + " " + encoding.getToken() + " " + cacheControl, FileHandler::fileHeaders);
+
+        // Revalidated copies are not sent again
+        String eTag = asset.getETag(encoding);
+        Response notModified = Handler.notModified(req, headers, eTag);
+
+        if (notModified != null) {
+            return notModified;
+        }
+
+        // Mapped files are sent to the socket by the kernel
+        Asset file = ((encoding == ContentEncoding.IDENTITY) && (asset.getFile() != null)) ? asset : null;
+
+        // Resume partial downloads, unless the client's copy is of a different version
+        if ((range != null) && isSameVersion(req.getHeader("If-Range"), eTag)) {
+            List<ByteRange> ranges = ByteRange.parse(range, fileContent.remaining());
+
+            if (ranges != null) {
+                return partial(headers, eTag, fileContent, file, ranges);
+            }
+        }
+
+        Map<String, String> fileHeaders = new HashMap<>();
+        fileHeaders.put("ETag", eTag);
+
+        return response(ResponseCode.OK, headers, fileHeaders, fileContent, file, 0);
+    }
+
+    /**
+     * response
+     * creates a response whose body is part of a static asset, transferring it from the asset's file if it has one
+     * @param code the response code
+     * @param headers the headers of the asset
+     * @param responseHeaders the headers specific to this response
+     * @param body a view of the part of the asset to send
+     * @param file the asset if its file can be transferred from, or null if the body is written from memory
+     * @param position the position of the part in the asset
+     * @return the response
+     */
+    private static Response response(ResponseCode code, HeaderBlock headers, Map<String, String> responseHeaders, ByteBuffer body, Asset file, long position) {
+        // The file stays open until the response is written, even if the asset is replaced in the meantime
+        if ((file != null) && file.retain()) {
+            return new FileResponse(new Response.StatusLine(code), headers, responseHeaders, body, file.getFile(), position, file::release);
+        }
+
+        return new Response(new Response.StatusLine(code), headers, responseHeaders, body);
+    }
+
+    /**
+     * partial
+     * creates the response holding ranges of a static asset, each of which is a view of the asset rather than a copy
+     * @param headers the headers of the whole asset
+     * @param eTag the entity tag of the asset
+     * @param content the content of the asset
+     * @param file the asset if its file can be transferred from, or null if the body is written from memory
+     * @param ranges the satisfiable ranges requested by the client
+     * @return 206 Partial Content with a single range or multipart ranges,
+     * or 416 Range Not Satisfiable if none of the ranges can be satisfied
+     */
+    private static Response partial(HeaderBlock headers, String eTag, ByteBuffer content, Asset file, List<ByteRange> ranges) {
+        Map<String, String> rangeHeaders = new HashMap<>();
+        rangeHeaders.put("ETag", eTag);
+
+        if (ranges.isEmpty()) {
+            rangeHeaders.put("Content-Range", "bytes */" + content.remaining());
+
+            return new Response(
+                    new Response.StatusLine(ResponseCode.RANGE_NOT_SATISFIABLE),
+                    headers,
+                    rangeHeaders,
+                    ByteBuffer.allocate(0)
+            );
+        }
+
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            rangeHeaders.put("Content-Range", range.contentRange(content.remaining()));
+
+            return response(ResponseCode.PARTIAL_CONTENT, headers, rangeHeaders, range.slice(content), file, range.getStart());
+        }
+
+        return new MultipartResponse(headers, rangeHeaders, content, ranges);
+    }
+
+    /**
+     * isSameVersion
+     * checks the {@code If-Range} header of a request, which makes a range request conditional on the asset being unchanged.
+     * Only strong entity tags are compared, so dates and weak tags always cause the whole asset to be sent
+     * @param ifRange the value of the header, or null if the request has none
+     * @param eTag the strong entity tag of the asset
+     * @return whether the ranges should be served
+     */
+    private static boolean isSameVersion(String ifRange, String eTag) {
+        return (ifRange == null) || ifRange.trim().equals(eTag);
+    }
+
+    /**
+     * fileHeaders
+     * creates the headers of a static asset file
+     * @param key the extension of the file, the token of its content coding, and either {@code immutable} or {@code revalidated},
+     *            separated by spaces
+     * @return the pre-encoded headers
+     */
+    private static HeaderBlock fileHeaders(String key) {
+        String[] tokens = key.split(" ");
+
+        String extension = tokens[0];
+        String encoding = tokens[1];
+        boolean immutable = tokens[2].equals("immutable");
 
-        // Headers
         Map<String, String> headers = new HashMap<>();
 
         String contentType = "text/" + extension;
@@ -70,15 +271,14 @@ public class FileHandler extends Handler implements Get {
         }
 
         headers.put("Content-Type", contentType);
-        headers.put("Content-Length", Integer.toString(fileContent.length));
-        headers.put("Cache-Control", "public, max-age=86400");
+        headers.put("Cache-Control", immutable ? "public, max-age=" + IMMUTABLE_MAX_AGE + ", immutable" : "public, max-age=" + MAX_AGE);
         headers.put("Vary", "Accept-Encoding");
-        headers.put("Accept-Ranges", "none");
+        headers.put("Accept-Ranges", "bytes");
+
+        if (!encoding.equals(ContentEncoding.IDENTITY.getToken())) {
+            headers.put("Content-Encoding", encoding);
+        }
 
-        return new Response(
-                new Response.StatusLine(ResponseCode.OK),
-                headers,
-                fileContent
-        );
+        return new HeaderBlock(headers);
     }
 }
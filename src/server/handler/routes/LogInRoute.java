@@ -6,6 +6,7 @@ import server.handler.Handler;
 import server.handler.methods.Get;
 import server.handler.methods.Post;
 import server.request.Request;
+import server.response.HeaderBlock;
 import server.response.Response;
 import server.response.ResponseCode;
 import template.TemplateEngine;
@@ -47,7 +48,7 @@ public class LogInRoute extends Handler implements Get, Post {
     @Override
     public Response get(Request req) {
         // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
+        HeaderBlock headers = Handler.HTML_HEADERS;
 
         // Get error code
         String errorCode = req.getStatusLine().getQueryParams().get("error");
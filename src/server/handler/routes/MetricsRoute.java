@@ -0,0 +1,58 @@
+package server.handler.routes;
+
+import server.ServerMetrics;
+import server.handler.Handler;
+import server.handler.methods.Get;
+import server.request.Request;
+import server.response.HeaderBlock;
+import server.response.Response;
+import server.response.ResponseCode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Responsible for handling the built-in /metrics url, which a Prometheus server scrapes
+ * for the latency histograms and counters of the {@link server.WebServer}
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class MetricsRoute extends Handler implements Get {
+    /** Pre-encoded headers of the exposition, which is always read fresh */
+    private static final HeaderBlock METRICS_HEADERS;
+
+    static {
+        Map<String, String> headers = new HashMap<>();
+
+        headers.put("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        headers.put("Cache-Control", "no-store");
+
+        METRICS_HEADERS = new HeaderBlock(headers);
+    }
+
+    /** The metrics of the server */
+    private final ServerMetrics metrics;
+
+    /**
+     * Constructs a MetricsRoute exposing the metrics of a server
+     * @param metrics the metrics of the server
+     */
+    public MetricsRoute(ServerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Handles the get request to this route
+     * Returns every metric in the Prometheus text format
+     * @param req the HTTP request to handle
+     * @return the HTTP response to the request
+     */
+    @Override
+    public Response get(Request req) {
+        return new Response(
+                new Response.StatusLine(ResponseCode.OK),
+                METRICS_HEADERS,
+                this.metrics.write()
+        );
+    }
+}
@@ -5,12 +5,11 @@ import database.model.User;
 import server.handler.Handler;
 import server.handler.methods.Get;
 import server.request.Request;
+import server.response.HeaderBlock;
 import server.response.Response;
 import server.response.ResponseCode;
 import template.TemplateEngine;
 
-import java.util.Map;
-
 /**
  * Responsible for handling any routes that are not mapped to any routes
  * @author Harry Xu
@@ -50,7 +49,7 @@ public class NotFoundRoute extends Handler implements Get {
         String body = this.templateEngine.compile("frontend/templates/not-found.th", new Data(currentUser));
 
         // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
+        HeaderBlock headers = Handler.HTML_HEADERS;
 
         return new Response(
                 new Response.StatusLine(ResponseCode.NOT_FOUND),
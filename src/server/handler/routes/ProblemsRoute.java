@@ -3,6 +3,7 @@ package server.handler.routes;
 import database.Database;
 import database.model.Problem;
 import database.model.User;
+import server.handler.Cacheable;
 import server.handler.Handler;
 import server.handler.methods.Get;
 import server.request.Request;
@@ -13,7 +14,6 @@ import template.TemplateEngine;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Responsible for handling the `/problems` route.
@@ -21,7 +21,7 @@ import java.util.Map;
  * @author Harry Xu
  * @version 1.0 - June 9th 2023
  */
-public class ProblemsRoute extends Handler implements Get {
+public class ProblemsRoute extends Handler implements Get, Cacheable {
 
     /** The template engine which contains and compiles the templates */
     private final TemplateEngine templateEngine;
@@ -39,10 +39,23 @@ public class ProblemsRoute extends Handler implements Get {
         this.database = database;
     }
 
+    /**
+     * getCacheVariant
+     * The problem list is the same for every visitor who is not logged in, so it is rendered once for all of them until a problem is added
+     * @param req the HTTP request
+     * @return {@code "anonymous"} for visitors who are not logged in, or null for users whose page shows their own data
+     */
+    @Override
+    public String getCacheVariant(Request req) {
+        return this.database.users().isAnonymous(req) ? "anonymous" : null;
+    }
+
     /**
      * get
      * Handles the GET request on the request's url.
-     * Serves the `problems.th` template file.
+     * Renders the `problems.th` template file.
+     * The page is compiled before the response is returned rather than streamed, since the template engine
+     * produces the whole page at once, and so that a failure while loading or compiling it still reaches the error page
      * @param req the HTTP request to handle
      * @return the server HTTP response
      */
@@ -91,12 +104,9 @@ public class ProblemsRoute extends Handler implements Get {
                 currentUser
         ));
 
-        // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
-
         return new Response(
                 new Response.StatusLine(ResponseCode.OK),
-                headers,
+                Handler.HTML_HEADERS,
                 body
         );
     }
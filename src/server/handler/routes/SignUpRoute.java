@@ -8,6 +8,7 @@ import server.handler.Handler;
 import server.handler.methods.Get;
 import server.handler.methods.Post;
 import server.request.Request;
+import server.response.HeaderBlock;
 import server.response.Response;
 import server.response.ResponseCode;
 import template.TemplateEngine;
@@ -60,7 +61,7 @@ public class SignUpRoute extends Handler implements Get, Post {
         String body = this.templateEngine.compile("frontend/templates/sign-up.th", new Data(errorCode, currentUser));
 
         // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
+        HeaderBlock headers = Handler.HTML_HEADERS;
 
         return new Response(
                 new Response.StatusLine(ResponseCode.OK),
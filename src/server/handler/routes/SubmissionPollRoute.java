@@ -11,20 +11,30 @@ import database.model.User;
 import server.handler.Handler;
 import server.handler.methods.Get;
 import server.request.Request;
+import server.response.EventStream;
+import server.response.EventStreamResponse;
+import server.response.HeaderBlock;
 import server.response.Response;
 import server.response.ResponseCode;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * Responsible for handling the /problems/:problemId/submissions url, where the /problems/:problemId/tests page
- * polls for data about the problem submissions to update the webpage programmatically
+ * gets data about the problem submissions to update the webpage programmatically.
+ * Clients which accept server-sent events hold a single connection and are pushed each change as the {@link CodeRunner}
+ * reports it, without a thread waiting on the connection in between, while other clients poll for the current state
  * @author Harry Xu
  * @version 1.0 - June 4th 2023
  */
 public class SubmissionPollRoute extends Handler implements Get {
+    /** Pre-encoded headers of the JSON responses, which are the HTML headers with the content type changed */
+    private static final HeaderBlock JSON_HEADERS = Handler.HTML_HEADERS.with("Content-Type", "text/json");
 
     /** The code runner instance running the submitted code */
     private final CodeRunner codeRunner;
@@ -44,12 +54,51 @@ public class SubmissionPollRoute extends Handler implements Get {
 
     /**
      * Handles the get request to this route
-     * Returns JSON containing information about the current {@link CodeRunner} submission
+     * Returns JSON containing information about the current {@link CodeRunner} submission,
+     * or a stream of events carrying the JSON each time it changes if the client accepts one
      * @param req the HTTP request to handle
      * @return the HTTP response to the request
      */
     @Override
     public Response get(Request req) {
+        String accept = req.getHeader("Accept");
+
+        if ((accept != null) && accept.contains("text/event-stream")) {
+            return new EventStreamResponse(events -> this.stream(req, events));
+        }
+
+        return new Response(
+                new Response.StatusLine(ResponseCode.OK),
+                JSON_HEADERS,
+                this.poll(req)
+        );
+    }
+
+    /**
+     * stream
+     * sends the current state of the submission on a newly opened event stream,
+     * and registers a watcher which sends each change the code runner reports until the submission is completed
+     * @param req the HTTP request for the stream
+     * @param events the opened event stream
+     */
+    private void stream(Request req, EventStream events) {
+        Watcher watcher = new Watcher(req, events);
+
+        // Registered before the first poll, so no progress is missed between the two
+        this.codeRunner.addListener(watcher);
+        events.onClose(() -> this.codeRunner.removeListener(watcher));
+
+        watcher.accept(null);
+    }
+
+    /**
+     * poll
+     * builds the JSON describing the current state of the requester's submission,
+     * awarding points and clearing the submission once it is completed
+     * @param req the HTTP request of the submitter
+     * @return the JSON string
+     */
+    private String poll(Request req) {
         // Current processing submission
         Submission submission = this.codeRunner.getCurrentSubmission();
 
@@ -75,21 +124,8 @@ public class SubmissionPollRoute extends Handler implements Get {
 
             if ((compilationResult != null) && (compilationResult.getTaskCode() == TaskCode.COMPILE_ERROR)) {
 
-                // Escapes compilation text
-                String escapedData = compilationResult.getData()
-                        .replace("\\", "\\\\")
-                        .replace("\t", "\\t")
-                        .replace("\b", "\\b")
-                        .replace("\n", "\\n")
-                        .replace("\r", "\\r")
-                        .replace("\f", "\\f")
-                        .replace("\"", "\\\"");
-
-                // Removes file path except for file name
-                escapedData = escapedData.substring(escapedData.lastIndexOf("\\\\") + 2);
-
                 // Compilation error
-                body = "{\"error\": \"" + escapedData + "\", \"completed\": true }";
+                body = "{\"error\": \"" + escapeCompilationError(compilationResult.getData()) + "\", \"completed\": true }";
             } else if (submission.getSubmissionId().equals(submissionId)) {
                 TestResult[] testResults = submission.getTask().getTestResults();
 
@@ -228,17 +264,48 @@ public class SubmissionPollRoute extends Handler implements Get {
             }
         }
 
-        // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
+        return body;
+    }
 
-        // Change content type to JSON
-        headers.put("Content-Type", "text/json");
+    /**
+     * escapeCompilationError
+     * escapes the output of the compiler so it can be placed in a JSON string, removing the path of the source file
+     * @param data the output of the compiler
+     * @return the escaped output
+     */
+    static String escapeCompilationError(String data) {
+        // Escapes compilation text
+        String escapedData = escape(data);
 
-        return new Response(
-                new Response.StatusLine(ResponseCode.OK),
-                headers,
-                body
-        );
+        // Removes file path except for file name
+        return escapedData.substring(escapedData.lastIndexOf("\\\\") + 2);
+    }
+
+    /**
+     * escape
+     * escapes text so it can be placed in a JSON string
+     * @param text the text to escape
+     * @return the escaped text
+     */
+    static String escape(String text) {
+        return text
+                .replace("\\", "\\\\")
+                .replace("\t", "\\t")
+                .replace("\b", "\\b")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\f", "\\f")
+                .replace("\"", "\\\"");
+    }
+
+    /**
+     * isCompleted
+     * Determines if the JSON of a submission tells the client to stop listening for changes
+     * @param body the JSON string
+     * @return whether the submission is completed
+     */
+    private static boolean isCompleted(String body) {
+        return body.contains("\"completed\": true");
     }
 
     /**
@@ -315,7 +382,7 @@ public class SubmissionPollRoute extends Handler implements Get {
      * @param testResults the test results to check
      * @return if the tests are completed
      */
-    private static boolean areTestsCompleted(TestResult[] testResults) {
+    static boolean areTestsCompleted(TestResult[] testResults) {
         boolean completed = false;
 
         for (int i = 0; i < testResults.length; i++) {
@@ -334,4 +401,70 @@ public class SubmissionPollRoute extends Handler implements Get {
 
         return completed;
     }
+
+    /**
+     * Sends the state of one client's submission on its event stream each time the {@link CodeRunner} reports progress.
+     * Progress is handled on the thread reporting it, which only polls the submission and queues the event
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private class Watcher implements Consumer<Submission> {
+        /** The HTTP request for the stream, which identifies the submitter */
+        private final Request req;
+
+        /** The stream the states are sent on */
+        private final EventStream events;
+
+        /** Keeps progress reported while the stream is being opened from being polled twice at once */
+        private final ReentrantLock pollLock;
+
+        /** The last state sent, or null if none has been */
+        private String lastBody;
+
+        /**
+         * Constructs a watcher of a client's submission
+         * @param req the HTTP request for the stream
+         * @param events the stream the states are sent on
+         */
+        private Watcher(Request req, EventStream events) {
+            this.req = req;
+            this.events = events;
+            this.pollLock = new ReentrantLock();
+        }
+
+        /**
+         * accept
+         * polls the submission and sends its state if it changed, closing the stream once the submission is completed
+         * @param submission the submission whose progress changed, which may not be the client's
+         */
+        @Override
+        public void accept(Submission submission) {
+            this.pollLock.lock();
+
+            try {
+                if (this.events.isClosed()) {
+                    return;
+                }
+
+                String body = SubmissionPollRoute.this.poll(this.req);
+
+                if (!body.equals(this.lastBody)) {
+                    this.events.send(body);
+                    this.lastBody = body;
+                }
+
+                if (isCompleted(body)) {
+                    this.events.close();
+                }
+            } catch (IOException e) {
+                // The stream has been closed along with the connection, which unregisters this watcher
+            } catch (RuntimeException e) {
+                // Failures end this stream rather than the code runner reporting the progress
+                e.printStackTrace();
+                this.events.close();
+            } finally {
+                this.pollLock.unlock();
+            }
+        }
+    }
 }
@@ -0,0 +1,302 @@
+package server.handler.routes;
+
+import coderunner.CodeRunner;
+import coderunner.Submission;
+import coderunner.TaskCode;
+import coderunner.TaskResult;
+import coderunner.test.TestResult;
+import server.handler.Handler;
+import server.handler.methods.Get;
+import server.request.Request;
+import server.response.Response;
+import server.websocket.WebSocket;
+import server.websocket.WebSocketListener;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Responsible for handling the /ws/submissions url, a web socket over which clients follow submissions as they are judged.
+ * Clients send {@code subscribe <submissionId>} or {@code unsubscribe <submissionId>} messages,
+ * and are pushed a JSON message each time the {@link CodeRunner} reports progress on a subscribed submission.
+ * Each message only holds the test results which changed since the last one, along with the queue position
+ * while the submission waits and a {@code completed} flag once it is done, after which the subscription ends.
+ * Unlike {@link SubmissionPollRoute}, following a submission here does not award its points
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class SubmissionSocketRoute extends Handler implements Get, WebSocketListener {
+    /** The code runner instance running the submitted code */
+    private final CodeRunner codeRunner;
+
+    /** The subscriptions of each open socket, by submission id */
+    private final Map<WebSocket, Map<String, Subscription>> subscriptions;
+
+    /**
+     * Guards the last state sent for each subscription.
+     * A lock is used rather than a monitor so that virtual threads never pin their carrier thread
+     */
+    private final Lock subscriptionLock;
+
+    /**
+     * Constructs a SubmissionSocketRoute listening to the progress of every submission
+     * @param codeRunner the object responsible for compiling, executing, and testing submitted code
+     */
+    public SubmissionSocketRoute(CodeRunner codeRunner) {
+        this.codeRunner = codeRunner;
+        this.subscriptions = new ConcurrentHashMap<>();
+        this.subscriptionLock = new ReentrantLock();
+
+        this.codeRunner.addListener(this::updated);
+    }
+
+    /**
+     * Handles the get request to this route
+     * Upgrades the connection to a web socket
+     * @param req the HTTP request to handle
+     * @return the HTTP response to the request
+     */
+    @Override
+    public Response get(Request req) {
+        return WebSocket.upgrade(req, this);
+    }
+
+    /**
+     * onOpen
+     * starts a socket without any subscriptions
+     * @param socket the opened socket
+     */
+    @Override
+    public void onOpen(WebSocket socket) {
+        this.subscriptions.put(socket, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * onMessage
+     * subscribes to or unsubscribes from a submission, sending the current state of a newly subscribed submission
+     * @param socket the socket the message was received on
+     * @param message the message, which is a command followed by a submission id
+     */
+    @Override
+    public void onMessage(WebSocket socket, String message) {
+        Map<String, Subscription> socketSubscriptions = this.subscriptions.get(socket);
+        String[] parts = message.trim().split("\\s+", 2);
+
+        if ((socketSubscriptions == null) || (parts.length != 2)) {
+            return;
+        }
+
+        String submissionId = parts[1];
+
+        if (parts[0].equals("unsubscribe")) {
+            socketSubscriptions.remove(submissionId);
+            return;
+        }
+
+        if (!parts[0].equals("subscribe")) {
+            return;
+        }
+
+        Subscription subscription = new Subscription();
+
+        this.subscriptionLock.lock();
+
+        try {
+            socketSubscriptions.put(submissionId, subscription);
+
+            String delta = this.delta(submissionId, this.findSubmission(submissionId), subscription);
+
+            if (subscription.completed) {
+                socketSubscriptions.remove(submissionId);
+            }
+
+            if (delta != null) {
+                this.send(socket, delta);
+            }
+        } finally {
+            this.subscriptionLock.unlock();
+        }
+    }
+
+    /**
+     * onClose
+     * drops the subscriptions of a socket
+     * @param socket the closed socket
+     */
+    @Override
+    public void onClose(WebSocket socket) {
+        this.subscriptions.remove(socket);
+    }
+
+    /**
+     * updated
+     * pushes the progress of a submission to its subscribers, and the new queue positions of the submissions behind it.
+     * Messages are sent while holding the subscription lock, so each socket receives its messages in the order they were built.
+     * Sending only queues a message for the server to write, so a slow subscriber never holds up the code runner
+     * @param submission the submission whose progress changed
+     */
+    private void updated(Submission submission) {
+        this.subscriptionLock.lock();
+
+        try {
+            for (Map.Entry<WebSocket, Map<String, Subscription>> entry : this.subscriptions.entrySet()) {
+                Iterator<Map.Entry<String, Subscription>> socketSubscriptions = entry.getValue().entrySet().iterator();
+
+                while (socketSubscriptions.hasNext()) {
+                    Map.Entry<String, Subscription> subscription = socketSubscriptions.next();
+                    String submissionId = subscription.getKey();
+                    String delta;
+
+                    if (submission.getSubmissionId().equals(submissionId)) {
+                        delta = this.delta(submissionId, submission, subscription.getValue());
+                    } else if (subscription.getValue().position != -1) {
+                        // Queued submissions move up whenever another one starts
+                        delta = this.delta(submissionId, null, subscription.getValue());
+                    } else {
+                        continue;
+                    }
+
+                    if (subscription.getValue().completed) {
+                        socketSubscriptions.remove();
+                    }
+
+                    if (delta != null) {
+                        this.send(entry.getKey(), delta);
+                    }
+                }
+            }
+        } finally {
+            this.subscriptionLock.unlock();
+        }
+    }
+
+    /**
+     * send
+     * sends a message to a socket, dropping its subscriptions if it can no longer be written to
+     * @param socket the socket
+     * @param message the message
+     */
+    private void send(WebSocket socket, String message) {
+        try {
+            socket.send(message);
+        } catch (IOException e) {
+            this.subscriptions.remove(socket);
+        }
+    }
+
+    /**
+     * findSubmission
+     * finds a submission which is being judged or has been judged
+     * @param submissionId the submission id
+     * @return the submission, or null if it is queued or unknown
+     */
+    private Submission findSubmission(String submissionId) {
+        Submission current = this.codeRunner.getCurrentSubmission();
+
+        if ((current != null) && current.getSubmissionId().equals(submissionId)) {
+            return current;
+        }
+
+        return this.codeRunner.getSubmissionHistories().get(submissionId);
+    }
+
+    /**
+     * delta
+     * builds the JSON describing what changed about a submission since the last message sent for a subscription,
+     * and records the new state as sent. Must be called while holding the subscription lock
+     * @param submissionId the submission id
+     * @param submission the submission, or null if it is queued or unknown
+     * @param subscription the state last sent to the subscriber
+     * @return the JSON string, or null if nothing changed
+     */
+    private String delta(String submissionId, Submission submission, Subscription subscription) {
+        String prefix = "{ \"submission\": \"" + SubmissionPollRoute.escape(submissionId) + "\", ";
+
+        // Waiting in the queue
+        int position = this.codeRunner.indexInQueue(submissionId);
+
+        if (position != -1) {
+            if (position == subscription.position) {
+                return null;
+            }
+
+            subscription.position = position;
+
+            return prefix + "\"queued\": true, \"position\": " + position + " }";
+        }
+
+        subscription.position = -1;
+
+        if (submission == null) {
+            return null;
+        }
+
+        TaskResult compilationResult = submission.getTask().getCompilationResult();
+
+        if ((compilationResult != null) && (compilationResult.getTaskCode() == TaskCode.COMPILE_ERROR)) {
+            subscription.completed = true;
+
+            return prefix + "\"error\": \"" + SubmissionPollRoute.escapeCompilationError(compilationResult.getData()) + "\", \"completed\": true }";
+        }
+
+        TestResult[] testResults = submission.getTask().getTestResults();
+
+        if (subscription.tests == null) {
+            subscription.tests = new String[testResults.length];
+        }
+
+        // Only the tests whose result changed are sent
+        StringBuilder tests = new StringBuilder();
+
+        for (int i = 0; i < testResults.length; i++) {
+            String code = (testResults[i] == null) ? "Pending" : testResults[i].getStatusCode().getCode();
+
+            if (!code.equals(subscription.tests[i])) {
+                subscription.tests[i] = code;
+
+                if (tests.length() > 0) {
+                    tests.append(", ");
+                }
+
+                tests.append("\"").append(i).append("\": \"").append(code).append("\"");
+            }
+        }
+
+        boolean completed = SubmissionPollRoute.areTestsCompleted(testResults);
+
+        if ((tests.length() == 0) && (completed == subscription.completed)) {
+            return null;
+        }
+
+        subscription.completed = completed;
+
+        return prefix + "\"tests\": { " + tests + " }, \"completed\": " + completed + " }";
+    }
+
+    /**
+     * Represents the state of a submission last sent to a subscriber
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Subscription {
+        /** The queue position last sent, or -1 if the submission was not queued */
+        private int position;
+
+        /** The result code of each test last sent, or null if no results have been sent */
+        private String[] tests;
+
+        /** Whether the submission has been sent as completed */
+        private boolean completed;
+
+        /**
+         * Constructs the state of a subscription which has not been sent anything
+         */
+        private Subscription() {
+            this.position = -1;
+        }
+    }
+}
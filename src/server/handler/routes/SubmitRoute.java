@@ -12,6 +12,7 @@ import server.handler.NotFoundException;
 import server.handler.methods.Get;
 import server.handler.methods.Post;
 import server.request.Request;
+import server.response.HeaderBlock;
 import server.response.Response;
 import server.response.ResponseCode;
 import template.TemplateEngine;
@@ -105,7 +106,7 @@ public class SubmitRoute extends Handler implements Get, Post {
         String body = this.templateEngine.compile("frontend/templates/submit.th", new Data(currentUser, problem.getTitle()));
 
         // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
+        HeaderBlock headers = Handler.HTML_HEADERS;
 
         return new Response(
                 new Response.StatusLine(ResponseCode.OK),
@@ -5,6 +5,7 @@ import database.model.User;
 import server.handler.Handler;
 import server.handler.methods.Get;
 import server.request.Request;
+import server.response.HeaderBlock;
 import server.response.Response;
 import server.response.ResponseCode;
 import template.TemplateEngine;
@@ -65,7 +66,7 @@ public class TestsRoute extends Handler implements Get {
         String body = this.templateEngine.compile("frontend/templates/tests.th", new Data(currentUser));
 
         // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
+        HeaderBlock headers = Handler.HTML_HEADERS;
 
         return new Response(
                 new Response.StatusLine(ResponseCode.OK),
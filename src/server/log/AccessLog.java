@@ -0,0 +1,257 @@
+package server.log;
+
+import server.request.Request;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logs the requests served by a {@link server.WebServer} without making them wait on the log.
+ * Threads serving requests only capture the fields of each request into a lock-free {@link RingBuffer},
+ * and a single background thread formats the entries and writes them to a {@link LogOutput} in batches.
+ * When the buffer is full, for example because the output cannot keep up, entries are dropped and counted
+ * rather than slowing down requests, and the count is written to the log once there is room.
+ * Requests can be sampled to reduce the volume of the log, though server errors are always logged
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class AccessLog implements AutoCloseable {
+    /** The default number of entries which can wait to be written */
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    /** The maximum number of entries written in one batch */
+    private static final int BATCH_SIZE = 512;
+
+    /** The time in nanoseconds the background thread waits for new entries once it has caught up */
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** The entries waiting to be written */
+    private final RingBuffer<AccessLogEntry> buffer;
+
+    /** The destination of the lines */
+    private final LogOutput output;
+
+    /** The fraction of requests which are logged */
+    private final double sampleRate;
+
+    /** The number of entries added to the buffer */
+    private final LongAdder logged;
+
+    /** The number of entries dropped because the buffer was full */
+    private final LongAdder dropped;
+
+    /** Whether entries are still being accepted */
+    private volatile boolean running;
+
+    /** The thread writing entries, or null if it has not been started */
+    private Thread thread;
+
+    /**
+     * Constructs a log which logs every request
+     * @param output the destination of the lines
+     */
+    public AccessLog(LogOutput output) {
+        this(output, DEFAULT_CAPACITY, 1);
+    }
+
+    /**
+     * Constructs a log with a buffer size and sample rate
+     * @param output the destination of the lines
+     * @param capacity the number of entries which can wait to be written before further entries are dropped
+     * @param sampleRate the fraction of requests which are logged, from 0 to 1
+     * @throws IllegalArgumentException if the capacity is not positive or the sample rate is not between 0 and 1
+     */
+    public AccessLog(LogOutput output, int capacity, double sampleRate) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+        }
+
+        this.buffer = new RingBuffer<>(capacity);
+        this.output = output;
+        this.sampleRate = sampleRate;
+        this.logged = new LongAdder();
+        this.dropped = new LongAdder();
+        this.running = true;
+    }
+
+    /**
+     * start
+     * starts writing entries on a daemon thread
+     */
+    public synchronized void start() {
+        if (this.thread != null) {
+            return;
+        }
+
+        this.thread = new Thread(this::run, "access-log");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * log
+     * adds a served request to the log, without waiting for it to be written.
+     * Can be called by any number of threads at once
+     * @param req the request, whose route pattern has been set if it matched a route
+     * @param status the status code of the response
+     * @param bytes the number of bytes of the response written to the client
+     * @param parseNanos the time in nanoseconds taken to parse the request
+     * @param handleNanos the time in nanoseconds taken by the handler
+     * @param writeNanos the time in nanoseconds taken to write the response
+     */
+    public void log(Request req, int status, long bytes, long parseNanos, long handleNanos, long writeNanos) {
+        if (!this.running) {
+            return;
+        }
+
+        // Server errors are kept regardless of sampling
+        if ((status < 500) && (this.sampleRate < 1) && (ThreadLocalRandom.current().nextDouble() >= this.sampleRate)) {
+            return;
+        }
+
+        AccessLogEntry entry = new AccessLogEntry(
+                System.currentTimeMillis(), req.getStatusLine(), status, bytes, parseNanos, handleNanos, writeNanos
+        );
+
+        if (this.buffer.offer(entry)) {
+            this.logged.increment();
+        } else {
+            this.dropped.increment();
+        }
+    }
+
+    /**
+     * getLogged
+     * gets the number of requests accepted into the log, which does not include requests left out by sampling
+     * @return the number of entries logged
+     */
+    public long getLogged() {
+        return this.logged.sum();
+    }
+
+    /**
+     * getDropped
+     * gets the number of requests which were not logged because too many entries were waiting to be written
+     * @return the number of entries dropped
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * close
+     * stops accepting entries, waits for the waiting entries to be written, and closes the output
+     */
+    @Override
+    public void close() {
+        Thread thread;
+
+        synchronized (this) {
+            this.running = false;
+            thread = this.thread;
+        }
+
+        // Never started, so nothing is waiting
+        if (thread == null) {
+            try {
+                this.output.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+
+            return;
+        }
+
+        LockSupport.unpark(thread);
+
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * run
+     * writes entries in batches until the log is closed.
+     * The thread sleeps briefly whenever it catches up, so entries arriving in the meantime are written together
+     * and threads serving requests never have to wake it
+     */
+    private void run() {
+        StringBuilder batch = new StringBuilder();
+        long reportedDropped = 0;
+        boolean failed = false;
+
+        while (true) {
+            // Read before draining, so every entry added before closing is written
+            boolean running = this.running;
+
+            int count = 0;
+            AccessLogEntry entry;
+
+            while ((count < BATCH_SIZE) && ((entry = this.buffer.poll()) != null)) {
+                entry.format(batch);
+                count++;
+            }
+
+            // Record entries dropped since the last batch
+            long dropped = this.dropped.sum();
+
+            if (dropped != reportedDropped) {
+                batch.append("time=");
+                DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(System.currentTimeMillis()), batch);
+                batch.append(" dropped=").append(dropped - reportedDropped).append('\n');
+
+                reportedDropped = dropped;
+            }
+
+            try {
+                if (batch.length() > 0) {
+                    this.output.write(batch);
+                }
+
+                // Flush once caught up
+                if (count < BATCH_SIZE) {
+                    this.output.flush();
+                }
+
+                failed = false;
+            } catch (IOException e) {
+                // Reported once rather than for every batch while the output is failing
+                if (!failed) {
+                    e.printStackTrace();
+                    System.out.println("Failed to write access log");
+                }
+
+                failed = true;
+            }
+
+            batch.setLength(0);
+
+            if (count == BATCH_SIZE) {
+                continue;
+            }
+
+            if (!running) {
+                break;
+            }
+
+            LockSupport.parkNanos(IDLE_WAIT);
+        }
+
+        try {
+            this.output.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
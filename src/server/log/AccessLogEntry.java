@@ -0,0 +1,137 @@
+package server.log;
+
+import server.request.Request;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Holds the fields of a single served request, captured on the thread which served it.
+ * Fields are only formatted into a line on the background thread of the {@link AccessLog}
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class AccessLogEntry {
+    /** The time in milliseconds since the epoch at which the response was written */
+    private final long time;
+
+    /** The status line of the request */
+    private final Request.StatusLine request;
+
+    /** The status code of the response */
+    private final int status;
+
+    /** The number of bytes of the response written to the client */
+    private final long bytes;
+
+    /** The time in nanoseconds taken to parse the request */
+    private final long parseNanos;
+
+    /** The time in nanoseconds taken by the handler */
+    private final long handleNanos;
+
+    /** The time in nanoseconds taken to write the response */
+    private final long writeNanos;
+
+    /**
+     * Constructs an entry
+     * @param time the time in milliseconds since the epoch at which the response was written
+     * @param request the status line of the request
+     * @param status the status code of the response
+     * @param bytes the number of bytes of the response written to the client
+     * @param parseNanos the time in nanoseconds taken to parse the request
+     * @param handleNanos the time in nanoseconds taken by the handler
+     * @param writeNanos the time in nanoseconds taken to write the response
+     */
+    AccessLogEntry(long time, Request.StatusLine request, int status, long bytes, long parseNanos, long handleNanos, long writeNanos) {
+        this.time = time;
+        this.request = request;
+        this.status = status;
+        this.bytes = bytes;
+        this.parseNanos = parseNanos;
+        this.handleNanos = handleNanos;
+        this.writeNanos = writeNanos;
+    }
+
+    /**
+     * format
+     * appends the entry as a line of {@code key=value} fields, which is both readable and easily parsed
+     * @param out the batch of lines being written
+     */
+    void format(StringBuilder out) {
+        out.append("time=");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(this.time), out);
+
+        out.append(" method=").append(this.request.getMethod());
+        out.append(" url=");
+        quote(out, this.request.getUrl());
+        out.append(" protocol=").append(this.request.getProtocol());
+
+        // Requests which did not match a route have none
+        if (this.request.getRoute() != null) {
+            out.append(" route=");
+            quote(out, this.request.getRoute());
+        }
+
+        out.append(" status=").append(this.status);
+        out.append(" bytes=").append(this.bytes);
+
+        out.append(" duration_ms=");
+        millis(out, this.parseNanos + this.handleNanos + this.writeNanos);
+        out.append(" parse_ms=");
+        millis(out, this.parseNanos);
+        out.append(" handler_ms=");
+        millis(out, this.handleNanos);
+        out.append(" write_ms=");
+        millis(out, this.writeNanos);
+
+        out.append('\n');
+    }
+
+    /**
+     * quote
+     * appends a value in quotes, escaping characters which would break the line apart
+     * @param out the batch of lines being written
+     * @param value the value
+     */
+    private static void quote(StringBuilder out, String value) {
+        out.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if ((c == '"') || (c == '\\')) {
+                out.append('\\').append(c);
+            } else if (c < ' ') {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+
+        out.append('"');
+    }
+
+    /**
+     * millis
+     * appends a duration in milliseconds with microsecond precision
+     * @param out the batch of lines being written
+     * @param nanos the duration in nanoseconds
+     */
+    private static void millis(StringBuilder out, long nanos) {
+        long micros = nanos / 1000;
+        long fraction = micros % 1000;
+
+        out.append(micros / 1000).append('.');
+
+        if (fraction < 100) {
+            out.append('0');
+        }
+
+        if (fraction < 10) {
+            out.append('0');
+        }
+
+        out.append(fraction);
+    }
+}
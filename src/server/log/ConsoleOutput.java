@@ -0,0 +1,56 @@
+package server.log;
+
+import java.io.PrintStream;
+
+/**
+ * Writes the lines of an {@link AccessLog} to the console
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ConsoleOutput implements LogOutput {
+    /** The stream of the console */
+    private final PrintStream out;
+
+    /**
+     * Constructs an output which writes to standard output
+     */
+    public ConsoleOutput() {
+        this(System.out);
+    }
+
+    /**
+     * Constructs an output which writes to a stream
+     * @param out the stream, such as standard output or standard error
+     */
+    public ConsoleOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * write
+     * prints a batch of lines at once
+     * @param lines the lines, each ending with a newline
+     */
+    @Override
+    public void write(CharSequence lines) {
+        this.out.append(lines);
+    }
+
+    /**
+     * flush
+     * flushes the stream
+     */
+    @Override
+    public void flush() {
+        this.out.flush();
+    }
+
+    /**
+     * close
+     * flushes the stream, which is left open since it belongs to the console
+     */
+    @Override
+    public void close() {
+        this.out.flush();
+    }
+}
@@ -0,0 +1,27 @@
+package server.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A destination of the lines written by an {@link AccessLog}.
+ * Outputs are only used by the background thread of the log, so they do not need to be thread safe
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public interface LogOutput extends Closeable {
+    /**
+     * write
+     * writes a batch of complete lines
+     * @param lines the lines, each ending with a newline
+     * @throws IOException if the lines cannot be written
+     */
+    void write(CharSequence lines) throws IOException;
+
+    /**
+     * flush
+     * pushes any buffered lines to their destination, which is done whenever the log has caught up
+     * @throws IOException if the lines cannot be written
+     */
+    void flush() throws IOException;
+}
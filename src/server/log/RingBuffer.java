@@ -0,0 +1,110 @@
+package server.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded queue which many threads can add to and a single thread takes from, without locking.
+ * Each slot holds a sequence number telling producers whether it is free and the consumer whether it has been filled,
+ * so producers only contend on claiming the next position and never wait for each other or the consumer.
+ * When the buffer is full, elements are rejected rather than waited for
+ * @param <E> the type of the elements
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class RingBuffer<E> {
+    /** The elements, indexed by position modulo the capacity */
+    private final Object[] slots;
+
+    /**
+     * The sequence of each slot. A slot whose sequence equals a position is free to be filled at that position,
+     * and one whose sequence is one past a position holds the element at that position
+     */
+    private final AtomicLongArray sequences;
+
+    /** Maps a position to its slot, since the capacity is a power of two */
+    private final int mask;
+
+    /** The next position to be claimed by a producer */
+    private final AtomicLong tail;
+
+    /** The next position to be taken by the consumer, which is only accessed by the consumer thread */
+    private long head;
+
+    /**
+     * Constructs an empty ring buffer
+     * @param capacity the minimum number of elements the buffer can hold, which is rounded up to a power of two
+     */
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * offer
+     * adds an element to the buffer. Can be called by any number of threads at once
+     * @param element the element
+     * @return whether the element was added, which is false if the buffer is full
+     */
+    boolean offer(E element) {
+        long position;
+        int index;
+
+        // Claim the next free slot
+        while (true) {
+            position = this.tail.get();
+            index = (int) (position & this.mask);
+
+            long sequence = this.sequences.get(index);
+
+            if (sequence == position) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                // The slot still holds the element from the previous lap
+                return false;
+            }
+
+            // Another producer claimed the position first
+        }
+
+        this.slots[index] = element;
+
+        // Publishes the element to the consumer
+        this.sequences.set(index, position + 1);
+
+        return true;
+    }
+
+    /**
+     * poll
+     * takes the oldest element from the buffer. Must only be called by the consumer thread
+     * @return the element, or null if the buffer is empty or the oldest element is still being added
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) (this.head & this.mask);
+
+        if (this.sequences.get(index) != this.head + 1) {
+            return null;
+        }
+
+        E element = (E) this.slots[index];
+        this.slots[index] = null;
+
+        // Frees the slot for the next lap
+        this.sequences.set(index, this.head + this.slots.length);
+        this.head++;
+
+        return element;
+    }
+}
@@ -0,0 +1,145 @@
+package server.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the lines of an {@link AccessLog} to a file, which is rotated once it reaches a size limit.
+ * On rotation, {@code access.log} is renamed to {@code access.log.1}, {@code access.log.1} to {@code access.log.2},
+ * and so on, dropping the oldest file once the configured number of rotated files is kept
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RotatingFileOutput implements LogOutput {
+    /** The path of the file being written */
+    private final Path path;
+
+    /** The size in bytes at which the file is rotated */
+    private final long maxFileSize;
+
+    /** The number of rotated files kept */
+    private final int maxFiles;
+
+    /** The stream appending to the file */
+    private OutputStream out;
+
+    /** The size of the file in bytes */
+    private long size;
+
+    /**
+     * Constructs an output which appends to a file, creating it if it does not exist
+     * @param path the path of the file
+     * @param maxFileSize the size in bytes at which the file is rotated
+     * @param maxFiles the number of rotated files kept, or 0 to discard the file when it is rotated
+     * @throws IOException if the file cannot be opened
+     * @throws IllegalArgumentException if the size is not positive or the number of files is negative
+     */
+    public RotatingFileOutput(String path, long maxFileSize, int maxFiles) throws IOException {
+        if (maxFileSize <= 0) {
+            throw new IllegalArgumentException("maxFileSize must be positive");
+        }
+
+        if (maxFiles < 0) {
+            throw new IllegalArgumentException("maxFiles cannot be negative");
+        }
+
+        this.path = Paths.get(path);
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+
+        this.open();
+    }
+
+    /**
+     * write
+     * appends a batch of lines, rotating the file first if they would take it past the size limit
+     * @param lines the lines, each ending with a newline
+     * @throws IOException if the lines cannot be written or the file cannot be rotated
+     */
+    @Override
+    public void write(CharSequence lines) throws IOException {
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+
+        if ((this.size > 0) && (this.size + bytes.length > this.maxFileSize)) {
+            this.rotate();
+        }
+
+        this.out.write(bytes);
+        this.size += bytes.length;
+    }
+
+    /**
+     * flush
+     * flushes the file stream
+     * @throws IOException if the stream cannot be flushed
+     */
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    /**
+     * close
+     * closes the file
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+    /**
+     * open
+     * opens the file for appending
+     * @throws IOException if the file cannot be opened
+     */
+    private void open() throws IOException {
+        if (this.path.getParent() != null) {
+            Files.createDirectories(this.path.getParent());
+        }
+
+        this.out = Files.newOutputStream(this.path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.size = Files.size(this.path);
+    }
+
+    /**
+     * rotate
+     * moves each rotated file one place along, moves the current file into the first place, and starts a new file
+     * @throws IOException if the files cannot be moved or the new file cannot be opened
+     */
+    private void rotate() throws IOException {
+        this.out.close();
+
+        if (this.maxFiles == 0) {
+            Files.delete(this.path);
+        } else {
+            for (int i = this.maxFiles - 1; i >= 1; i--) {
+                Path rotated = this.rotatedPath(i);
+
+                if (Files.exists(rotated)) {
+                    Files.move(rotated, this.rotatedPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+
+            Files.move(this.path, this.rotatedPath(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        this.open();
+    }
+
+    /**
+     * rotatedPath
+     * gets the path of a rotated file
+     * @param index the place of the file, where 1 is the most recently rotated
+     * @return the path
+     */
+    private Path rotatedPath(int index) {
+        return this.path.resolveSibling(this.path.getFileName() + "." + index);
+    }
+}
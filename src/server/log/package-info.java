@@ -0,0 +1,6 @@
+/**
+ * A package containing classes to log the requests served by the web server without slowing them down
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package server.log;
@@ -26,6 +26,9 @@ public class Request {
     /** a map of all cookies from the headers */
     private final Map<String, String> cookies;
 
+    /** whether the connection must be closed after responding, because the framing of the request was ambiguous */
+    private boolean closeRequired;
+
     /**
      * Constructs an HTTP request with a status line, headers, and body
      * @param statusLine the HTTP requests status line
@@ -73,6 +76,28 @@ public class Request {
         return this.headers;
     }
 
+    /**
+     * getHeader
+     * gets the value of a header, ignoring the case of its name
+     * @param name the name of the header
+     * @return the header value or null if the request does not contain the header
+     */
+    public String getHeader(String name) {
+        String value = this.headers.get(name);
+
+        if (value != null) {
+            return value;
+        }
+
+        for (Map.Entry<String, String> header : this.headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+
+        return null;
+    }
+
     /**
      * getBody
      * gets the body of the request
@@ -82,6 +107,24 @@ public class Request {
         return this.body;
     }
 
+    /**
+     * requireClose
+     * marks the connection the request arrived on to be closed after the response,
+     * so bytes the client meant as a different request can never be read as the next one
+     */
+    void requireClose() {
+        this.closeRequired = true;
+    }
+
+    /**
+     * isCloseRequired
+     * determines if the connection must be closed after responding to the request
+     * @return whether the connection cannot be kept alive
+     */
+    public boolean isCloseRequired() {
+        return this.closeRequired;
+    }
+
     /**
      * getCookies
      * gets the cookies of the request
@@ -136,9 +179,19 @@ public class Request {
         }
 
         // Request body
-        Map<String, String> body = new HashMap<>();
+        Map<String, String> body = parseBody(lines.get(lines.size() - 1));
 
-        String rawBody = lines.get(lines.size() - 1);
+        return new Request(statusLine, headers, body);
+    }
+
+    /**
+     * parseBody
+     * parses a URL encoded request body into its key value pairs
+     * @param rawBody the request body as a string
+     * @return a map of all key value pairs in the body
+     */
+    public static Map<String, String> parseBody(String rawBody) {
+        Map<String, String> body = new HashMap<>();
 
         if (rawBody.length() > 0) {
             String[] bodyPairs = rawBody.split("&");
@@ -156,8 +209,7 @@ public class Request {
             }
         }
 
-        // Request body
-        return new Request(statusLine, headers, body);
+        return body;
     }
 
     /**
@@ -185,6 +237,9 @@ public class Request {
         /** the route parameters of the request, which must be parsed and populated according to a {@link URL}*/
         private Map<String, String> routeParams;
 
+        /** the pattern of the route which matched the request, or null if no route matched */
+        private String route;
+
         /**
          * Constructs a status line with a method, url, and protocol
          * @param method the request method
@@ -245,6 +300,33 @@ public class Request {
             }
         }
 
+        /**
+         * setRouteParams
+         * sets the route parameters of the request, as extracted by the {@link server.handler.Router} which matched it
+         * @param routeParams a map of route parameter names to values
+         */
+        public void setRouteParams(Map<String, String> routeParams) {
+            this.routeParams = routeParams;
+        }
+
+        /**
+         * setRoute
+         * sets the pattern of the route which matched the request, such as {@code /problems/:problemId}
+         * @param route the route pattern
+         */
+        public void setRoute(String route) {
+            this.route = route;
+        }
+
+        /**
+         * getRoute
+         * gets the pattern of the route which matched the request
+         * @return the route pattern, or null if no route matched the request
+         */
+        public String getRoute() {
+            return this.route;
+        }
+
         /**
          * getMethod
          * gets the request method
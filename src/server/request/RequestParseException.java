@@ -0,0 +1,33 @@
+package server.request;
+
+import server.response.ResponseCode;
+
+/**
+ * This exception should be thrown if the bytes sent by a client cannot be parsed into a valid {@link Request}.
+ * It carries the response code which should be sent back to the client before the connection is closed.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RequestParseException extends Exception {
+    /** The response code describing the error */
+    private final ResponseCode code;
+
+    /**
+     * Constructs a RequestParseException with a response code and an error message
+     * @param code the response code describing the error
+     * @param message the error message
+     */
+    public RequestParseException(ResponseCode code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+    /**
+     * getCode
+     * gets the response code which should be sent to the client
+     * @return the response code
+     */
+    public ResponseCode getCode() {
+        return this.code;
+    }
+}
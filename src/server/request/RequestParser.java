@@ -0,0 +1,528 @@
+package server.request;
+
+import server.response.ResponseCode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An incremental parser which builds {@link Request Requests} directly from the raw bytes sent by a client.
+ * Bytes can be fed to the parser in pieces of any size as they arrive; the parser remembers its progress
+ * between calls and produces a request once it has been fully received. The body is framed by either the
+ * {@code Content-Length} header or {@code Transfer-Encoding: chunked}, and the sizes of the headers and body
+ * are limited. The parser reuses its buffers and can be used for any number of requests on one connection.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RequestParser {
+    /** The initial size of the body buffer */
+    private static final int INITIAL_BODY_SIZE = 8192;
+
+    /** The maximum size of the status line and headers in bytes */
+    private final int maxHeaderSize;
+
+    /** The maximum size of the body in bytes */
+    private final int maxBodySize;
+
+    /** Holds the status line and headers, and then any chunk size or trailer lines */
+    private final ByteBuffer head;
+
+    /** Holds the body of the request */
+    private ByteBuffer body;
+
+    /** The part of the request currently being read */
+    private State state;
+
+    /** The parsed status line of the current request */
+    private Request.StatusLine statusLine;
+
+    /** The parsed headers of the current request */
+    private Map<String, String> headers;
+
+    /** The number of bytes left to read in the body or current chunk */
+    private int remaining;
+
+    /** Whether the current request is framed by both Content-Length and chunked encoding */
+    private boolean ambiguous;
+
+    /**
+     * Constructs a request parser with size limits
+     * @param maxHeaderSize the maximum size of the status line and headers in bytes
+     * @param maxBodySize the maximum size of the body in bytes
+     * @throws IllegalArgumentException if either limit is not positive
+     */
+    public RequestParser(int maxHeaderSize, int maxBodySize) {
+        if ((maxHeaderSize <= 0) || (maxBodySize <= 0)) {
+            throw new IllegalArgumentException("size limits must be positive");
+        }
+
+        this.maxHeaderSize = maxHeaderSize;
+        this.maxBodySize = maxBodySize;
+        this.head = ByteBuffer.allocate(maxHeaderSize);
+        this.body = ByteBuffer.allocate(Math.min(INITIAL_BODY_SIZE, maxBodySize));
+        this.state = State.HEAD;
+    }
+
+    /**
+     * parse
+     * consumes bytes from the input until a full request has been read or the input runs out.
+     * Any bytes following a complete request are left in the input.
+     * @param input the bytes received from the client, ready to be read
+     * @return the parsed request, or null if more bytes are needed
+     * @throws RequestParseException if the bytes do not form a valid request or exceed the size limits
+     */
+    public Request parse(ByteBuffer input) throws RequestParseException {
+        while (this.state != State.COMPLETE) {
+            if (!input.hasRemaining()) {
+                return null;
+            }
+
+            switch (this.state) {
+                case HEAD:
+                    this.readHead(input);
+                    break;
+                case BODY:
+                    this.readBody(input, State.COMPLETE);
+                    break;
+                case CHUNK_SIZE:
+                    this.readChunkSize(input);
+                    break;
+                case CHUNK_DATA:
+                    this.readBody(input, State.CHUNK_END);
+                    break;
+                case CHUNK_END:
+                    this.readChunkEnd(input);
+                    break;
+                case TRAILERS:
+                    this.readTrailers(input);
+                    break;
+            }
+        }
+
+        // Build the request
+        String rawBody = new String(this.body.array(), 0, this.body.position(), StandardCharsets.UTF_8);
+        Request req = new Request(this.statusLine, this.headers, Request.parseBody(rawBody));
+
+        if (this.ambiguous) {
+            req.requireClose();
+        }
+
+        this.reset();
+
+        return req;
+    }
+
+    /**
+     * isIdle
+     * determines if the parser is between requests, with no bytes of the next request received
+     * @return if no part of a request has been received
+     */
+    public boolean isIdle() {
+        return (this.state == State.HEAD) && (this.head.position() == 0);
+    }
+
+    /**
+     * isReadingBody
+     * determines if the parser has received the full head of a request and is waiting for its body
+     * @return if the body of a request is being received
+     */
+    public boolean isReadingBody() {
+        return this.state != State.HEAD;
+    }
+
+    /**
+     * reset
+     * discards any partially parsed request so the parser can be used for a new request
+     */
+    public void reset() {
+        this.head.clear();
+        this.statusLine = null;
+        this.headers = null;
+        this.remaining = 0;
+        this.ambiguous = false;
+        this.state = State.HEAD;
+
+        // Release body buffers grown for large requests
+        if (this.body.capacity() > INITIAL_BODY_SIZE) {
+            this.body = ByteBuffer.allocate(INITIAL_BODY_SIZE);
+        } else {
+            this.body.clear();
+        }
+    }
+
+    /**
+     * readHead
+     * reads the status line and headers until the blank line which ends them
+     * @param input the bytes received from the client
+     * @throws RequestParseException if the head is too large or malformed
+     */
+    private void readHead(ByteBuffer input) throws RequestParseException {
+        byte[] bytes = this.head.array();
+
+        while (input.hasRemaining()) {
+            byte b = input.get();
+
+            // Ignore line breaks preceding the status line
+            if ((this.head.position() == 0) && ((b == '\r') || (b == '\n'))) {
+                continue;
+            }
+
+            if (!this.head.hasRemaining()) {
+                throw new RequestParseException(ResponseCode.REQUEST_HEADER_FIELDS_TOO_LARGE, "Request headers exceed " + this.maxHeaderSize + " bytes");
+            }
+
+            this.head.put(b);
+
+            int length = this.head.position();
+
+            // A blank line ends the headers
+            if ((b == '\n') && (length >= 2) && ((bytes[length - 2] == '\n') || ((length >= 4) && (bytes[length - 2] == '\r') && (bytes[length - 3] == '\n')))) {
+                this.parseHead(bytes, length);
+                return;
+            }
+        }
+    }
+
+    /**
+     * parseHead
+     * parses the status line and headers and determines how the body is framed.
+     * Conflicting lengths are rejected, and a request framed both ways is read as chunked and ends its connection,
+     * as RFC 9112 section 6.3 requires, since another server may have framed it differently
+     * @param bytes the bytes of the head
+     * @param length the number of bytes in the head
+     * @throws RequestParseException if the head is malformed, has conflicting lengths, or announces a body which is too large
+     */
+    private void parseHead(byte[] bytes, int length) throws RequestParseException {
+        this.headers = new HashMap<>();
+
+        int contentLength = -1;
+        boolean chunked = false;
+
+        int lineStart = 0;
+
+        while (lineStart < length) {
+            // Find the end of the line
+            int lineEnd = lineStart;
+
+            while ((lineEnd < length) && (bytes[lineEnd] != '\n')) {
+                lineEnd++;
+            }
+
+            int nextLine = lineEnd + 1;
+
+            if ((lineEnd > lineStart) && (bytes[lineEnd - 1] == '\r')) {
+                lineEnd--;
+            }
+
+            if (this.statusLine == null) {
+                // e.g. GET / HTTP/1.1
+                this.statusLine = parseStatusLine(bytes, lineStart, lineEnd);
+            } else if (lineEnd > lineStart) {
+                // e.g. Content-Type: text/html
+                int colon = indexOf(bytes, lineStart, lineEnd, (byte) ':');
+
+                if (colon <= lineStart) {
+                    throw new RequestParseException(ResponseCode.BAD_REQUEST, "Malformed header");
+                }
+
+                String name = ascii(bytes, lineStart, colon);
+                String value = ascii(bytes, colon + 1, lineEnd).trim();
+
+                // Repeated headers are combined into a list
+                this.headers.merge(name, value, (first, second) -> first + ", " + second);
+
+                if (name.equalsIgnoreCase("Content-Length")) {
+                    int parsed;
+
+                    try {
+                        parsed = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        throw new RequestParseException(ResponseCode.BAD_REQUEST, "Invalid Content-Length " + value);
+                    }
+
+                    if (parsed < 0) {
+                        throw new RequestParseException(ResponseCode.BAD_REQUEST, "Invalid Content-Length " + value);
+                    }
+
+                    // Repeating the same length is allowed, but differing lengths leave the body undefined
+                    if ((contentLength != -1) && (parsed != contentLength)) {
+                        throw new RequestParseException(ResponseCode.BAD_REQUEST, "Conflicting Content-Length headers");
+                    }
+
+                    // Kept as one length rather than a list of the repeated ones
+                    contentLength = parsed;
+                    this.headers.put(name, value);
+                }
+
+                if (name.equalsIgnoreCase("Transfer-Encoding") && value.toLowerCase().contains("chunked")) {
+                    chunked = true;
+                }
+            }
+
+            lineStart = nextLine;
+        }
+
+        // Reuse the head buffer for chunk size and trailer lines
+        this.head.clear();
+
+        // Chunked encoding takes precedence over Content-Length
+        if (chunked) {
+            this.ambiguous = contentLength != -1;
+            this.state = State.CHUNK_SIZE;
+        } else if (contentLength > 0) {
+            this.ensureBodyCapacity(contentLength);
+            this.remaining = contentLength;
+            this.state = State.BODY;
+        } else {
+            this.state = State.COMPLETE;
+        }
+    }
+
+    /**
+     * readBody
+     * copies bytes of the body or current chunk into the body buffer
+     * @param input the bytes received from the client
+     * @param next the state to move to once all the bytes have been read
+     */
+    private void readBody(ByteBuffer input, State next) {
+        int count = Math.min(this.remaining, input.remaining());
+
+        // Copy without going through an intermediate array
+        int limit = input.limit();
+        input.limit(input.position() + count);
+        this.body.put(input);
+        input.limit(limit);
+
+        this.remaining -= count;
+
+        if (this.remaining == 0) {
+            this.state = next;
+        }
+    }
+
+    /**
+     * readChunkSize
+     * reads the line announcing the size of the next chunk
+     * @param input the bytes received from the client
+     * @throws RequestParseException if the size is malformed or the body grows too large
+     */
+    private void readChunkSize(ByteBuffer input) throws RequestParseException {
+        if (!this.readLine(input)) {
+            return;
+        }
+
+        String line = this.line();
+
+        // Ignore chunk extensions
+        int extension = line.indexOf(';');
+
+        if (extension != -1) {
+            line = line.substring(0, extension);
+        }
+
+        int size;
+
+        try {
+            size = Integer.parseInt(line.trim(), 16);
+        } catch (NumberFormatException e) {
+            throw new RequestParseException(ResponseCode.BAD_REQUEST, "Invalid chunk size " + line);
+        }
+
+        if (size < 0) {
+            throw new RequestParseException(ResponseCode.BAD_REQUEST, "Invalid chunk size " + line);
+        }
+
+        this.head.clear();
+
+        // The last chunk has a size of 0
+        if (size == 0) {
+            this.state = State.TRAILERS;
+            return;
+        }
+
+        this.ensureBodyCapacity(size);
+        this.remaining = size;
+        this.state = State.CHUNK_DATA;
+    }
+
+    /**
+     * readChunkEnd
+     * reads the line break following the data of a chunk
+     * @param input the bytes received from the client
+     * @throws RequestParseException if the line is too long
+     */
+    private void readChunkEnd(ByteBuffer input) throws RequestParseException {
+        if (this.readLine(input)) {
+            this.head.clear();
+            this.state = State.CHUNK_SIZE;
+        }
+    }
+
+    /**
+     * readTrailers
+     * reads and discards the trailer headers following the last chunk until a blank line is reached
+     * @param input the bytes received from the client
+     * @throws RequestParseException if a trailer is too long
+     */
+    private void readTrailers(ByteBuffer input) throws RequestParseException {
+        while (this.readLine(input)) {
+            boolean blankLine = this.line().isEmpty();
+
+            this.head.clear();
+
+            if (blankLine) {
+                this.state = State.COMPLETE;
+                return;
+            }
+        }
+    }
+
+    /**
+     * readLine
+     * reads bytes into the head buffer until the end of a line
+     * @param input the bytes received from the client
+     * @return whether a full line has been read
+     * @throws RequestParseException if the line does not fit in the head buffer
+     */
+    private boolean readLine(ByteBuffer input) throws RequestParseException {
+        while (input.hasRemaining()) {
+            byte b = input.get();
+
+            if (b == '\n') {
+                return true;
+            }
+
+            if (!this.head.hasRemaining()) {
+                throw new RequestParseException(ResponseCode.REQUEST_HEADER_FIELDS_TOO_LARGE, "Line exceeds " + this.maxHeaderSize + " bytes");
+            }
+
+            this.head.put(b);
+        }
+
+        return false;
+    }
+
+    /**
+     * line
+     * gets the line held in the head buffer without its line break
+     * @return the line as a string
+     */
+    private String line() {
+        int length = this.head.position();
+
+        if ((length > 0) && (this.head.get(length - 1) == '\r')) {
+            length--;
+        }
+
+        return ascii(this.head.array(), 0, length);
+    }
+
+    /**
+     * ensureBodyCapacity
+     * grows the body buffer so that it can hold additional bytes
+     * @param additional the number of bytes which will be added to the body
+     * @throws RequestParseException if the body would exceed the maximum body size
+     */
+    private void ensureBodyCapacity(int additional) throws RequestParseException {
+        long required = (long) this.body.position() + additional;
+
+        if (required > this.maxBodySize) {
+            throw new RequestParseException(ResponseCode.PAYLOAD_TOO_LARGE, "Request body exceeds " + this.maxBodySize + " bytes");
+        }
+
+        if (required > this.body.capacity()) {
+            int capacity = (int) Math.min(this.maxBodySize, Math.max(required, (long) this.body.capacity() * 2));
+
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            this.body.flip();
+            grown.put(this.body);
+            this.body = grown;
+        }
+    }
+
+    /**
+     * parseStatusLine
+     * parses the first line of a request
+     * @param bytes the bytes of the head
+     * @param start the index of the start of the line
+     * @param end the index of the end of the line, excluding the line break
+     * @return the parsed status line
+     * @throws RequestParseException if the line is malformed or uses an unknown method
+     */
+    private static Request.StatusLine parseStatusLine(byte[] bytes, int start, int end) throws RequestParseException {
+        int firstSpace = indexOf(bytes, start, end, (byte) ' ');
+        int secondSpace = indexOf(bytes, firstSpace + 1, end, (byte) ' ');
+
+        if ((firstSpace == -1) || (secondSpace == -1)) {
+            throw new RequestParseException(ResponseCode.BAD_REQUEST, "Malformed status line");
+        }
+
+        RequestMethod method;
+
+        try {
+            method = RequestMethod.valueOf(ascii(bytes, start, firstSpace));
+        } catch (IllegalArgumentException e) {
+            throw new RequestParseException(ResponseCode.BAD_REQUEST, "Unknown request method");
+        }
+
+        String url = ascii(bytes, firstSpace + 1, secondSpace);
+        String protocol = ascii(bytes, secondSpace + 1, end);
+
+        return new Request.StatusLine(method, url, protocol);
+    }
+
+    /**
+     * indexOf
+     * finds the first occurrence of a byte in a range
+     * @param bytes the bytes to search
+     * @param start the index to start searching from
+     * @param end the index to stop searching at, exclusive
+     * @param target the byte to find
+     * @return the index of the byte or -1 if it is not in the range
+     */
+    private static int indexOf(byte[] bytes, int start, int end, byte target) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * ascii
+     * decodes a range of bytes from the head of a request
+     * @param bytes the bytes to decode
+     * @param start the index of the first byte
+     * @param end the index after the last byte
+     * @return the decoded string
+     */
+    private static String ascii(byte[] bytes, int start, int end) {
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * The parts of a request which the parser can be reading
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private enum State {
+        /** The status line and headers */
+        HEAD,
+        /** A body framed by Content-Length */
+        BODY,
+        /** The line announcing the size of a chunk */
+        CHUNK_SIZE,
+        /** The data of a chunk */
+        CHUNK_DATA,
+        /** The line break following the data of a chunk */
+        CHUNK_END,
+        /** The trailer headers following the last chunk */
+        TRAILERS,
+        /** A full request has been read */
+        COMPLETE,
+    }
+}
@@ -0,0 +1,21 @@
+package server.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the body of a {@link StreamingResponse} incrementally, after the head of the response has been sent.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@FunctionalInterface
+public interface BodyWriter {
+    /**
+     * write
+     * writes the body of the response.
+     * The stream must not be closed by the writer, as the server terminates the body itself
+     * @param out the stream to write the body to
+     * @throws IOException if an error occurs while writing to the client
+     */
+    void write(OutputStream out) throws IOException;
+}
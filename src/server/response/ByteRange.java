@@ -0,0 +1,190 @@
+package server.response;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a range of bytes of a body requested with the {@code Range} header,
+ * and parses the header against the length of the body it applies to.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public final class ByteRange {
+    /** The largest number of ranges served in one response, so a request cannot split a body into many tiny parts */
+    private static final int MAX_RANGES = 16;
+
+    /** The index of the first byte in the range */
+    private final int start;
+
+    /** The index of the last byte in the range, inclusive */
+    private final int end;
+
+    /**
+     * Constructs a range of bytes
+     * @param start the index of the first byte
+     * @param end the index of the last byte, inclusive
+     */
+    private ByteRange(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * parse
+     * parses the {@code Range} header of a request.
+     * Headers which are malformed, use a unit other than bytes, or request too many ranges are ignored,
+     * in which case the whole body should be sent
+     * @param range the value of the header
+     * @param length the length of the body in bytes
+     * @return the satisfiable ranges, which is empty if none of the ranges can be satisfied, or null if the header is ignored
+     */
+    public static List<ByteRange> parse(String range, int length) {
+        if ((range == null) || !range.regionMatches(true, 0, "bytes=", 0, 6)) {
+            return null;
+        }
+
+        String[] specs = range.substring(6).split(",");
+
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+
+        for (String spec : specs) {
+            spec = spec.trim();
+
+            int dash = spec.indexOf('-');
+
+            if (dash == -1) {
+                return null;
+            }
+
+            long first;
+            long last;
+
+            try {
+                first = parseNumber(spec.substring(0, dash));
+                last = parseNumber(spec.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+
+            if (first == -1) {
+                // Suffix range, the last n bytes
+                if ((last <= 0) || (length == 0)) {
+                    continue;
+                }
+
+                ranges.add(new ByteRange((int) Math.max(0, length - last), length - 1));
+                continue;
+            }
+
+            if ((last != -1) && (last < first)) {
+                return null;
+            }
+
+            // Ranges starting past the end cannot be satisfied
+            if (first >= length) {
+                continue;
+            }
+
+            int end = ((last == -1) || (last >= length)) ? length - 1 : (int) last;
+
+            ranges.add(new ByteRange((int) first, end));
+        }
+
+        return ranges;
+    }
+
+    /**
+     * parseNumber
+     * parses a position in a range
+     * @param number the digits of the position, which may be empty
+     * @return the position, or -1 if it is empty
+     * @throws NumberFormatException if the position is not a number
+     */
+    private static long parseNumber(String number) {
+        number = number.trim();
+
+        if (number.isEmpty()) {
+            return -1;
+        }
+
+        // Positions past any possible body are treated as the end of the body
+        if (number.length() > 18) {
+            return Long.MAX_VALUE;
+        }
+
+        long value = Long.parseLong(number);
+
+        if (value < 0) {
+            throw new NumberFormatException("Negative range position " + number);
+        }
+
+        return value;
+    }
+
+    /**
+     * getStart
+     * gets the index of the first byte in the range
+     * @return the first index
+     */
+    public int getStart() {
+        return this.start;
+    }
+
+    /**
+     * getEnd
+     * gets the index of the last byte in the range, inclusive
+     * @return the last index
+     */
+    public int getEnd() {
+        return this.end;
+    }
+
+    /**
+     * getLength
+     * gets the number of bytes in the range
+     * @return the length of the range
+     */
+    public int getLength() {
+        return this.end - this.start + 1;
+    }
+
+    /**
+     * contentRange
+     * formats the value of the {@code Content-Range} header describing this range
+     * @param length the length of the whole body
+     * @return the header value, such as {@code bytes 0-499/1234}
+     */
+    public String contentRange(int length) {
+        return "bytes " + this.start + "-" + this.end + "/" + length;
+    }
+
+    /**
+     * slice
+     * creates a view of the range of a body without copying it
+     * @param content the whole body, from its position to its limit
+     * @return a buffer over the bytes of the range
+     */
+    public ByteBuffer slice(ByteBuffer content) {
+        ByteBuffer range = content.duplicate();
+
+        range.position(content.position() + this.start);
+        range.limit(content.position() + this.end + 1);
+
+        return range.slice();
+    }
+
+    /**
+     * toString
+     * returns a string representation of this object
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return this.start + "-" + this.end;
+    }
+}
@@ -0,0 +1,206 @@
+package server.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * An output stream which encodes the bytes written to it with the HTTP/1.1 chunked transfer coding.
+ * Bytes are collected into chunks of a fixed maximum size, and each chunk is framed with its size line
+ * and trailing CRLF in place so it reaches the underlying stream in a single write.
+ * Closing the stream writes the last chunk but leaves the underlying stream open for the next response.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ChunkedOutputStream extends OutputStream {
+    /** The default maximum number of body bytes in one chunk */
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /** The zero length chunk which marks the end of the body, followed by an empty trailer */
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    /** The digits used to encode chunk sizes */
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+
+    /** The stream the encoded chunks are written to */
+    private final OutputStream out;
+
+    /** The maximum number of body bytes in one chunk */
+    private final int chunkSize;
+
+    /** The space reserved in the frame for the size line of a chunk */
+    private final int prefixLength;
+
+    /** Holds the chunk being collected, with room for its size line before it and a CRLF after it */
+    private final byte[] frame;
+
+    /** The number of body bytes in the chunk being collected */
+    private int count;
+
+    /** Whether the last chunk has been written */
+    private boolean finished;
+
+    /**
+     * Constructs a chunked output stream with the default chunk size
+     * @param out the stream the encoded chunks are written to
+     */
+    public ChunkedOutputStream(OutputStream out) {
+        this(out, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a chunked output stream with a custom chunk size
+     * @param out the stream the encoded chunks are written to
+     * @param chunkSize the maximum number of body bytes in one chunk
+     * @throws NullPointerException if the stream is null
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    public ChunkedOutputStream(OutputStream out, int chunkSize) {
+        if (out == null) {
+            throw new NullPointerException("out cannot be null");
+        }
+
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        this.out = out;
+        this.chunkSize = chunkSize;
+        this.prefixLength = Integer.toHexString(chunkSize).length() + 2;
+        this.frame = new byte[this.prefixLength + chunkSize + 2];
+    }
+
+    /**
+     * write
+     * writes a single byte to the body
+     * @param b the byte to write
+     * @throws IOException if the stream is finished or an error occurs while writing a full chunk
+     */
+    @Override
+    public void write(int b) throws IOException {
+        this.ensureOpen();
+
+        this.frame[this.prefixLength + this.count] = (byte) b;
+        this.count++;
+
+        if (this.count == this.chunkSize) {
+            this.writeChunk();
+        }
+    }
+
+    /**
+     * write
+     * writes a range of bytes to the body
+     * @param b the array holding the bytes
+     * @param off the index of the first byte to write
+     * @param len the number of bytes to write
+     * @throws IOException if the stream is finished or an error occurs while writing a full chunk
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        this.ensureOpen();
+
+        Objects.checkFromIndexSize(off, len, b.length);
+
+        while (len > 0) {
+            // Fill the current chunk as far as possible
+            int copied = Math.min(len, this.chunkSize - this.count);
+
+            System.arraycopy(b, off, this.frame, this.prefixLength + this.count, copied);
+
+            this.count += copied;
+            off += copied;
+            len -= copied;
+
+            if (this.count == this.chunkSize) {
+                this.writeChunk();
+            }
+        }
+    }
+
+    /**
+     * flush
+     * sends the bytes collected so far as a chunk, even if it is not full
+     * @throws IOException if an error occurs while writing to the underlying stream
+     */
+    @Override
+    public void flush() throws IOException {
+        this.writeChunk();
+        this.out.flush();
+    }
+
+    /**
+     * finish
+     * sends any remaining bytes followed by the last chunk, which ends the body.
+     * Calling this method more than once has no effect
+     * @throws IOException if an error occurs while writing to the underlying stream
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+
+        this.writeChunk();
+        this.out.write(LAST_CHUNK);
+        this.out.flush();
+
+        this.finished = true;
+    }
+
+    /**
+     * close
+     * finishes the body without closing the underlying stream
+     * @throws IOException if an error occurs while writing to the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        this.finish();
+    }
+
+    /**
+     * writeChunk
+     * frames the collected bytes with their size line and CRLF and writes them as one chunk
+     * @throws IOException if an error occurs while writing to the underlying stream
+     */
+    private void writeChunk() throws IOException {
+        // An empty chunk would end the body
+        if (this.count == 0) {
+            return;
+        }
+
+        int end = this.prefixLength + this.count;
+
+        this.frame[end] = '\r';
+        this.frame[end + 1] = '\n';
+
+        // Size line is written right before the data, so the frame starts wherever its digits start
+        int start = this.prefixLength - 2;
+
+        this.frame[start] = '\r';
+        this.frame[start + 1] = '\n';
+
+        int size = this.count;
+
+        do {
+            start--;
+            this.frame[start] = HEX_DIGITS[size & 0xF];
+            size >>>= 4;
+        } while (size > 0);
+
+        this.out.write(this.frame, start, end + 2 - start);
+
+        this.count = 0;
+    }
+
+    /**
+     * ensureOpen
+     * checks that the last chunk has not been written yet
+     * @throws IOException if the stream is finished
+     */
+    private void ensureOpen() throws IOException {
+        if (this.finished) {
+            throw new IOException("chunked stream is already finished");
+        }
+    }
+}
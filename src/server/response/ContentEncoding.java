@@ -0,0 +1,245 @@
+package server.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Represents the content codings the server can apply to response bodies,
+ * and negotiates which one to use from the {@code Accept-Encoding} header of a request.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum ContentEncoding {
+    /** The body is sent as is */
+    IDENTITY("identity"),
+    /** The body is compressed with gzip */
+    GZIP("gzip"),
+    /** The body is compressed with deflate in the zlib format */
+    DEFLATE("deflate");
+
+    /** The size of the buffer used by the compressing streams */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The name of the coding in HTTP headers */
+    private final String token;
+
+    /**
+     * Constructs an enum value with the name of the coding
+     * @param token the name of the coding in HTTP headers
+     */
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * getToken
+     * gets the name of the coding, as used in the {@code Content-Encoding} header
+     * @return the name of the coding
+     */
+    public String getToken() {
+        return this.token;
+    }
+
+    /**
+     * encode
+     * wraps a stream so the bytes written to it are compressed with this coding.
+     * Closing the returned stream finishes the compressed data and releases the compressor,
+     * but leaves the wrapped stream open
+     * @param out the stream to write the compressed bytes to
+     * @param level the compression level, from 0 to 9, or -1 for the default level
+     * @return the compressing stream, or the stream itself for {@link #IDENTITY}
+     * @throws IOException if an error occurs while writing the header of the compressed data
+     */
+    public OutputStream encode(OutputStream out, int level) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new LeveledGZIPOutputStream(new UnclosableOutputStream(out), level);
+            case DEFLATE:
+                return new LeveledDeflaterOutputStream(new UnclosableOutputStream(out), level);
+            default:
+                return out;
+        }
+    }
+
+    /**
+     * encode
+     * compresses the remaining bytes of a buffer with this coding
+     * @param data the bytes to compress, which are not consumed
+     * @param level the compression level, from 0 to 9, or -1 for the default level
+     * @return the compressed bytes
+     */
+    public byte[] encode(ByteBuffer data, int level) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, data.remaining() / 3));
+
+        try (OutputStream out = this.encode(result, level)) {
+            if (data.hasArray()) {
+                out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            } else {
+                ByteBuffer source = data.duplicate();
+                byte[] buffer = new byte[BUFFER_SIZE];
+
+                while (source.hasRemaining()) {
+                    int length = Math.min(buffer.length, source.remaining());
+
+                    source.get(buffer, 0, length);
+                    out.write(buffer, 0, length);
+                }
+            }
+        } catch (IOException e) {
+            // Never thrown by an in memory stream
+            throw new IllegalStateException(e);
+        }
+
+        return result.toByteArray();
+    }
+
+    /**
+     * negotiate
+     * chooses the coding to use from the {@code Accept-Encoding} header of a request.
+     * Codings with a quality of 0 are refused, and gzip is preferred when the client accepts both codings equally
+     * @param acceptEncoding the value of the header, or null if the request has none
+     * @return the chosen coding, or {@link #IDENTITY} if the client does not accept any compression
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+
+        for (String coding : acceptEncoding.split(",")) {
+            // Split off the quality parameter
+            int parameters = coding.indexOf(';');
+            String name = (parameters == -1 ? coding : coding.substring(0, parameters)).trim();
+            double quality = parameters == -1 ? 1 : parseQuality(coding.substring(parameters + 1));
+
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzip = quality;
+            } else if (name.equalsIgnoreCase("deflate")) {
+                deflate = quality;
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+
+        // Codings which are not listed are only accepted through the wildcard
+        if (gzip == -1) {
+            gzip = any;
+        }
+
+        if (deflate == -1) {
+            deflate = any;
+        }
+
+        if ((gzip > 0) && (gzip >= deflate)) {
+            return GZIP;
+        }
+
+        if (deflate > 0) {
+            return DEFLATE;
+        }
+
+        return IDENTITY;
+    }
+
+    /**
+     * parseQuality
+     * parses the quality parameter of a coding in the {@code Accept-Encoding} header
+     * @param parameter the parameter, such as {@code q=0.5}
+     * @return the quality, or 0 if the parameter is malformed
+     */
+    private static double parseQuality(String parameter) {
+        parameter = parameter.trim();
+
+        if (!parameter.startsWith("q=") && !parameter.startsWith("Q=")) {
+            return 0;
+        }
+
+        try {
+            return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * A gzip stream with a custom compression level, which flushes compressed data whenever it is flushed
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+        /**
+         * Constructs a gzip stream
+         * @param out the stream to write the compressed bytes to
+         * @param level the compression level
+         * @throws IOException if an error occurs while writing the gzip header
+         */
+        private LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE, true);
+            this.def.setLevel(level);
+        }
+    }
+
+    /**
+     * A deflate stream with a custom compression level, which flushes compressed data whenever it is flushed
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class LeveledDeflaterOutputStream extends DeflaterOutputStream {
+        /**
+         * Constructs a deflate stream
+         * @param out the stream to write the compressed bytes to
+         * @param level the compression level
+         */
+        private LeveledDeflaterOutputStream(OutputStream out, int level) {
+            super(out, true);
+            this.def.setLevel(level);
+        }
+    }
+
+    /**
+     * Passes writes through to a stream, but only flushes it when closed.
+     * Lets a compressing stream be closed to release its compressor without closing the connection
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class UnclosableOutputStream extends FilterOutputStream {
+        /**
+         * Constructs a stream which cannot close the stream it wraps
+         * @param out the wrapped stream
+         */
+        private UnclosableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        /**
+         * write
+         * writes a range of bytes to the wrapped stream at once
+         * @param b the array holding the bytes
+         * @param off the index of the first byte to write
+         * @param len the number of bytes to write
+         * @throws IOException if an error occurs while writing to the wrapped stream
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+        }
+
+        /**
+         * close
+         * flushes the wrapped stream without closing it
+         * @throws IOException if an error occurs while flushing the wrapped stream
+         */
+        @Override
+        public void close() throws IOException {
+            this.out.flush();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package server.response;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Caches the encoded {@code Date} response header.
+ * The header only has a precision of one second, so it is formatted at most once per second
+ * and shared by every response sent within that second.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+final class DateHeader {
+    /** The HTTP date format, for example {@code Sun, 06 Nov 1994 08:49:37 GMT} */
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter
+            .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+            .withZone(ZoneOffset.UTC);
+
+    /** The most recently encoded header */
+    private static volatile DateHeader current = new DateHeader(System.currentTimeMillis() / 1000);
+
+    /** The second since the epoch which the header represents */
+    private final long second;
+
+    /** The encoded header line, including the trailing CRLF */
+    private final byte[] line;
+
+    /**
+     * Constructs an encoded header for a point in time
+     * @param second the second since the epoch
+     */
+    private DateHeader(long second) {
+        this.second = second;
+        this.line = ("Date: " + FORMAT.format(Instant.ofEpochSecond(second)) + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * get
+     * gets the encoded header for the current second.
+     * The returned array is shared and must not be modified
+     * @return the encoded header line
+     */
+    static byte[] get() {
+        long second = System.currentTimeMillis() / 1000;
+        DateHeader header = current;
+
+        // Threads racing at the turn of a second produce equal headers, so the loser's work is simply discarded
+        if (header.second != second) {
+            header = new DateHeader(second);
+            current = header;
+        }
+
+        return header.line;
+    }
+}
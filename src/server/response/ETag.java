@@ -0,0 +1,135 @@
+package server.response;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Creates entity tags, which identify a version of a response body, and compares them against the
+ * {@code If-None-Match} header of a request so unchanged bodies can be answered with 304 Not Modified.
+ * Strong tags are hashes of the exact bytes of a body, while weak tags are hashes of the inputs a body is rendered from.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public final class ETag {
+    /** The number of bytes of the hash kept in a tag, enough to make collisions practically impossible */
+    private static final int HASH_LENGTH = 16;
+
+    /**
+     * Prevents the class from being instantiated
+     */
+    private ETag() {}
+
+    /**
+     * strong
+     * creates a strong tag from the exact bytes of a body
+     * @param content the body, from its position to its limit, which is consumed
+     * @return the quoted tag
+     */
+    public static String strong(ByteBuffer content) {
+        MessageDigest digest = digest();
+
+        digest.update(content);
+
+        return "\"" + encode(digest) + "\"";
+    }
+
+    /**
+     * weak
+     * creates a weak tag from the values a body is rendered from.
+     * Two bodies rendered from equal values are treated as equivalent, even if their bytes differ
+     * @param values the values the body is rendered from, converted with {@link String#valueOf(Object)}
+     * @return the quoted tag, prefixed with {@code W/}
+     */
+    public static String weak(Object... values) {
+        MessageDigest digest = digest();
+
+        for (Object value : values) {
+            String text = (value instanceof Object[]) ? Arrays.deepToString((Object[]) value) : String.valueOf(value);
+
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+
+            // Separate the values so that ("ab", "c") and ("a", "bc") differ
+            digest.update((byte) 0);
+        }
+
+        return "W/\"" + encode(digest) + "\"";
+    }
+
+    /**
+     * withEncoding
+     * derives the tag of a compressed variant of a body, since each variant has different bytes
+     * @param tag the tag of the uncompressed body
+     * @param encoding the coding of the variant
+     * @return the tag of the variant, or the tag itself for {@link ContentEncoding#IDENTITY}
+     */
+    public static String withEncoding(String tag, ContentEncoding encoding) {
+        if (encoding == ContentEncoding.IDENTITY) {
+            return tag;
+        }
+
+        return tag.substring(0, tag.length() - 1) + "-" + encoding.getToken() + "\"";
+    }
+
+    /**
+     * matches
+     * checks whether the {@code If-None-Match} header of a request names a tag, using weak comparison
+     * @param ifNoneMatch the value of the header, or null if the request has none
+     * @param tag the current tag of the body
+     * @return whether the client already has the current body
+     */
+    public static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        String opaqueTag = opaque(tag);
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+
+            if (candidate.equals("*") || opaque(candidate).equals(opaqueTag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * opaque
+     * removes the weak prefix from a tag, leaving the quoted part which weak comparison uses
+     * @param tag the tag
+     * @return the quoted part of the tag
+     */
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * digest
+     * creates the hash function tags are computed with
+     * @return a new SHA-256 digest
+     */
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * encode
+     * encodes the start of a hash into characters which are allowed in a tag
+     * @param digest the digest holding the hash
+     * @return the encoded hash
+     */
+    private static String encode(MessageDigest digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), HASH_LENGTH));
+    }
+}
@@ -0,0 +1,268 @@
+package server.response;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends server-sent events over the body of an {@link EventStreamResponse}, which browsers read with an {@code EventSource}.
+ * Each event is queued on the connection as soon as it is sent, without waiting on the client, so events can be sent
+ * from any thread, such as the one reporting the change, and no thread is held while the stream is quiet.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class EventStream {
+    /** Pre-encoded headers of event stream responses, which must not be cached or buffered */
+    public static final HeaderBlock HEADERS;
+
+    /**
+     * The time in milliseconds after which a comment is sent on a stream without events,
+     * well within the write timeout of the server
+     */
+    public static final int HEARTBEAT_INTERVAL = 15000;
+
+    /** The zero length chunk which marks the end of the body, followed by an empty trailer */
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    static {
+        Map<String, String> headers = new HashMap<>();
+
+        headers.put("Content-Type", "text/event-stream; charset=utf-8");
+        headers.put("Cache-Control", "no-cache");
+
+        HEADERS = new HeaderBlock(headers);
+    }
+
+    /** Queues the body on the connection */
+    private final Output output;
+
+    /** Whether each write is framed as a chunk of the chunked transfer coding */
+    private final boolean chunked;
+
+    /** Keeps writes from different threads from interleaving, and from following the end of the body */
+    private final ReentrantLock writeLock;
+
+    /** The last time in milliseconds anything was sent */
+    private volatile long lastSent;
+
+    /** Whether the stream has ended, after which nothing more can be sent */
+    private volatile boolean closed;
+
+    /** Runs once the stream has ended, or null if nothing needs to be told */
+    private Runnable closeListener;
+
+    /**
+     * Constructs an event stream over the body of a response whose head has been sent
+     * @param output queues the body on the connection
+     * @param chunked whether the body is sent with the chunked transfer coding
+     */
+    EventStream(Output output, boolean chunked) {
+        this.output = output;
+        this.chunked = chunked;
+        this.writeLock = new ReentrantLock();
+        this.lastSent = System.currentTimeMillis();
+    }
+
+    /**
+     * send
+     * sends an event carrying data, which is split into one field per line
+     * @param data the data of the event
+     * @throws IOException if the stream has ended, or the client has fallen too far behind
+     */
+    public void send(String data) throws IOException {
+        StringBuilder event = new StringBuilder();
+
+        for (String line : data.split("\r\n|\r|\n", -1)) {
+            event.append("data: ").append(line).append('\n');
+        }
+
+        this.write(event.append('\n').toString());
+    }
+
+    /**
+     * comment
+     * sends a comment, which clients ignore, to keep the connection from being closed while no events are sent
+     * @param text the text of the comment, without line breaks
+     * @throws IOException if the stream has ended, or the client has fallen too far behind
+     */
+    public void comment(String text) throws IOException {
+        this.write(": " + text + "\n\n");
+    }
+
+    /**
+     * keepAlive
+     * sends a comment once nothing has been sent for the heartbeat interval, so proxies keep the connection open
+     * and a client which has gone away is noticed.
+     * Called by the server periodically while the stream is open
+     * @param now the current time in milliseconds
+     * @throws IOException if the stream has ended, or the client has fallen too far behind
+     */
+    public void keepAlive(long now) throws IOException {
+        if (now - this.lastSent >= HEARTBEAT_INTERVAL) {
+            this.comment("waiting");
+        }
+    }
+
+    /**
+     * close
+     * ends the body once the events already sent have been written.
+     * Calling this method more than once has no effect
+     */
+    public void close() {
+        this.writeLock.lock();
+
+        try {
+            if (this.closed) {
+                return;
+            }
+
+            if (this.chunked) {
+                try {
+                    this.output.write(ByteBuffer.wrap(LAST_CHUNK));
+                } catch (IOException e) {
+                    // The connection is already being closed, so it needs no end
+                }
+            }
+
+            this.output.end();
+            this.closed = true;
+        } finally {
+            this.writeLock.unlock();
+        }
+
+        this.closed();
+    }
+
+    /**
+     * closed
+     * ends the stream without writing anything more, and tells the close listener.
+     * Called by the server once the connection has been closed; calling this method more than once has no effect
+     */
+    public void closed() {
+        Runnable listener;
+
+        this.writeLock.lock();
+
+        try {
+            this.closed = true;
+
+            listener = this.closeListener;
+            this.closeListener = null;
+        } finally {
+            this.writeLock.unlock();
+        }
+
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * isClosed
+     * gets whether the stream has ended
+     * @return whether the stream has ended
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * onClose
+     * sets what runs once the stream has ended, whether it was closed or the client went away.
+     * The listener runs immediately if the stream has already ended
+     * @param listener runs once the stream has ended
+     */
+    public void onClose(Runnable listener) {
+        this.writeLock.lock();
+
+        try {
+            if (!this.closed) {
+                this.closeListener = listener;
+                return;
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+
+        listener.run();
+    }
+
+    /**
+     * write
+     * frames part of the stream and queues it on the connection
+     * @param text the encoded fields
+     * @throws IOException if the stream has ended, or the client has fallen too far behind
+     */
+    private void write(String text) throws IOException {
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+
+        IOException failure;
+
+        this.writeLock.lock();
+
+        try {
+            if (this.closed) {
+                throw new IOException("event stream is closed");
+            }
+
+            this.output.write(this.chunked ? chunk(data) : ByteBuffer.wrap(data));
+            this.lastSent = System.currentTimeMillis();
+            return;
+        } catch (IOException e) {
+            if (this.closed) {
+                throw e;
+            }
+
+            // The output has given up on the client, so nothing more can be sent
+            this.output.end();
+            this.closed = true;
+            failure = e;
+        } finally {
+            this.writeLock.unlock();
+        }
+
+        this.closed();
+
+        throw failure;
+    }
+
+    /**
+     * chunk
+     * frames bytes as a single chunk, with its size line and trailing CRLF
+     * @param data the bytes of the body
+     * @return the framed chunk, ready to be read
+     */
+    private static ByteBuffer chunk(byte[] data) {
+        byte[] sizeLine = (Integer.toHexString(data.length) + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer chunk = ByteBuffer.allocate(sizeLine.length + data.length + 2);
+
+        chunk.put(sizeLine).put(data).put((byte) '\r').put((byte) '\n').flip();
+
+        return chunk;
+    }
+
+    /**
+     * Queues the body of an event stream on its connection, which the server writes once the client accepts it
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    public interface Output {
+        /**
+         * write
+         * queues part of the body to be written, without waiting on the client.
+         * If too much of the body is already waiting, the connection is closed rather than ended once it is written
+         * @param data the encoded bytes, ready to be read
+         * @throws IOException if the connection is closed, or too much of the body is waiting to be written
+         */
+        void write(ByteBuffer data) throws IOException;
+
+        /**
+         * end
+         * marks the body as complete, so the response ends once everything queued has been written
+         */
+        void end();
+    }
+}
@@ -0,0 +1,152 @@
+package server.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Represents a 200 OK response whose body is a stream of server-sent events.
+ * Rather than writing the body on a thread of its own, the handler is given an {@link EventStream} once the head
+ * has been sent, and sends events on it from whichever thread observes the changes, until it closes the stream.
+ * Servers which multiplex connections queue the events and write them as the client accepts them,
+ * while servers with a thread per connection write them on that thread.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class EventStreamResponse extends StreamingResponse {
+    /** The maximum number of writes of a stream waiting to be sent before the client is given up on */
+    private static final int MAX_QUEUED_WRITES = 64;
+
+    /** Opens the stream, registering whatever sends its events */
+    private final Consumer<EventStream> opener;
+
+    /**
+     * Constructs an event stream response
+     * @param opener opens the stream, registering whatever sends its events, without waiting for any of them
+     * @throws NullPointerException if the opener is null
+     */
+    public EventStreamResponse(Consumer<EventStream> opener) {
+        super(new Response.StatusLine(ResponseCode.OK), EventStream.HEADERS);
+
+        if (opener == null) {
+            throw new NullPointerException("opener cannot be null");
+        }
+
+        this.opener = opener;
+    }
+
+    /**
+     * open
+     * opens the stream over the connection this response's head was sent on
+     * @param output queues the body on the connection
+     * @return the stream
+     */
+    public EventStream open(EventStream.Output output) {
+        EventStream events = new EventStream(output, this.isChunked());
+
+        try {
+            this.opener.accept(events);
+        } catch (RuntimeException e) {
+            // Opener failed after the head was sent, so the body can only be ended
+            e.printStackTrace();
+            events.close();
+        }
+
+        return events;
+    }
+
+    /**
+     * writeBody
+     * opens the stream and writes its events on the calling thread until it is closed.
+     * Used by servers with a thread per connection; the head of the response must already have been written
+     * @param out the stream to the client
+     * @throws IOException if an error occurs while writing to the client, or the client falls too far behind
+     */
+    @Override
+    public void writeBody(OutputStream out) throws IOException {
+        // Only the head is sent
+        if (this.isBodyOmitted()) {
+            out.flush();
+            return;
+        }
+
+        QueuedOutput output = new QueuedOutput();
+        EventStream events = this.open(output);
+
+        try {
+            while (true) {
+                ByteBuffer next = output.writes.poll(EventStream.HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+
+                if (next == null) {
+                    events.keepAlive(System.currentTimeMillis());
+                } else if (next == QueuedOutput.END) {
+                    break;
+                } else {
+                    out.write(next.array(), next.arrayOffset() + next.position(), next.remaining());
+                    out.flush();
+                }
+            }
+
+            if (output.aborted) {
+                throw new IOException("client is not reading events");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while streaming events", e);
+        } finally {
+            events.closed();
+        }
+    }
+
+    /**
+     * Holds the body of a stream until the thread of its connection writes it
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class QueuedOutput implements EventStream.Output {
+        /** Marks the end of the body in the queue */
+        private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+        /** Writes waiting to be sent, followed by the end marker once the body is complete */
+        private final LinkedBlockingQueue<ByteBuffer> writes;
+
+        /** Whether the client fell too far behind, so the body is cut short */
+        private volatile boolean aborted;
+
+        /**
+         * Constructs an empty output
+         */
+        private QueuedOutput() {
+            this.writes = new LinkedBlockingQueue<>();
+        }
+
+        /**
+         * write
+         * queues part of the body for the thread of the connection
+         * @param data the encoded bytes, ready to be read
+         * @throws IOException if too many writes are already waiting
+         */
+        @Override
+        public void write(ByteBuffer data) throws IOException {
+            // Writes are serialized by the stream, so the queue can only shrink between the check and the add
+            if (this.writes.size() >= MAX_QUEUED_WRITES) {
+                this.aborted = true;
+                throw new IOException("client is not reading events");
+            }
+
+            this.writes.add(data);
+        }
+
+        /**
+         * end
+         * marks the body as complete once the queued writes are sent
+         */
+        @Override
+        public void end() {
+            this.writes.add(END);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package server.response;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Represents an HTTP response whose body is a region of an open file.
+ * Connections backed by a socket channel send the region with {@link FileChannel#transferTo},
+ * so the kernel copies the file straight to the socket; other connections write the mapped body like any other response.
+ * The server releases the response once it has been written or its connection has closed, letting the file be closed
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class FileResponse extends Response {
+    /** The open file holding the body */
+    private final FileChannel file;
+
+    /** The position in the file at which the body starts */
+    private final long position;
+
+    /** Gives up the response's hold on the file, or null once it has been run */
+    private final AtomicReference<Runnable> release;
+
+    /**
+     * Constructs a file response with a status line, pre-encoded headers, additional headers, and a body
+     * @param statusLine the HTTP response status line
+     * @param headerBlock the pre-encoded HTTP response headers
+     * @param headers a map of additional HTTP response headers, or null if there are none
+     * @param body a mapped view of the body, used for its length and by connections which cannot transfer files
+     * @param file the open file holding the body
+     * @param position the position in the file at which the body starts
+     * @param release gives up the response's hold on the file once it is no longer needed
+     */
+    public FileResponse(StatusLine statusLine, HeaderBlock headerBlock, Map<String, String> headers, ByteBuffer body, FileChannel file, long position, Runnable release) {
+        super(statusLine, headerBlock, headers, body);
+
+        this.file = file;
+        this.position = position;
+        this.release = new AtomicReference<>(release);
+    }
+
+    /**
+     * release
+     * tells the owner of the file that the response no longer needs it.
+     * Calling this method more than once has no effect
+     */
+    public void release() {
+        Runnable release = this.release.getAndSet(null);
+
+        if (release != null) {
+            release.run();
+        }
+    }
+
+    /**
+     * getFile
+     * gets the open file holding the body
+     * @return the file
+     */
+    public FileChannel getFile() {
+        return this.file;
+    }
+
+    /**
+     * getFilePosition
+     * gets the position in the file at which the body starts
+     * @return the position of the body
+     */
+    public long getFilePosition() {
+        return this.position;
+    }
+}
@@ -0,0 +1,175 @@
+package server.response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents an immutable group of HTTP response headers which is encoded once, when it is created.
+ * Responses which share the same headers, such as every HTML page, reference the same block
+ * so the header names and values do not have to be re-encoded or re-allocated for each response.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public final class HeaderBlock {
+    /** A block without any headers */
+    public static final HeaderBlock EMPTY = new HeaderBlock(Collections.emptyMap());
+
+    /** The headers of the block, in the order in which they are encoded */
+    private final Map<String, String> headers;
+
+    /** The names of the headers, in the order in which they are encoded */
+    private final String[] names;
+
+    /** The encoded lines of each header, including the trailing CRLF */
+    private final byte[][] lines;
+
+    /** All the encoded lines of the block concatenated together */
+    private final byte[] encoded;
+
+    /**
+     * Constructs a block from a map of headers.
+     * The map is copied, so later changes to it do not affect the block
+     * @param headers a map of the headers in the block
+     * @throws NullPointerException if the headers are null
+     */
+    public HeaderBlock(Map<String, String> headers) {
+        if (headers == null) {
+            throw new NullPointerException("headers cannot be null");
+        }
+
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+        this.names = new String[this.headers.size()];
+        this.lines = new byte[this.headers.size()][];
+
+        int i = 0;
+        int length = 0;
+
+        // Encode each header on its own
+        for (Map.Entry<String, String> header : this.headers.entrySet()) {
+            this.names[i] = header.getKey();
+            this.lines[i] = (header.getKey() + ": " + header.getValue() + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+
+            length += this.lines[i].length;
+            i++;
+        }
+
+        // Concatenate the headers
+        this.encoded = new byte[length];
+
+        int offset = 0;
+
+        for (byte[] line : this.lines) {
+            System.arraycopy(line, 0, this.encoded, offset, line.length);
+            offset += line.length;
+        }
+    }
+
+    /**
+     * with
+     * creates a copy of this block with a header added or replaced
+     * @param name the name of the header
+     * @param value the value of the header
+     * @return the new block
+     */
+    public HeaderBlock with(String name, String value) {
+        Map<String, String> headers = new LinkedHashMap<>(this.headers);
+
+        headers.put(name, value);
+
+        return new HeaderBlock(headers);
+    }
+
+    /**
+     * getHeaders
+     * gets the headers of the block
+     * @return an unmodifiable map of the headers
+     */
+    public Map<String, String> getHeaders() {
+        return this.headers;
+    }
+
+    /**
+     * get
+     * gets the value of a header in the block, ignoring the case of its name
+     * @param name the name of the header
+     * @return the value of the header, or null if the block does not contain it
+     */
+    public String get(String name) {
+        for (String headerName : this.names) {
+            if (headerName.equalsIgnoreCase(name)) {
+                return this.headers.get(headerName);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * encodedLength
+     * calculates the number of bytes the block occupies in a response head
+     * @param overrides headers of the response which replace headers of the same name in the block, or null
+     * @return the encoded length of the block in bytes
+     */
+    int encodedLength(Map<String, String> overrides) {
+        if (!this.isOverridden(overrides)) {
+            return this.encoded.length;
+        }
+
+        int length = 0;
+
+        for (int i = 0; i < this.names.length; i++) {
+            if (!overrides.containsKey(this.names[i])) {
+                length += this.lines[i].length;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * encode
+     * copies the encoded block into a response head
+     * @param dest the array holding the response head
+     * @param offset the index in the array at which to start copying
+     * @param overrides headers of the response which replace headers of the same name in the block, or null
+     * @return the index in the array after the copied block
+     */
+    int encode(byte[] dest, int offset, Map<String, String> overrides) {
+        // Common case, the whole block is copied at once
+        if (!this.isOverridden(overrides)) {
+            System.arraycopy(this.encoded, 0, dest, offset, this.encoded.length);
+            return offset + this.encoded.length;
+        }
+
+        for (int i = 0; i < this.names.length; i++) {
+            if (!overrides.containsKey(this.names[i])) {
+                System.arraycopy(this.lines[i], 0, dest, offset, this.lines[i].length);
+                offset += this.lines[i].length;
+            }
+        }
+
+        return offset;
+    }
+
+    /**
+     * isOverridden
+     * checks whether any header of the block is replaced by a header of the response
+     * @param overrides headers of the response, or null
+     * @return whether any header of the block is replaced
+     */
+    private boolean isOverridden(Map<String, String> overrides) {
+        if ((overrides == null) || overrides.isEmpty()) {
+            return false;
+        }
+
+        for (String name : this.names) {
+            if (overrides.containsKey(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package server.response;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Represents a 206 Partial Content response carrying several ranges of a body as {@code multipart/byteranges}.
+ * Each range is sent as a view of the original body, so the body is never copied; only the small part headers are encoded.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class MultipartResponse extends Response {
+    /** The part headers and range views of the body, in the order in which they are written */
+    private final ByteBuffer[] parts;
+
+    /** The total length of the multipart body */
+    private final int length;
+
+    /**
+     * Constructs a multipart response with pre-encoded headers and the ranges to send
+     * @param headerBlock the pre-encoded headers of the whole body, whose Content-Type is repeated in each part
+     * @param headers a map of additional HTTP response headers
+     * @param content the whole body, from its position to its limit
+     * @param ranges the ranges of the body to send
+     */
+    public MultipartResponse(HeaderBlock headerBlock, Map<String, String> headers, ByteBuffer content, List<ByteRange> ranges) {
+        super(new StatusLine(ResponseCode.PARTIAL_CONTENT), headerBlock, headers == null ? new HashMap<>() : headers, ByteBuffer.allocate(0));
+
+        String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+        String contentType = headerBlock.get("Content-Type");
+
+        this.getHeaders().put("Content-Type", "multipart/byteranges; boundary=" + boundary);
+        this.parts = new ByteBuffer[ranges.size() * 2 + 1];
+
+        int length = 0;
+
+        // Each range is preceded by its own headers
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+
+            String partHead = "\r\n--" + boundary + "\r\n"
+                    + (contentType == null ? "" : "Content-Type: " + contentType + "\r\n")
+                    + "Content-Range: " + range.contentRange(content.remaining()) + "\r\n\r\n";
+
+            this.parts[i * 2] = ByteBuffer.wrap(partHead.getBytes(StandardCharsets.ISO_8859_1));
+            this.parts[i * 2 + 1] = range.slice(content);
+
+            length += this.parts[i * 2].remaining() + range.getLength();
+        }
+
+        this.parts[this.parts.length - 1] = ByteBuffer.wrap(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        this.length = length + this.parts[this.parts.length - 1].remaining();
+    }
+
+    /**
+     * getBodyLength
+     * gets the size of the multipart body
+     * @return the number of bytes in the body
+     */
+    @Override
+    public int getBodyLength() {
+        return this.length;
+    }
+
+    /**
+     * getBuffers
+     * gets the head and each part of the body, in the order in which they should be written
+     * @param headBuffer the heap buffer to encode the head into, or null to allocate one
+     * @return the encoded head followed by the part headers and ranges
+     */
+    @Override
+    public ByteBuffer[] getBuffers(ByteBuffer headBuffer) {
+        if (this.isBodyOmitted()) {
+            return new ByteBuffer[] { this.getHead(headBuffer) };
+        }
+
+        ByteBuffer[] buffers = new ByteBuffer[this.parts.length + 1];
+
+        buffers[0] = this.getHead(headBuffer);
+
+        for (int i = 0; i < this.parts.length; i++) {
+            buffers[i + 1] = this.parts[i].duplicate();
+        }
+
+        return buffers;
+    }
+}
@@ -1,24 +1,41 @@
 package server.response;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Represents an HTTP response, which can be stringified to send the response to the client.
  * An HTTP response consists of a status line, containing the protocol, status code, and status message,
  * a list of key value headers, and a text body.
+ * The encoded head (status line and headers) and the body are exposed as separate buffers
+ * so they can be written to the client without being copied into a single array.
+ * Headers shared by many responses can be given as a pre-encoded {@link HeaderBlock}.
  * @author Harry Xu
  * @version 1.0 - May 21st 2023
  */
 public class Response {
+    /** The encoded name of the Content-Length header, which is added to every response */
+    private static final byte[] CONTENT_LENGTH = "Content-Length: ".getBytes(StandardCharsets.ISO_8859_1);
+
     /** the status line, containing the protocol, status code, and message */
     private final StatusLine statusLine;
 
-    /** the HTTP response headers */
-    private final Map<String, String> headers;
+    /** the pre-encoded HTTP response headers shared with other responses */
+    private final HeaderBlock headerBlock;
+
+    /** the HTTP response headers specific to this response, or null if there are none yet */
+    private Map<String, String> headers;
+
+    /** the pre-encoded connection management headers */
+    private HeaderBlock connectionHeaders;
 
     /** the HTTP response body */
-    private final byte[] body;
+    private final ByteBuffer body;
+
+    /** whether the body is left out when the response is sent, as for a HEAD request */
+    private boolean bodyOmitted;
 
     /**
      * Constructs a response with a status line, headers, and a body
@@ -37,47 +54,380 @@ public class Response {
      * @param body the HTTP response body
      */
     public Response(StatusLine statusLine, Map<String, String> headers, byte[] body) {
+        this(statusLine, headers, ByteBuffer.wrap(body));
+    }
+
+    /**
+     * Constructs a response with a status line, headers, and a body
+     * @param statusLine the HTTP response status line
+     * @param headers a map of the HTTP response headers
+     * @param body the HTTP response body, from its position to its limit. The buffer is not copied
+     */
+    public Response(StatusLine statusLine, Map<String, String> headers, ByteBuffer body) {
+        this(statusLine, HeaderBlock.EMPTY, headers, body);
+    }
+
+    /**
+     * Constructs a response with a status line, pre-encoded headers, and a body
+     * @param statusLine the HTTP response status line
+     * @param headerBlock the pre-encoded HTTP response headers
+     * @param body the HTTP response body
+     */
+    public Response(StatusLine statusLine, HeaderBlock headerBlock, String body) {
+        this(statusLine, headerBlock, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Constructs a response with a status line, pre-encoded headers, and a body
+     * @param statusLine the HTTP response status line
+     * @param headerBlock the pre-encoded HTTP response headers
+     * @param body the HTTP response body
+     */
+    public Response(StatusLine statusLine, HeaderBlock headerBlock, byte[] body) {
+        this(statusLine, headerBlock, null, ByteBuffer.wrap(body));
+    }
+
+    /**
+     * Constructs a response with a status line, pre-encoded headers, additional headers, and a body.
+     * Additional headers replace pre-encoded headers of the same name
+     * @param statusLine the HTTP response status line
+     * @param headerBlock the pre-encoded HTTP response headers
+     * @param headers a map of additional HTTP response headers, or null if there are none
+     * @param body the HTTP response body, from its position to its limit. The buffer is not copied
+     */
+    public Response(StatusLine statusLine, HeaderBlock headerBlock, Map<String, String> headers, ByteBuffer body) {
         this.statusLine = statusLine;
+        this.headerBlock = headerBlock;
         this.headers = headers;
+        this.connectionHeaders = HeaderBlock.EMPTY;
         this.body = body;
+    }
+
+    /**
+     * getHeaders
+     * gets the headers specific to this response, which can be modified to add headers.
+     * Pre-encoded headers and the Content-Length header, which is always calculated from the body, are not included
+     * @return the response headers
+     */
+    public Map<String, String> getHeaders() {
+        if (this.headers == null) {
+            this.headers = new HashMap<>();
+        }
 
-        if (body.length > 0) {
-            this.headers.put("Content-Length", Integer.toString(body.length));
+        return this.headers;
+    }
+
+    /**
+     * getHeader
+     * gets the value of a header of the response, whether it is pre-encoded or specific to this response,
+     * ignoring the case of its name
+     * @param name the name of the header
+     * @return the value of the header, or null if the response does not have it
+     */
+    public String getHeader(String name) {
+        if (this.headers != null) {
+            for (Map.Entry<String, String> header : this.headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
         }
+
+        return this.headerBlock.get(name);
+    }
+
+    /**
+     * getStatusLine
+     * gets the status line of the response
+     * @return the status line
+     */
+    public StatusLine getStatusLine() {
+        return this.statusLine;
+    }
+
+    /**
+     * getHeaderBlock
+     * gets the pre-encoded headers the response shares with other responses
+     * @return the pre-encoded headers
+     */
+    public HeaderBlock getHeaderBlock() {
+        return this.headerBlock;
+    }
+
+    /**
+     * encode
+     * creates a copy of this response with its body compressed, adding the {@code Content-Encoding} header
+     * @param encoding the coding to compress the body with
+     * @param level the compression level, from 0 to 9, or -1 for the default level
+     * @return the compressed response
+     */
+    public Response encode(ContentEncoding encoding, int level) {
+        Map<String, String> headers = this.headers == null ? new HashMap<>() : new HashMap<>(this.headers);
+
+        headers.put("Content-Encoding", encoding.getToken());
+
+        return new Response(this.statusLine, this.headerBlock, headers, ByteBuffer.wrap(encoding.encode(this.body, level)));
+    }
+
+    /**
+     * getBodyLength
+     * gets the size of the body of the response without copying it
+     * @return the number of bytes in the body
+     */
+    public int getBodyLength() {
+        return this.body.remaining();
     }
 
     /**
-     * toString
-     * converts the HTTP response to a properly formatted HTTP response string,
-     * allowing it to be sent to the client.
-     * @return the HTTP response as a string
+     * omitBody
+     * leaves the body out when the response is sent, while keeping the headers which describe it,
+     * as required for responses to HEAD requests
      */
-    public byte[] toBytes() {
-        StringBuilder res = new StringBuilder();
+    public void omitBody() {
+        this.bodyOmitted = true;
+    }
+
+    /**
+     * isBodyOmitted
+     * gets whether the body is left out when the response is sent
+     * @return whether the body is omitted
+     */
+    public boolean isBodyOmitted() {
+        return this.bodyOmitted;
+    }
+
+    /**
+     * setConnectionHeaders
+     * sets the connection management headers of the response, such as {@code Connection: close}
+     * @param connectionHeaders the pre-encoded connection management headers
+     */
+    public void setConnectionHeaders(HeaderBlock connectionHeaders) {
+        this.connectionHeaders = connectionHeaders;
+    }
+
+    /**
+     * getHead
+     * encodes the status line and headers of the response into a properly formatted HTTP response head,
+     * allowing it to be sent to the client before the body.
+     * Pre-encoded parts are copied into an array of the exact size of the head, without building any strings.
+     * @return the encoded head, ready to be read
+     */
+    public ByteBuffer getHead() {
+        return this.getHead(null);
+    }
+
+    /**
+     * getHead
+     * encodes the status line and headers of the response into a buffer reused for every response on a connection,
+     * so sending a response does not allocate its head. A new buffer is only allocated if the head does not fit.
+     * The head must have been written before the buffer is reused for the next response
+     * @param buffer the heap buffer to encode into, or null to allocate one
+     * @return the encoded head, ready to be read, which is the given buffer unless a new one was needed
+     */
+    public ByteBuffer getHead(ByteBuffer buffer) {
+        byte[] statusLine = this.statusLine.encode();
+        byte[] date = DateHeader.get();
+
+        // Calculate the exact size of the head
+        int length = statusLine.length
+                + date.length
+                + this.headerBlock.encodedLength(this.headers)
+                + this.connectionHeaders.encodedLength(this.headers)
+                + this.framingLength()
+                + 2;
+
+        if (this.headers != null) {
+            for (Map.Entry<String, String> header : this.headers.entrySet()) {
+                if (!isContentLength(header.getKey())) {
+                    length += header.getKey().length() + header.getValue().length() + 4;
+                }
+            }
+        }
+
+        if ((buffer == null) || !buffer.hasArray() || (buffer.capacity() < length)) {
+            buffer = ByteBuffer.allocate(length);
+        }
+
+        byte[] head = buffer.array();
+        int offset = buffer.arrayOffset();
 
         // Status line
-        res.append(this.statusLine);
+        System.arraycopy(statusLine, 0, head, offset, statusLine.length);
+        offset += statusLine.length;
+
+        // Pre-encoded headers
+        System.arraycopy(date, 0, head, offset, date.length);
+        offset += date.length;
+
+        offset = this.headerBlock.encode(head, offset, this.headers);
+        offset = this.connectionHeaders.encode(head, offset, this.headers);
+
+        offset = this.encodeFraming(head, offset);
+
+        // Headers specific to this response
+        if (this.headers != null) {
+            for (Map.Entry<String, String> header : this.headers.entrySet()) {
+                if (!isContentLength(header.getKey())) {
+                    offset = writeChars(head, offset, header.getKey());
+                    head[offset++] = ':';
+                    head[offset++] = ' ';
+                    offset = writeChars(head, offset, header.getValue());
+                    offset = writeLineEnd(head, offset);
+                }
+            }
+        }
+
+        writeLineEnd(head, offset);
+
+        buffer.clear();
+        buffer.limit(length);
+
+        return buffer;
+    }
+
+    /**
+     * getBody
+     * gets the body of the response without copying it
+     * @return a view of the body, ready to be read, which is empty if the body is omitted
+     */
+    public ByteBuffer getBody() {
+        if (this.bodyOmitted) {
+            return ByteBuffer.allocate(0);
+        }
+
+        return this.body.duplicate();
+    }
+
+    /**
+     * getBuffers
+     * gets the head and body of the response, in the order in which they should be written
+     * @return the encoded head followed by the body
+     */
+    public ByteBuffer[] getBuffers() {
+        return this.getBuffers(null);
+    }
+
+    /**
+     * getBuffers
+     * gets the head and body of the response, encoding the head into a buffer reused for every response on a connection
+     * @param headBuffer the heap buffer to encode the head into, or null to allocate one
+     * @return the encoded head followed by the body
+     */
+    public ByteBuffer[] getBuffers(ByteBuffer headBuffer) {
+        return new ByteBuffer[] { this.getHead(headBuffer), this.getBody() };
+    }
+
+    /**
+     * framingLength
+     * calculates the size of the header which delimits the body
+     * @return the encoded length of the Content-Length header, or 0 if the status forbids a body
+     */
+    int framingLength() {
+        if (!this.statusLine.allowsBody()) {
+            return 0;
+        }
+
+        return CONTENT_LENGTH.length + digits(this.getBodyLength()) + 2;
+    }
+
+    /**
+     * encodeFraming
+     * writes the header which delimits the body into a response head.
+     * Persistent connections rely on the length to find the end of the response
+     * @param dest the array holding the response head
+     * @param offset the index at which to start writing
+     * @return the index after the written header
+     */
+    int encodeFraming(byte[] dest, int offset) {
+        if (!this.statusLine.allowsBody()) {
+            return offset;
+        }
 
-        // Headers
-        for (Map.Entry<String, String> header : this.headers.entrySet()) {
-            res.append(header.getKey())
-                    .append(": ")
-                    .append(header.getValue())
-                    .append("\r\n");
+        System.arraycopy(CONTENT_LENGTH, 0, dest, offset, CONTENT_LENGTH.length);
+        offset += CONTENT_LENGTH.length;
+        offset = writeDigits(dest, offset, this.getBodyLength());
+
+        return writeLineEnd(dest, offset);
+    }
+
+    /**
+     * isContentLength
+     * checks whether a header name is the Content-Length header, which is always calculated from the body
+     * @param name the header name
+     * @return whether the header is the Content-Length header
+     */
+    private static boolean isContentLength(String name) {
+        return name.equalsIgnoreCase("Content-Length");
+    }
+
+    /**
+     * digits
+     * counts the number of decimal digits in a non-negative number
+     * @param value the number
+     * @return the number of digits
+     */
+    private static int digits(int value) {
+        int digits = 1;
+
+        while (value >= 10) {
+            value /= 10;
+            digits++;
         }
 
-        res.append("\r\n");
+        return digits;
+    }
 
-        byte[] statusAndHeaders = res.toString().getBytes(StandardCharsets.UTF_8);
-        byte[] body = this.body;
+    /**
+     * writeDigits
+     * writes the decimal digits of a non-negative number into an array
+     * @param dest the array to write into
+     * @param offset the index at which to start writing
+     * @param value the number
+     * @return the index after the written digits
+     */
+    private static int writeDigits(byte[] dest, int offset, int value) {
+        int end = offset + digits(value);
 
-        byte[] responseInBytes = new byte[statusAndHeaders.length + body.length];
+        // Write digits from least to most significant
+        for (int i = end - 1; i >= offset; i--) {
+            dest[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
 
-        System.arraycopy(statusAndHeaders, 0, responseInBytes, 0, statusAndHeaders.length);
+        return end;
+    }
 
-        System.arraycopy(body, 0, responseInBytes, statusAndHeaders.length, body.length);
+    /**
+     * writeChars
+     * writes the ISO-8859-1 encoding of a string into an array.
+     * Characters which cannot be encoded are replaced by {@code ?}
+     * @param dest the array to write into
+     * @param offset the index at which to start writing
+     * @param value the string
+     * @return the index after the written characters
+     */
+    private static int writeChars(byte[] dest, int offset, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            dest[offset++] = (byte) (c <= 0xFF ? c : '?');
+        }
 
-        return responseInBytes;
+        return offset;
+    }
+
+    /**
+     * writeLineEnd
+     * writes a CRLF line ending into an array
+     * @param dest the array to write into
+     * @param offset the index at which to start writing
+     * @return the index after the line ending
+     */
+    private static int writeLineEnd(byte[] dest, int offset) {
+        dest[offset++] = '\r';
+        dest[offset++] = '\n';
+
+        return offset;
     }
 
     /**
@@ -114,6 +464,37 @@ public class Response {
             this.code = code;
         }
 
+        /**
+         * getCode
+         * gets the response code of the status line
+         * @return the response code and message
+         */
+        public ResponseCode getCode() {
+            return this.code;
+        }
+
+        /**
+         * allowsBody
+         * checks whether a response with this status may have a body, and so a Content-Length header
+         * @return whether the status allows a body
+         */
+        private boolean allowsBody() {
+            return (this.code.getCode() >= 200) && (this.code != ResponseCode.NO_CONTENT) && (this.code != ResponseCode.NOT_MODIFIED);
+        }
+
+        /**
+         * encode
+         * encodes the status line, reusing the pre-encoded line of the response code for the default protocol
+         * @return the encoded status line, which must not be modified
+         */
+        private byte[] encode() {
+            if (DEFAULT_PROTOCOL.equals(this.protocol)) {
+                return this.code.getStatusLine();
+            }
+
+            return this.toString().getBytes(StandardCharsets.ISO_8859_1);
+        }
+
         /**
          * toString
          * stringifies the status line into a formatted HTTP response status line
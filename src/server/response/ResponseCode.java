@@ -1,19 +1,29 @@
 package server.response;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * represents an HTTP response code and its associated message
  * @author Harry Xu
  * @version 1.0 - May 20th 2023
  */
 public enum ResponseCode {
+    /** 101 Switching Protocols */
+    SWITCHING_PROTOCOLS(101, "Switching Protocols"),
     /** 200 OK */
     OK(200, "OK"),
     /** 201 Created */
     CREATED(201, "Created"),
+    /** 204 No Content */
+    NO_CONTENT(204, "No Content"),
+    /** 206 Partial Content */
+    PARTIAL_CONTENT(206, "Partial Content"),
     /** 302 Found */
     FOUND(302, "Found"),
     /** 302 See Other */
     SEE_OTHER(303, "See Other"),
+    /** 304 Not Modified */
+    NOT_MODIFIED(304, "Not Modified"),
     /** 400 Bad Request */
     BAD_REQUEST(400, "Bad Request"),
     /** 401 Unauthorized */
@@ -22,8 +32,22 @@ public enum ResponseCode {
     FORBIDDEN(403, "Forbidden"),
     /** 404 Not Found */
     NOT_FOUND(404, "Not Found"),
+    /** 405 Method Not Allowed */
+    METHOD_NOT_ALLOWED(405, "Method Not Allowed"),
+    /** 408 Request Timeout */
+    REQUEST_TIMEOUT(408, "Request Timeout"),
+    /** 413 Payload Too Large */
+    PAYLOAD_TOO_LARGE(413, "Payload Too Large"),
+    /** 416 Range Not Satisfiable */
+    RANGE_NOT_SATISFIABLE(416, "Range Not Satisfiable"),
+    /** 426 Upgrade Required */
+    UPGRADE_REQUIRED(426, "Upgrade Required"),
+    /** 431 Request Header Fields Too Large */
+    REQUEST_HEADER_FIELDS_TOO_LARGE(431, "Request Header Fields Too Large"),
     /** 500 Internal Server Error */
-    INTERNAL_SERVER_ERROR(500, "Interval Server Error");
+    INTERNAL_SERVER_ERROR(500, "Interval Server Error"),
+    /** 503 Service Unavailable */
+    SERVICE_UNAVAILABLE(503, "Service Unavailable");
 
     /** HTTP response code */
     private final int code;
@@ -31,6 +55,9 @@ public enum ResponseCode {
     /** HTTP response message*/
     private final String message;
 
+    /** The HTTP/1.1 status line of the response code, encoded once so it can be copied into every response */
+    private final byte[] statusLine;
+
     /**
      * Constructs an enum value with a code and message
      * @param code the response code
@@ -39,6 +66,7 @@ public enum ResponseCode {
     ResponseCode(int code, String message) {
         this.code = code;
         this.message = message;
+        this.statusLine = ("HTTP/1.1 " + code + " " + message + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
     }
 
     /**
@@ -60,4 +88,14 @@ public enum ResponseCode {
     public String getMessage() {
         return this.message;
     }
+
+    /**
+     * getStatusLine
+     * gets the encoded HTTP/1.1 status line of the response code.
+     * The returned array is shared and must not be modified
+     * @return the encoded status line, including the trailing CRLF
+     */
+    byte[] getStatusLine() {
+        return this.statusLine;
+    }
 }
@@ -0,0 +1,180 @@
+package server.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Represents an HTTP response whose body is written incrementally by a {@link BodyWriter}
+ * after the head has been sent, rather than being held in memory in full.
+ * The body is sent with {@code Transfer-Encoding: chunked}, or delimited by closing the connection
+ * for clients which do not understand chunked bodies.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class StreamingResponse extends Response {
+    /** The encoded Transfer-Encoding header of chunked responses */
+    private static final byte[] TRANSFER_ENCODING_CHUNKED = "Transfer-Encoding: chunked\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    /** Writes the body of the response */
+    private final BodyWriter writer;
+
+    /** Whether the body is sent with the chunked transfer coding */
+    private boolean chunked;
+
+    /** The coding the body is compressed with as it is written */
+    private ContentEncoding contentEncoding;
+
+    /** The compression level of the body */
+    private int compressionLevel;
+
+    /**
+     * Constructs a streaming response with a status line, pre-encoded headers, and a body writer
+     * @param statusLine the HTTP response status line
+     * @param headerBlock the pre-encoded HTTP response headers
+     * @param writer writes the body of the response
+     */
+    public StreamingResponse(StatusLine statusLine, HeaderBlock headerBlock, BodyWriter writer) {
+        this(statusLine, headerBlock, null, writer);
+    }
+
+    /**
+     * Constructs a streaming response with a status line, headers, and a body writer
+     * @param statusLine the HTTP response status line
+     * @param headers a map of the HTTP response headers
+     * @param writer writes the body of the response
+     */
+    public StreamingResponse(StatusLine statusLine, Map<String, String> headers, BodyWriter writer) {
+        this(statusLine, HeaderBlock.EMPTY, headers, writer);
+    }
+
+    /**
+     * Constructs a streaming response with a status line, pre-encoded headers, additional headers, and a body writer
+     * @param statusLine the HTTP response status line
+     * @param headerBlock the pre-encoded HTTP response headers
+     * @param headers a map of additional HTTP response headers, or null if there are none
+     * @param writer writes the body of the response
+     * @throws NullPointerException if the writer is null
+     */
+    public StreamingResponse(StatusLine statusLine, HeaderBlock headerBlock, Map<String, String> headers, BodyWriter writer) {
+        super(statusLine, headerBlock, headers, ByteBuffer.allocate(0));
+
+        if (writer == null) {
+            throw new NullPointerException("writer cannot be null");
+        }
+
+        this.writer = writer;
+        this.chunked = true;
+        this.contentEncoding = ContentEncoding.IDENTITY;
+    }
+
+    /**
+     * Constructs a streaming response whose subclass writes the body itself by overriding {@link #writeBody(OutputStream)}
+     * @param statusLine the HTTP response status line
+     * @param headerBlock the pre-encoded HTTP response headers
+     */
+    protected StreamingResponse(StatusLine statusLine, HeaderBlock headerBlock) {
+        super(statusLine, headerBlock, null, ByteBuffer.allocate(0));
+
+        this.writer = null;
+        this.chunked = true;
+        this.contentEncoding = ContentEncoding.IDENTITY;
+    }
+
+    /**
+     * setContentEncoding
+     * compresses the body with a coding as it is written, adding the {@code Content-Encoding} header
+     * @param contentEncoding the coding to compress the body with
+     * @param level the compression level, from 0 to 9, or -1 for the default level
+     */
+    public void setContentEncoding(ContentEncoding contentEncoding, int level) {
+        this.contentEncoding = contentEncoding;
+        this.compressionLevel = level;
+
+        if (contentEncoding != ContentEncoding.IDENTITY) {
+            this.getHeaders().put("Content-Encoding", contentEncoding.getToken());
+        }
+    }
+
+    /**
+     * setChunked
+     * sets whether the body is sent with the chunked transfer coding.
+     * A body which is not chunked can only be ended by closing the connection
+     * @param chunked whether the body is chunked
+     */
+    public void setChunked(boolean chunked) {
+        this.chunked = chunked;
+    }
+
+    /**
+     * isChunked
+     * gets whether the body is sent with the chunked transfer coding
+     * @return whether the body is chunked
+     */
+    public boolean isChunked() {
+        return this.chunked;
+    }
+
+    /**
+     * writeBody
+     * runs the body writer and terminates the body.
+     * The head of the response must already have been written to the stream
+     * @param out the stream to the client
+     * @throws IOException if an error occurs while writing to the client
+     */
+    public void writeBody(OutputStream out) throws IOException {
+        // Only the head is sent
+        if (this.isBodyOmitted()) {
+            out.flush();
+            return;
+        }
+
+        ChunkedOutputStream chunkedOut = this.chunked ? new ChunkedOutputStream(out) : null;
+        OutputStream body = this.chunked ? chunkedOut : out;
+
+        if (this.contentEncoding == ContentEncoding.IDENTITY) {
+            this.writer.write(body);
+        } else {
+            // Closing the compressing stream finishes the compressed data but leaves the body open
+            try (OutputStream encodedOut = this.contentEncoding.encode(body, this.compressionLevel)) {
+                this.writer.write(encodedOut);
+            }
+        }
+
+        if (this.chunked) {
+            chunkedOut.finish();
+        } else {
+            out.flush();
+        }
+    }
+
+    /**
+     * framingLength
+     * calculates the size of the header which delimits the body
+     * @return the encoded length of the Transfer-Encoding header, or 0 if the body is not chunked
+     */
+    @Override
+    int framingLength() {
+        return this.chunked ? TRANSFER_ENCODING_CHUNKED.length : 0;
+    }
+
+    /**
+     * encodeFraming
+     * writes the header which delimits the body into a response head
+     * @param dest the array holding the response head
+     * @param offset the index at which to start writing
+     * @return the index after the written header
+     */
+    @Override
+    int encodeFraming(byte[] dest, int offset) {
+        if (!this.chunked) {
+            return offset;
+        }
+
+        System.arraycopy(TRANSFER_ENCODING_CHUNKED, 0, dest, offset, TRANSFER_ENCODING_CHUNKED.length);
+
+        return offset + TRANSFER_ENCODING_CHUNKED.length;
+    }
+}
@@ -0,0 +1,31 @@
+package server.websocket;
+
+/**
+ * This exception should be thrown if the bytes sent over a {@link WebSocket} cannot be parsed into a valid frame.
+ * It carries the status code which should be sent in the close frame ending the connection.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class FrameParseException extends Exception {
+    /** The close status code describing the error */
+    private final int closeCode;
+
+    /**
+     * Constructs a FrameParseException with a close status code and an error message
+     * @param closeCode the close status code describing the error
+     * @param message the error message
+     */
+    FrameParseException(int closeCode, String message) {
+        super(message);
+        this.closeCode = closeCode;
+    }
+
+    /**
+     * getCloseCode
+     * gets the close status code which should be sent to the client
+     * @return the close status code
+     */
+    int getCloseCode() {
+        return this.closeCode;
+    }
+}
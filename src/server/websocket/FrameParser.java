@@ -0,0 +1,201 @@
+package server.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An incremental parser which reads the frames sent by a client over a {@link WebSocket}, as defined by RFC 6455.
+ * Bytes can be fed to the parser in pieces of any size as they arrive; the parser remembers its progress
+ * between calls and produces a frame once it has been fully received. Client frames must be masked,
+ * and the payload of each frame is unmasked as it is copied out of the input.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class FrameParser {
+    /** The largest payload of a control frame */
+    private static final int MAX_CONTROL_PAYLOAD = 125;
+
+    /** The maximum size of the payload of a frame in bytes */
+    private final int maxPayloadSize;
+
+    /** The masking key of the frame being read */
+    private final byte[] mask;
+
+    /** Whether the frame being read is the final fragment of its message */
+    private boolean fin;
+
+    /** The opcode of the frame being read */
+    private int opcode;
+
+    /** Holds the unmasked payload of the frame being read, or null if its header has not been read yet */
+    private byte[] payload;
+
+    /** The number of bytes of the payload read so far */
+    private int received;
+
+    /**
+     * Constructs a frame parser with a size limit
+     * @param maxPayloadSize the maximum size of the payload of a frame in bytes
+     */
+    FrameParser(int maxPayloadSize) {
+        this.maxPayloadSize = maxPayloadSize;
+        this.mask = new byte[4];
+    }
+
+    /**
+     * parse
+     * reads as much of the next frame as is available.
+     * Bytes of a header which has not fully arrived are left in the input for the next call
+     * @param input the bytes sent by the client, ready to be read
+     * @return the frame once it has been fully received, otherwise null
+     * @throws FrameParseException if the client sends a malformed or oversized frame
+     */
+    Frame parse(ByteBuffer input) throws FrameParseException {
+        if ((this.payload == null) && !this.parseHeader(input)) {
+            return null;
+        }
+
+        // Copy and unmask the part of the payload which has arrived
+        int count = Math.min(input.remaining(), this.payload.length - this.received);
+        input.get(this.payload, this.received, count);
+
+        for (int i = this.received; i < this.received + count; i++) {
+            this.payload[i] ^= this.mask[i & 3];
+        }
+
+        this.received += count;
+
+        if (this.received < this.payload.length) {
+            return null;
+        }
+
+        Frame frame = new Frame(this.fin, this.opcode, this.payload);
+
+        // Ready for the next frame
+        this.payload = null;
+        this.received = 0;
+
+        return frame;
+    }
+
+    /**
+     * parseHeader
+     * reads the header of the next frame once all of it has arrived
+     * @param input the bytes sent by the client, ready to be read
+     * @return whether the header was read
+     * @throws FrameParseException if the header is malformed or the payload is too large
+     */
+    private boolean parseHeader(ByteBuffer input) throws FrameParseException {
+        if (input.remaining() < 2) {
+            return false;
+        }
+
+        int start = input.position();
+        int first = input.get(start) & 0xFF;
+        int second = input.get(start + 1) & 0xFF;
+
+        boolean fin = (first & 0x80) != 0;
+        int opcode = first & 0x0F;
+
+        if ((first & 0x70) != 0) {
+            throw new FrameParseException(WebSocket.PROTOCOL_ERROR, "No extensions were negotiated");
+        }
+
+        if ((second & 0x80) == 0) {
+            throw new FrameParseException(WebSocket.PROTOCOL_ERROR, "Client frames must be masked");
+        }
+
+        if (!WebSocket.isKnownOpcode(opcode)) {
+            throw new FrameParseException(WebSocket.PROTOCOL_ERROR, "Unknown opcode " + opcode);
+        }
+
+        int shortLength = second & 0x7F;
+        int lengthSize = (shortLength == 126) ? 2 : (shortLength == 127) ? 8 : 0;
+
+        // Wait for the extended length and masking key
+        if (input.remaining() < 2 + lengthSize + 4) {
+            return false;
+        }
+
+        input.position(start + 2);
+
+        long length = shortLength;
+
+        if (lengthSize == 2) {
+            length = input.getShort() & 0xFFFF;
+        } else if (lengthSize == 8) {
+            length = input.getLong();
+        }
+
+        // Control frames are never fragmented and always fit in a short length
+        if (WebSocket.isControl(opcode) && (!fin || (length > MAX_CONTROL_PAYLOAD))) {
+            throw new FrameParseException(WebSocket.PROTOCOL_ERROR, "Invalid control frame");
+        }
+
+        if ((length < 0) || (length > this.maxPayloadSize)) {
+            throw new FrameParseException(WebSocket.MESSAGE_TOO_BIG, "Frame is too large");
+        }
+
+        input.get(this.mask);
+
+        this.fin = fin;
+        this.opcode = opcode;
+        this.payload = new byte[(int) length];
+
+        return true;
+    }
+
+    /**
+     * Represents a single frame sent by a client, with its payload unmasked
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    static class Frame {
+        /** Whether the frame is the final fragment of its message */
+        private final boolean fin;
+
+        /** The opcode of the frame */
+        private final int opcode;
+
+        /** The unmasked payload of the frame */
+        private final byte[] payload;
+
+        /**
+         * Constructs a frame
+         * @param fin whether the frame is the final fragment of its message
+         * @param opcode the opcode of the frame
+         * @param payload the unmasked payload of the frame
+         */
+        private Frame(boolean fin, int opcode, byte[] payload) {
+            this.fin = fin;
+            this.opcode = opcode;
+            this.payload = payload;
+        }
+
+        /**
+         * isFin
+         * gets whether the frame is the final fragment of its message
+         * @return whether the frame is final
+         */
+        boolean isFin() {
+            return this.fin;
+        }
+
+        /**
+         * getOpcode
+         * gets the opcode of the frame, which identifies its type
+         * @return the opcode
+         */
+        int getOpcode() {
+            return this.opcode;
+        }
+
+        /**
+         * getPayload
+         * gets the unmasked payload of the frame
+         * @return the payload
+         */
+        byte[] getPayload() {
+            return this.payload;
+        }
+    }
+}
@@ -0,0 +1,541 @@
+package server.websocket;
+
+import server.request.Request;
+import server.request.RequestMethod;
+import server.response.HeaderBlock;
+import server.response.Response;
+import server.response.ResponseCode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents a connection which has been upgraded from HTTP to the web socket protocol of RFC 6455,
+ * over which the client and server exchange text messages in both directions.
+ * Handlers accept a socket by returning the response of {@link #upgrade(Request, WebSocketListener)},
+ * after which the server reads the frames of the client, answers pings, and delivers complete messages to the listener.
+ * Messages can be sent from any thread. Idle sockets are pinged, and closed if the client stops answering.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class WebSocket {
+    /** Appended to the key of a handshake before it is hashed into the accept header */
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    /** The only version of the protocol supported */
+    private static final String VERSION = "13";
+
+    /** Pre-encoded headers of responses to handshakes asking for an unsupported version */
+    private static final HeaderBlock VERSION_HEADERS = new HeaderBlock(Map.of("Sec-WebSocket-Version", VERSION));
+
+    /** Opcode of a frame continuing a fragmented message */
+    static final int CONTINUATION = 0x0;
+
+    /** Opcode of a frame starting a text message */
+    static final int TEXT = 0x1;
+
+    /** Opcode of a frame starting a binary message */
+    static final int BINARY = 0x2;
+
+    /** Opcode of a frame closing the connection */
+    static final int CLOSE = 0x8;
+
+    /** Opcode of a frame asking for a pong */
+    static final int PING = 0x9;
+
+    /** Opcode of a frame answering a ping */
+    static final int PONG = 0xA;
+
+    /** Close status code of a connection which ended normally */
+    static final int NORMAL_CLOSURE = 1000;
+
+    /** Close status code of a peer which broke the protocol */
+    static final int PROTOCOL_ERROR = 1002;
+
+    /** Close status code of a message type which is not accepted */
+    static final int UNSUPPORTED_DATA = 1003;
+
+    /** Close status code of a text message which is not valid UTF-8 */
+    static final int INVALID_PAYLOAD = 1007;
+
+    /** Close status code of a message which is too large to be received */
+    static final int MESSAGE_TOO_BIG = 1009;
+
+    /** Close status code of a listener which failed to handle an event */
+    static final int INTERNAL_ERROR = 1011;
+
+    /** The request which opened the socket */
+    private final Request request;
+
+    /** Receives the events of the socket */
+    private final WebSocketListener listener;
+
+    /** Writes frames to the connection */
+    private final Output output;
+
+    /** Parses the frames sent by the client */
+    private final FrameParser parser;
+
+    /** The maximum size of a message in bytes, including all of its fragments */
+    private final int maxMessageSize;
+
+    /** Holds the fragments of the message being received */
+    private final ByteArrayOutputStream message;
+
+    /** The opcode of the fragmented message being received, or -1 if none is in progress */
+    private int messageOpcode;
+
+    /** The last time in milliseconds a frame was received */
+    private volatile long lastReceived;
+
+    /** Whether a ping has been sent since the last frame was received */
+    private volatile boolean pingSent;
+
+    /** Whether a close frame has been sent, after which no more messages can be sent */
+    private final AtomicBoolean closeSent;
+
+    /** Whether the listener has been told the socket is closed */
+    private final AtomicBoolean closed;
+
+    /**
+     * Constructs a socket over a connection which has been upgraded
+     * @param request the request which opened the socket
+     * @param listener receives the events of the socket
+     * @param maxMessageSize the maximum size of a message in bytes
+     * @param output writes frames to the connection
+     */
+    WebSocket(Request request, WebSocketListener listener, int maxMessageSize, Output output) {
+        this.request = request;
+        this.listener = listener;
+        this.output = output;
+        this.parser = new FrameParser(maxMessageSize);
+        this.maxMessageSize = maxMessageSize;
+        this.message = new ByteArrayOutputStream();
+        this.messageOpcode = -1;
+        this.lastReceived = System.currentTimeMillis();
+        this.closeSent = new AtomicBoolean(false);
+        this.closed = new AtomicBoolean(false);
+    }
+
+    /**
+     * upgrade
+     * answers a web socket handshake, switching the connection to the web socket protocol once the response is sent.
+     * Requests which are not valid handshakes are answered with an error and the connection is not upgraded
+     * @param req the HTTP request asking to upgrade
+     * @param listener receives the events of the socket
+     * @return 101 Switching Protocols if the handshake is valid,
+     * 426 Upgrade Required if it asks for an unsupported version, otherwise 400 Bad Request
+     */
+    public static Response upgrade(Request req, WebSocketListener listener) {
+        String key = req.getHeader("Sec-WebSocket-Key");
+
+        if ((req.getStatusLine().getMethod() != RequestMethod.GET)
+                || !"HTTP/1.1".equals(req.getStatusLine().getProtocol())
+                || !hasToken(req.getHeader("Upgrade"), "websocket")
+                || !hasToken(req.getHeader("Connection"), "upgrade")
+                || !isValidKey(key)) {
+            return new Response(new Response.StatusLine(ResponseCode.BAD_REQUEST), HeaderBlock.EMPTY, "");
+        }
+
+        String version = req.getHeader("Sec-WebSocket-Version");
+
+        if ((version == null) || !version.trim().equals(VERSION)) {
+            return new Response(new Response.StatusLine(ResponseCode.UPGRADE_REQUIRED), VERSION_HEADERS, "");
+        }
+
+        return new WebSocketResponse(req, listener, accept(key.trim()));
+    }
+
+    /**
+     * accept
+     * calculates the value of the accept header which proves the server understood a handshake
+     * @param key the key sent by the client
+     * @return the base64 encoded SHA-1 hash of the key and the protocol GUID
+     */
+    static String accept(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.ISO_8859_1));
+
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * isValidKey
+     * checks whether the key of a handshake is 16 base64 encoded bytes
+     * @param key the key sent by the client
+     * @return whether the key is valid
+     */
+    private static boolean isValidKey(String key) {
+        if (key == null) {
+            return false;
+        }
+
+        try {
+            return Base64.getDecoder().decode(key.trim()).length == 16;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * hasToken
+     * checks whether a comma separated header contains a token, ignoring case
+     * @param header the value of the header, or null if it is missing
+     * @param token the token to look for
+     * @return whether the header contains the token
+     */
+    private static boolean hasToken(String header, String token) {
+        if (header == null) {
+            return false;
+        }
+
+        for (String value : header.split(",")) {
+            if (value.trim().equalsIgnoreCase(token)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * getRequest
+     * gets the request which opened the socket, holding its url, query, and cookies
+     * @return the request
+     */
+    public Request getRequest() {
+        return this.request;
+    }
+
+    /**
+     * isOpen
+     * checks whether messages can still be sent on the socket
+     * @return whether the socket is open
+     */
+    public boolean isOpen() {
+        return !this.closeSent.get() && !this.closed.get();
+    }
+
+    /**
+     * send
+     * sends a text message to the client, queueing it rather than waiting for it to be written.
+     * This method may be called from any thread
+     * @param text the message
+     * @throws IOException if the socket is closed or an error occurs while writing to the client
+     */
+    public void send(String text) throws IOException {
+        if (!this.isOpen()) {
+            throw new IOException("web socket is closed");
+        }
+
+        this.output.write(encode(TEXT, text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * close
+     * starts closing the socket normally.
+     * The connection is closed once the client answers, or once it stops answering pings
+     * @throws IOException if an error occurs while writing to the client
+     */
+    public void close() throws IOException {
+        this.close(NORMAL_CLOSURE);
+    }
+
+    /**
+     * close
+     * sends a close frame with a status code, unless one has already been sent
+     * @param code the close status code
+     * @throws IOException if an error occurs while writing to the client
+     */
+    private void close(int code) throws IOException {
+        if (!this.closeSent.compareAndSet(false, true)) {
+            return;
+        }
+
+        this.output.write(encode(CLOSE, new byte[] { (byte) (code >> 8), (byte) code }));
+    }
+
+    /**
+     * opened
+     * tells the listener the socket is open.
+     * Called by the server once the handshake response has been sent
+     * @return whether the socket stays open
+     */
+    public boolean opened() {
+        try {
+            this.listener.onOpen(this);
+            return true;
+        } catch (RuntimeException e) {
+            return this.failed(e);
+        }
+    }
+
+    /**
+     * closed
+     * tells the listener the connection is closed.
+     * Called by the server once the connection has been closed; calling this method more than once has no effect
+     */
+    public void closed() {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            this.listener.onClose(this);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * receive
+     * reads and handles the complete frames sent by the client.
+     * Called by the server with the bytes it has read from the connection
+     * @param input the bytes sent by the client, ready to be read; bytes of an incomplete header are left in it
+     * @return whether the connection stays open, otherwise it should be closed once the queued frames are sent
+     */
+    public boolean receive(ByteBuffer input) {
+        try {
+            FrameParser.Frame frame = this.parser.parse(input);
+
+            while (frame != null) {
+                this.lastReceived = System.currentTimeMillis();
+                this.pingSent = false;
+
+                if (!this.handle(frame)) {
+                    return false;
+                }
+
+                frame = this.parser.parse(input);
+            }
+
+            return true;
+        } catch (FrameParseException e) {
+            return this.fail(e.getCloseCode());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * keepAlive
+     * pings the client once the socket has been idle for an interval, so dead connections are noticed.
+     * Called by the server periodically while the socket is open
+     * @param now the current time in milliseconds
+     * @param interval the time in milliseconds the socket may be idle before it is pinged
+     * @return whether the connection stays open, which is false if a ping has gone unanswered for an interval
+     */
+    public boolean keepAlive(long now, int interval) {
+        long idle = now - this.lastReceived;
+
+        if (idle >= 2L * interval) {
+            return false;
+        }
+
+        if ((idle >= interval) && !this.pingSent) {
+            this.pingSent = true;
+
+            try {
+                this.output.write(encode(PING, new byte[0]));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * handle
+     * handles a single frame sent by the client
+     * @param frame the frame
+     * @return whether the connection stays open
+     * @throws IOException if an error occurs while writing to the client
+     */
+    private boolean handle(FrameParser.Frame frame) throws IOException {
+        switch (frame.getOpcode()) {
+            case PING:
+                // Answered with the same payload
+                this.output.write(encode(PONG, frame.getPayload()));
+                return true;
+            case PONG:
+                return true;
+            case CLOSE:
+                // Answered with the same status code, after which the connection is closed
+                if (this.closeSent.compareAndSet(false, true)) {
+                    byte[] payload = frame.getPayload();
+                    byte[] code = (payload.length >= 2) ? new byte[] { payload[0], payload[1] } : new byte[0];
+
+                    this.output.write(encode(CLOSE, code));
+                }
+
+                return false;
+            case CONTINUATION:
+                if (this.messageOpcode == -1) {
+                    return this.fail(PROTOCOL_ERROR);
+                }
+
+                break;
+            default:
+                if (this.messageOpcode != -1) {
+                    return this.fail(PROTOCOL_ERROR);
+                }
+
+                this.messageOpcode = frame.getOpcode();
+                break;
+        }
+
+        if (this.message.size() + frame.getPayload().length > this.maxMessageSize) {
+            return this.fail(MESSAGE_TOO_BIG);
+        }
+
+        this.message.write(frame.getPayload(), 0, frame.getPayload().length);
+
+        if (!frame.isFin()) {
+            return true;
+        }
+
+        int opcode = this.messageOpcode;
+        byte[] payload = this.message.toByteArray();
+
+        this.message.reset();
+        this.messageOpcode = -1;
+
+        if (opcode != TEXT) {
+            return this.fail(UNSUPPORTED_DATA);
+        }
+
+        String text;
+
+        try {
+            text = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(payload))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return this.fail(INVALID_PAYLOAD);
+        }
+
+        // Messages which arrive after the socket started closing are discarded
+        if (this.closeSent.get()) {
+            return true;
+        }
+
+        try {
+            this.listener.onMessage(this, text);
+        } catch (RuntimeException e) {
+            return this.failed(e);
+        }
+
+        return true;
+    }
+
+    /**
+     * failed
+     * closes the socket because its listener failed to handle an event
+     * @param e the exception thrown by the listener
+     * @return false, since the connection does not stay open
+     */
+    private boolean failed(RuntimeException e) {
+        e.printStackTrace();
+        System.out.println("Error handling web socket event");
+
+        return this.fail(INTERNAL_ERROR);
+    }
+
+    /**
+     * fail
+     * closes the socket because of an error
+     * @param code the close status code describing the error
+     * @return false, since the connection does not stay open
+     */
+    private boolean fail(int code) {
+        try {
+            this.close(code);
+        } catch (IOException e) {
+            // Connection is closed regardless
+        }
+
+        return false;
+    }
+
+    /**
+     * isKnownOpcode
+     * checks whether an opcode is defined by the protocol
+     * @param opcode the opcode
+     * @return whether the opcode is known
+     */
+    static boolean isKnownOpcode(int opcode) {
+        return (opcode <= BINARY) || (isControl(opcode) && (opcode <= PONG));
+    }
+
+    /**
+     * isControl
+     * checks whether an opcode belongs to a control frame, which can be sent between the fragments of a message
+     * @param opcode the opcode
+     * @return whether the opcode is a control opcode
+     */
+    static boolean isControl(int opcode) {
+        return (opcode & 0x8) != 0;
+    }
+
+    /**
+     * encode
+     * encodes an unmasked frame holding a whole message, as sent by the server
+     * @param opcode the opcode of the frame
+     * @param payload the payload of the frame
+     * @return the encoded frame, ready to be read
+     */
+    static ByteBuffer encode(int opcode, byte[] payload) {
+        int lengthSize = (payload.length < 126) ? 0 : (payload.length <= 0xFFFF) ? 2 : 8;
+        ByteBuffer frame = ByteBuffer.allocate(2 + lengthSize + payload.length);
+
+        frame.put((byte) (0x80 | opcode));
+
+        if (lengthSize == 0) {
+            frame.put((byte) payload.length);
+        } else if (lengthSize == 2) {
+            frame.put((byte) 126);
+            frame.putShort((short) payload.length);
+        } else {
+            frame.put((byte) 127);
+            frame.putLong(payload.length);
+        }
+
+        frame.put(payload);
+
+        return frame.flip();
+    }
+
+    /**
+     * Writes the frames of a {@link WebSocket} to its connection, provided by the server serving it
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    @FunctionalInterface
+    public interface Output {
+        /**
+         * write
+         * queues a whole frame to be written, without waiting on the client.
+         * This method may be called from any thread, and frames written by different threads must not be interleaved
+         * @param frame the encoded frame, ready to be read
+         * @throws IOException if the connection is closed or an error occurs while writing to it
+         */
+        void write(ByteBuffer frame) throws IOException;
+    }
+}
@@ -0,0 +1,34 @@
+package server.websocket;
+
+/**
+ * Receives the events of a {@link WebSocket}.
+ * Events of a single socket are delivered one at a time, in order, on the thread serving its connection.
+ * In the non-blocking serving mode that thread is an event loop shared with many other connections,
+ * so listeners should only hand work off rather than block
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public interface WebSocketListener {
+    /**
+     * onOpen
+     * handles a socket whose handshake has completed, before any of its messages are received
+     * @param socket the opened socket
+     */
+    void onOpen(WebSocket socket);
+
+    /**
+     * onMessage
+     * handles a text message sent by the client
+     * @param socket the socket the message was received on
+     * @param message the message
+     */
+    void onMessage(WebSocket socket, String message);
+
+    /**
+     * onClose
+     * handles a socket whose connection has been closed, by either side or because of an error.
+     * No messages can be sent on the socket afterwards
+     * @param socket the closed socket
+     */
+    void onClose(WebSocket socket);
+}
@@ -0,0 +1,56 @@
+package server.websocket;
+
+import server.request.Request;
+import server.response.HeaderBlock;
+import server.response.Response;
+import server.response.ResponseCode;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Represents the 101 Switching Protocols response accepting a web socket handshake.
+ * Once the server has sent it, the connection no longer carries HTTP, and the server opens a {@link WebSocket} over it.
+ * Responses are created by {@link WebSocket#upgrade(Request, WebSocketListener)}.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class WebSocketResponse extends Response {
+    /** Pre-encoded headers of every accepted handshake */
+    private static final HeaderBlock UPGRADE_HEADERS = new HeaderBlock(Map.of("Upgrade", "websocket"));
+
+    /** The request which opened the socket */
+    private final Request request;
+
+    /** Receives the events of the socket */
+    private final WebSocketListener listener;
+
+    /**
+     * Constructs a response accepting a handshake
+     * @param request the request which opened the socket
+     * @param listener receives the events of the socket
+     * @param accept the value of the accept header, derived from the key of the handshake
+     */
+    WebSocketResponse(Request request, WebSocketListener listener, String accept) {
+        super(
+                new Response.StatusLine(ResponseCode.SWITCHING_PROTOCOLS),
+                UPGRADE_HEADERS,
+                Map.of("Sec-WebSocket-Accept", accept),
+                ByteBuffer.allocate(0)
+        );
+
+        this.request = request;
+        this.listener = listener;
+    }
+
+    /**
+     * open
+     * opens the socket over the connection this response was sent on
+     * @param maxMessageSize the maximum size of a message in bytes
+     * @param output writes frames to the connection
+     * @return the socket
+     */
+    public WebSocket open(int maxMessageSize, WebSocket.Output output) {
+        return new WebSocket(this.request, this.listener, maxMessageSize, output);
+    }
+}
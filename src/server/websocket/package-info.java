@@ -0,0 +1,6 @@
+/**
+ * A package containing classes to upgrade HTTP connections to web sockets and exchange messages over them
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package server.websocket;
@@ -0,0 +1,45 @@
+package template;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event covering the compilation of a template into HTML
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@Name("template.Compile")
+@Label("Template Compile")
+@Category({"Web Server", "Templates"})
+@Description("A template compiled into HTML")
+class TemplateCompileEvent extends Event {
+    /** The registered path of the template */
+    @Label("Template")
+    private final String template;
+
+    /** The number of characters of the compiled HTML */
+    @Label("Output Size")
+    @Description("The number of characters of the compiled HTML")
+    private int size;
+
+    /**
+     * Constructs and begins timing an event
+     * @param template the registered path of the template
+     */
+    TemplateCompileEvent(String template) {
+        this.template = template;
+        this.begin();
+    }
+
+    /**
+     * setSize
+     * sets the number of characters of the compiled HTML
+     * @param size the number of characters
+     */
+    void setSize(int size) {
+        this.size = size;
+    }
+}
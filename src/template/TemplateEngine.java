@@ -11,18 +11,29 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * An engine to compile the custom templating language (.th files) into HTML for the browser
  * This engine allows for data interpolation in single braces (e.g. {data.age})
  * it also allows for IF and FOR directives to expression control flow in the template.
  * The template has access to a root `data` object, inputted by the developer, that holds dynamic data.
+ * Static assets are linked with the ASSET directive (e.g. {#asset /static/css/index.css}),
+ * which is replaced with the fingerprinted url of the asset's current version.
  * @author Harry Xu
  * @version 1.0 - May 20th 2023
  */
 public class TemplateEngine {
-    /** Rhe registry for templates*/
-    private final Map<String, String> templates;
+    /** Matches an INCLUDE directive which is not escaped, capturing the path of the partial */
+    private static final Pattern INCLUDE_PATTERN = Pattern.compile("(?<!\\\\)\\{\\s*#include\\s+([^\\s}]+)\\s*}");
+
+    /** Rhe registry for templates, which is replaced rather than modified once the engine is constructed */
+    private volatile Map<String, String> templates;
+
+    /** Maps the url of an asset to the url of its current version, or null if assets are linked as written */
+    private volatile UnaryOperator<String> assetLinker;
 
     /**
      * Constructs a template engine with predefined templates registered
@@ -67,12 +78,127 @@ public class TemplateEngine {
      * @throws TemplateNotFoundException if no template is registered under the path
      * */
     public String getTemplate(String path) {
-        if (!this.templates.containsKey(path)) {
+        String template = this.templates.get(path);
+
+        if (template == null) {
             throw new TemplateNotFoundException("Template " + path + " cannot be found");
         }
 
+        return template;
+    }
+
+    /**
+     * setAssetLinker
+     * sets the function resolving the urls of ASSET directives
+     * @param assetLinker maps the url of an asset to the url of its current version
+     */
+    public void setAssetLinker(UnaryOperator<String> assetLinker) {
+        this.assetLinker = assetLinker;
+    }
+
+    /**
+     * linkAssets
+     * gets a registered template with its ASSET directives replaced by the urls of the current versions of the assets
+     * @param path the registered path of the template
+     * @return the template string with its assets linked
+     * @throws TemplateNotFoundException if no template is registered under the path
+     */
+    public String linkAssets(String path) {
+        String template = this.getTemplate(path);
+
+        UnaryOperator<String> assetLinker = this.assetLinker;
+
+        StringBuilder linked = new StringBuilder();
+
+        int start = template.indexOf("{#asset ");
+        int copied = 0;
+
+        while (start != -1) {
+            int end = template.indexOf('}', start);
+
+            if (end == -1) {
+                throw new TemplateSyntaxException("unclosed asset directive");
+            }
+
+            // Escaped braces are left as is
+            if ((start == 0) || (template.charAt(start - 1) != '\\')) {
+                String url = template.substring(start + "{#asset ".length(), end).trim();
+
+                linked.append(template, copied, start);
+                linked.append(assetLinker == null ? url : assetLinker.apply(url));
+
+                copied = end + 1;
+            }
+
+            start = template.indexOf("{#asset ", end);
+        }
+
+        // Templates without assets are not copied
+        if (copied == 0) {
+            return template;
+        }
+
+        return linked.append(template, copied, template.length()).toString();
+    }
+
+    /**
+     * getSource
+     * gets a registered template with its assets linked and every partial it includes inlined, recursively.
+     * A page changes whenever its template, a partial, or a linked asset does, so this is the source pages should be identified by.
+     * Partials are inlined whether or not the page ends up including them, so the source may change when the page does not
+     * @param path the registered path of the template
+     * @return the expanded template string
+     * @throws TemplateNotFoundException if the template or one of its partials is not registered
+     * @throws TemplateSyntaxException if an asset directive is unclosed, or a template includes itself
+     */
+    public String getSource(String path) {
+        return this.expandIncludes(path, new HashSet<>());
+    }
+
+    /**
+     * expandIncludes
+     * links the assets of a template and inlines the partials it includes
+     * @param path the registered path of the template
+     * @param including the templates being expanded, which a partial must not include again
+     * @return the expanded template string
+     * @throws TemplateSyntaxException if a template includes itself
+     */
+    private String expandIncludes(String path, Set<String> including) {
+        if (!including.add(path)) {
+            throw new TemplateSyntaxException("template " + path + " includes itself");
+        }
+
+        Matcher include = INCLUDE_PATTERN.matcher(this.linkAssets(path));
+        StringBuilder expanded = new StringBuilder();
+
+        while (include.find()) {
+            include.appendReplacement(expanded, Matcher.quoteReplacement(this.expandIncludes(include.group(1), including)));
+        }
+
+        include.appendTail(expanded);
+        including.remove(path);
 
-        return this.templates.get(path);
+        return expanded.toString();
+    }
+
+    /**
+     * reload
+     * reads a changed template again, or removes it if it was deleted.
+     * The registry is copied and replaced rather than modified, so templates being compiled never wait on a lock
+     * and never see a partially updated registry
+     * @param path the registered path of the template
+     * @throws IOException if an error occurs while reading the template
+     */
+    public synchronized void reload(String path) throws IOException {
+        Map<String, String> templates = new HashMap<>(this.templates);
+
+        if (new File(path).isFile()) {
+            templates.put(path, this.read(path));
+        } else {
+            templates.remove(path);
+        }
+
+        this.templates = templates;
     }
 
     /**
@@ -86,15 +212,19 @@ public class TemplateEngine {
      * @throws TemplateNotFoundException if the requested template is not registered
      */
     public <T> String compile(String inputFile, T data) throws TemplateSyntaxException, TemplateNotFoundException {
-        if (!this.templates.containsKey(inputFile)) {
-            throw new TemplateNotFoundException("Template " + inputFile + " cannot be found");
-        }
+        TemplateCompileEvent event = new TemplateCompileEvent(inputFile);
 
-        String template =  template(this.templates.get(inputFile), data);
+        try {
+            String template = template(this.linkAssets(inputFile), data);
 
-        template = template.replace("\\{", "{").replace("\\}", "}");
+            template = template.replace("\\{", "{").replace("\\}", "}");
 
-        return template;
+            event.setSize(template.length());
+
+            return template;
+        } finally {
+            event.commit();
+        }
     }
 
     /**